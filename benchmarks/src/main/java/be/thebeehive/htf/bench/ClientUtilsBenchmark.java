@@ -0,0 +1,77 @@
+package be.thebeehive.htf.bench;
+
+import be.thebeehive.htf.client.ClientUtils;
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Values;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applying every action of a round to the submarine with {@link ClientUtils#sumValues} and
+ * checking {@link ClientUtils#isDead} after each one, on BigDecimal {@link Values} and on
+ * {@link PackedValues}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientUtilsBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"synthetic"})
+    public String payload;
+
+    private Values start;
+    private Values[] deltas;
+    private PackedValues packedStart;
+    private PackedValues[] packedDeltas;
+    private PackedValues packedScratch;
+
+    @Setup
+    public void setUp() throws Exception {
+        GameRoundServerMessage round = Payloads.round(this.payload, this.size, 0);
+        this.start = round.getOurSubmarine().getValues();
+        this.deltas = new Values[round.getActions().size()];
+        this.packedDeltas = new PackedValues[this.deltas.length];
+        for (int i = 0; i < this.deltas.length; i++) {
+            this.deltas[i] = round.getActions().get(i).getValues();
+            this.packedDeltas[i] = PackedValues.of(this.deltas[i]);
+        }
+        this.packedStart = PackedValues.of(this.start);
+        this.packedScratch = new PackedValues();
+    }
+
+    @Benchmark
+    public int sumValues() {
+        int dead = 0;
+        for (Values delta : this.deltas) {
+            if (ClientUtils.isDead(ClientUtils.sumValues(this.start, delta))) dead++;
+        }
+        return dead;
+    }
+
+    @Benchmark
+    public int sumPackedValues() {
+        int dead = 0;
+        for (PackedValues delta : this.packedDeltas) {
+            if (ClientUtils.isDead(ClientUtils.sumValues(this.packedStart, delta, this.packedScratch))) dead++;
+        }
+        return dead;
+    }
+}
@@ -0,0 +1,80 @@
+package be.thebeehive.htf.bench;
+
+import be.thebeehive.htf.library.DecoderType;
+import be.thebeehive.htf.library.EnvironmentType;
+import be.thebeehive.htf.library.HtfClient;
+import be.thebeehive.htf.library.HtfClientListener;
+import be.thebeehive.htf.library.protocol.server.ErrorServerMessage;
+import be.thebeehive.htf.library.protocol.server.GameEndedServerMessage;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessage;
+import be.thebeehive.htf.library.protocol.server.WarningServerMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a {@link GameRoundServerMessage} frame, the work {@link HtfClient#onMessage} does on
+ * the IO thread, with both decoders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodeBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"synthetic"})
+    public String payload;
+
+    @Param({"STREAMING", "OBJECT_MAPPER"})
+    public DecoderType decoderType;
+
+    private HtfClient client;
+    private String frame;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.frame = Payloads.json(Payloads.round(this.payload, this.size, this.size));
+        this.client = new HtfClient("ws://localhost:0", "benchmark", EnvironmentType.SIMULATION, new IgnoringListener());
+        this.client.setDecoderType(this.decoderType);
+    }
+
+    @Benchmark
+    public ServerMessage decode() throws Exception {
+        return this.client.decode(this.frame);
+    }
+
+    private static final class IgnoringListener implements HtfClientListener {
+
+        @Override
+        public void onErrorServerMessage(HtfClient client, ErrorServerMessage msg) {
+        }
+
+        @Override
+        public void onGameEndedServerMessage(HtfClient client, GameEndedServerMessage msg) {
+        }
+
+        @Override
+        public void onGameRoundServerMessage(HtfClient client, GameRoundServerMessage msg) {
+        }
+
+        @Override
+        public void onWarningServerMessage(HtfClient client, WarningServerMessage msg) {
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package be.thebeehive.htf.bench;
+
+import be.thebeehive.htf.library.protocol.client.SelectActionsClientMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a {@link SelectActionsClientMessage} the way {@code HtfClient.send} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private SelectActionsClientMessage msg;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = new ObjectMapper();
+        List<Long> actionIds = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            actionIds.add(1_000L + i);
+        }
+        this.msg = new SelectActionsClientMessage(new UUID(42L, 7L), actionIds);
+    }
+
+    @Benchmark
+    public String encode() throws Exception {
+        return this.objectMapper.writeValueAsString(this.msg);
+    }
+}
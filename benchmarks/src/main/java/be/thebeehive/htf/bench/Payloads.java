@@ -0,0 +1,167 @@
+package be.thebeehive.htf.bench;
+
+import be.thebeehive.htf.library.journal.JournalDirection;
+import be.thebeehive.htf.library.journal.SessionJournalReader;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessageDecoder;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Action;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Effect;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Submarine;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Values;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * The game rounds the benchmarks run on.
+ * <p>
+ * SYNTHETIC rounds are generated from a fixed seed. RECORDED rounds start from the first game
+ * round in the session journal named by the {@code htf.journal} system property, resized to the
+ * requested counts by cycling through its actions and effects with fresh ids.
+ */
+public final class Payloads {
+
+    public static final String JOURNAL_PROPERTY = "htf.journal";
+
+    private static final long SEED = 20240501L;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private Payloads() {
+    }
+
+    /**
+     * Builds a round with the given number of actions and effects.
+     *
+     * @param payload "synthetic" or "recorded".
+     */
+    public static GameRoundServerMessage round(String payload, int actions, int effects) throws IOException {
+        switch (payload) {
+            case "synthetic":
+                return synthetic(new Random(SEED), actions, effects);
+            case "recorded":
+                return resize(recorded(), actions, effects);
+            default:
+                throw new IllegalArgumentException("Unknown payload: " + payload);
+        }
+    }
+
+    /**
+     * The round as the server would send it.
+     */
+    public static String json(GameRoundServerMessage msg) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsString(msg);
+    }
+
+    private static GameRoundServerMessage synthetic(Random random, int actionCount, int effectCount) {
+        GameRoundServerMessage msg = new GameRoundServerMessage();
+        msg.setRound(1);
+        msg.setRoundId(new UUID(random.nextLong(), random.nextLong()));
+
+        Submarine submarine = new Submarine();
+        submarine.setName("benchmark");
+        submarine.setAlive(true);
+        long maxHull = 20_000 + random.nextInt(200_000);
+        long maxCrew = 200 + random.nextInt(1_500);
+        submarine.setValues(values(1 + random.nextInt((int) maxHull), maxHull, 1 + random.nextInt((int) maxCrew), maxCrew));
+        msg.setOurSubmarine(submarine);
+
+        List<Effect> effects = new ArrayList<>(effectCount);
+        for (int i = 0; i < effectCount; i++) {
+            Effect effect = new Effect();
+            effect.setId(100 + i);
+            effect.setStep(1 + random.nextInt(4));
+            effect.setValues(delta(random));
+            effects.add(effect);
+        }
+        msg.setEffects(effects);
+
+        List<Action> actions = new ArrayList<>(actionCount);
+        for (int i = 0; i < actionCount; i++) {
+            Action action = new Action();
+            action.setId(1_000 + i);
+            action.setEffectId(effectCount > 0 && random.nextBoolean() ? 100 + random.nextInt(effectCount) : -1);
+            action.setValues(delta(random));
+            actions.add(action);
+        }
+        msg.setActions(actions);
+        msg.setCompetingSubmarines(Collections.<Submarine>emptyList());
+        return msg;
+    }
+
+    private static Values delta(Random random) {
+        return values(
+                random.nextInt(40_000) - 20_000,
+                random.nextInt(3) == 0 ? random.nextInt(20_000) - 8_000 : 0,
+                random.nextInt(600) - 300,
+                random.nextInt(3) == 0 ? random.nextInt(200) - 80 : 0
+        );
+    }
+
+    private static Values values(long hull, long maxHull, long crew, long maxCrew) {
+        Values values = new Values();
+        values.setHullStrength(BigDecimal.valueOf(hull));
+        values.setMaxHullStrength(BigDecimal.valueOf(maxHull));
+        values.setCrewHealth(BigDecimal.valueOf(crew));
+        values.setMaxCrewHealth(BigDecimal.valueOf(maxCrew));
+        return values;
+    }
+
+    private static GameRoundServerMessage recorded() throws IOException {
+        String directory = System.getProperty(JOURNAL_PROPERTY);
+        if (directory == null) {
+            throw new IllegalStateException("Recorded payloads need -D" + JOURNAL_PROPERTY + "=<journal directory>");
+        }
+
+        ServerMessageDecoder decoder = new ServerMessageDecoder();
+        try (SessionJournalReader reader = new SessionJournalReader(SessionJournalReader.segments(Paths.get(directory)))) {
+            while (reader.next()) {
+                if (reader.getDirection() != JournalDirection.INBOUND) continue;
+                ServerMessage msg = decoder.decode(reader.getFrame());
+                if (msg instanceof GameRoundServerMessage && !((GameRoundServerMessage) msg).getActions().isEmpty()) {
+                    return (GameRoundServerMessage) msg;
+                }
+            }
+        }
+        throw new IllegalStateException("No game round with actions in " + directory);
+    }
+
+    private static GameRoundServerMessage resize(GameRoundServerMessage msg, int actionCount, int effectCount) {
+        List<Effect> sourceEffects = msg.getEffects();
+        List<Effect> effects = new ArrayList<>(effectCount);
+        for (int i = 0; i < effectCount && !sourceEffects.isEmpty(); i++) {
+            Effect source = sourceEffects.get(i % sourceEffects.size());
+            long copy = i / sourceEffects.size();
+            Effect effect = new Effect();
+            effect.setId(source.getId() + copy * 1_000_000L);
+            effect.setStep(source.getStep());
+            effect.setValues(source.getValues());
+            effects.add(effect);
+        }
+
+        List<Action> sourceActions = msg.getActions();
+        List<Action> actions = new ArrayList<>(actionCount);
+        for (int i = 0; i < actionCount; i++) {
+            Action source = sourceActions.get(i % sourceActions.size());
+            long copy = i / sourceActions.size();
+            Action action = new Action();
+            action.setId(source.getId() + copy * 1_000_000L);
+            // Copies counter the copies of their effect, so the counter structure is kept
+            action.setEffectId(source.getEffectId() + copy * 1_000_000L);
+            action.setValues(source.getValues());
+            actions.add(action);
+        }
+
+        msg.setEffects(effects);
+        msg.setActions(actions);
+        return msg;
+    }
+}
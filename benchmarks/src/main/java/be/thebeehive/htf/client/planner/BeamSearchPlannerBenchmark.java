@@ -0,0 +1,54 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.bench.Payloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the {@link BeamSearchPlanner} per beam width on rounds with up to thousands of
+ * actions. The plan quality per width is compared with {@code SimulatorMain}, e.g.
+ * {@code SimulatorMain 300 1 bnb beam:1 beam:4 beam:16 beam:64}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeamSearchPlannerBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int size;
+
+    @Param({"1", "4", "16", "64"})
+    public int width;
+
+    @Param({"synthetic"})
+    public String payload;
+
+    private BeamSearchPlanner planner;
+    private PlanningRound round;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.planner = new BeamSearchPlanner(new ActionScorer(), this.width);
+        this.round = PlanningRound.of(Payloads.round(this.payload, this.size, this.size / 10));
+    }
+
+    @Benchmark
+    public List<Long> plan() {
+        return this.planner.plan(this.round);
+    }
+}
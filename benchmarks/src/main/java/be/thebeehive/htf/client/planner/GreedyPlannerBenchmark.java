@@ -0,0 +1,75 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.bench.Payloads;
+import be.thebeehive.htf.client.PackedValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The greedy decision logic that used to live in {@code MyClient}: planning a whole round
+ * ({@code planRoundActions}), the same without allocating ({@code planIntoScratch}) and a single
+ * {@code chooseBestBeneficialAction} scan. Lives in the planner package to reach the
+ * package-private scan. The decision trace is disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreedyPlannerBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"synthetic"})
+    public String payload;
+
+    private GreedyPlanner planner;
+    private PlanningRound round;
+    private PlannerScratch scratch;
+    private long[] noneUsed;
+    private PackedValues state;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.planner = new GreedyPlanner(new ActionScorer(), false);
+        this.round = PlanningRound.of(Payloads.round(this.payload, this.size, this.size));
+        this.scratch = new PlannerScratch();
+        this.scratch.reset(this.round.getActionCount());
+        this.noneUsed = new long[ActionBits.words(this.round.getActionCount())];
+        this.state = new PackedValues().set(this.round.getStart());
+    }
+
+    @Benchmark
+    public List<Long> planRoundActions() {
+        return this.planner.plan(this.round);
+    }
+
+    @Benchmark
+    public int planIntoScratch() {
+        return this.planner.plan(this.round, this.scratch);
+    }
+
+    @Benchmark
+    public int chooseBestBeneficialAction() {
+        return this.planner.chooseBestBeneficialAction(
+                this.round.getActionTable(),
+                this.noneUsed,
+                this.state,
+                this.scratch
+        );
+    }
+}
@@ -80,4 +80,56 @@ public class ClientUtils {
     public static boolean isAlive(Values values) {
         return !isDead(values);
     }
+
+    /**
+     * Fixed-point variant of {@link #sumValues(Values, Values)} with identical clamping semantics.
+     * The result is written into {@code target}, which may be the same instance as {@code original},
+     * so no objects are allocated.
+     *
+     * @param original the original PackedValues.
+     * @param newValues the PackedValues to be added to the original.
+     * @param target the PackedValues that receives the sum.
+     * @return the target instance.
+     */
+    public static PackedValues sumValues(PackedValues original, PackedValues newValues, PackedValues target) {
+        long maxHullStrength = Math.max(0L, original.getMaxHullStrength() + newValues.getMaxHullStrength());
+        long maxCrewHealth = Math.max(0L, original.getMaxCrewHealth() + newValues.getMaxCrewHealth());
+
+        long hullStrength = clamp(original.getHullStrength() + newValues.getHullStrength(), maxHullStrength);
+        long crewHealth = clamp(original.getCrewHealth() + newValues.getCrewHealth(), maxCrewHealth);
+
+        return target.set(hullStrength, maxHullStrength, crewHealth, maxCrewHealth);
+    }
+
+    /**
+     * Clamps a packed value to the range [0, max], applying the upper bound first like
+     * {@link #sumValues(Values, Values)} does.
+     *
+     * @param value the packed value.
+     * @param max the packed maximum.
+     * @return the clamped value.
+     */
+    public static long clamp(long value, long max) {
+        return Math.max(0L, Math.min(value, max));
+    }
+
+    /**
+     * Fixed-point variant of {@link #isDead(Values)}.
+     *
+     * @param values the PackedValues containing hull strength and crew health metrics.
+     * @return true if the hull strength or crew health is zero or less.
+     */
+    public static boolean isDead(PackedValues values) {
+        return values.getHullStrength() <= 0L || values.getCrewHealth() <= 0L;
+    }
+
+    /**
+     * Fixed-point variant of {@link #isAlive(Values)}.
+     *
+     * @param values the PackedValues containing hull strength and crew health metrics.
+     * @return true if both the hull strength and crew health are greater than zero.
+     */
+    public static boolean isAlive(PackedValues values) {
+        return !isDead(values);
+    }
 }
@@ -1,24 +1,78 @@
 package be.thebeehive.htf.client;
 
+import be.thebeehive.htf.client.planner.ActionScorer;
+import be.thebeehive.htf.client.planner.GreedyPlanner;
+import be.thebeehive.htf.client.planner.ParallelBranchAndBoundPlanner;
+import be.thebeehive.htf.client.planner.ScorerParameters;
 import be.thebeehive.htf.library.EnvironmentType;
 import be.thebeehive.htf.library.HtfClient;
+import be.thebeehive.htf.library.journal.SessionJournal;
 
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Collections;
 
 public class Main {
 
+    /**
+     * Time between receiving a round and answering it at the latest.
+     */
+    static final long ROUND_BUDGET_MILLIS = 500;
+
+    /**
+     * System property overriding the server to connect to, e.g. a local server for offline testing.
+     */
+    private static final String URI_PROPERTY = "htf.uri";
+
+    /**
+     * System property naming the directory to journal the session to; no journal when unset.
+     */
+    private static final String JOURNAL_PROPERTY = "htf.journal";
+
+    /**
+     * System property naming a scorer parameters file, e.g. written by {@link TunerMain}; defaults when unset.
+     */
+    private static final String PARAMS_PROPERTY = "htf.params";
+
     /**
      * The entry point of the application.
      * Start an HtfClient which connects to the on-board computer of the submarine.
      */
-    public static void main(String[] args) throws URISyntaxException {
+    public static void main(String[] args) throws URISyntaxException, IOException {
+        String paramsFile = System.getProperty(PARAMS_PROPERTY);
+        ActionScorer scorer = new ActionScorer(
+                paramsFile != null ? ScorerParameters.load(Paths.get(paramsFile)) : ScorerParameters.defaults()
+        );
+        RoundScheduler scheduler = new RoundScheduler(
+                new GreedyPlanner(scorer, true),
+                Collections.singletonList(new ParallelBranchAndBoundPlanner(scorer)),
+                ROUND_BUDGET_MILLIS
+        );
+
         HtfClient client = new HtfClient(
-                "wss://htf.b9s.dev/ws",
+                System.getProperty(URI_PROPERTY, "wss://htf.b9s.dev/ws"),
                 "textured1307",
                 EnvironmentType.SIMULATION,
-                new MyClient()
+                new MyClient(scorer, scheduler)
         );
-        Runtime.getRuntime().addShutdownHook(new Thread(client::close));
+        String journalDir = System.getProperty(JOURNAL_PROPERTY);
+        SessionJournal journal = journalDir != null ? new SessionJournal(Paths.get(journalDir)) : null;
+        client.setJournal(journal);
+        // MyClient plans from the tables and never reads the protocol lists
+        client.setColumnarRounds(true);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            client.close();
+            scheduler.close();
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException ex) {
+                    System.err.println("Failed to close session journal ...\n" + ex);
+                }
+            }
+        }));
         client.connect();
     }
 }
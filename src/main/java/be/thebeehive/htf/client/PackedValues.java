@@ -0,0 +1,194 @@
+package be.thebeehive.htf.client;
+
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Values;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable fixed-point counterpart of {@link Values} used on the decision hot path.
+ * <p>
+ * Every value is stored as a long scaled by {@link #SCALE}, so {@code 123.456} is stored as {@code 123456}.
+ * Conversion from and to {@link Values} is lossless for values with at most {@link #SCALE_DIGITS}
+ * fractional digits. {@link #pack(BigDecimal)} rejects values with more digits, {@link #of(Values)}
+ * rounds them toward more harm so that such a round can still be planned.
+ */
+public final class PackedValues {
+
+    public static final int SCALE_DIGITS = ActionTable.SCALE_DIGITS;
+    public static final long SCALE = ActionTable.SCALE;
+
+    private long hullStrength;
+    private long maxHullStrength;
+    private long crewHealth;
+    private long maxCrewHealth;
+
+    public PackedValues() {
+
+    }
+
+    public PackedValues(long hullStrength, long maxHullStrength, long crewHealth, long maxCrewHealth) {
+        this.hullStrength = hullStrength;
+        this.maxHullStrength = maxHullStrength;
+        this.crewHealth = crewHealth;
+        this.maxCrewHealth = maxCrewHealth;
+    }
+
+    /**
+     * Packs a Values object. Missing values are treated as zero, values with more than
+     * {@link #SCALE_DIGITS} fractional digits are rounded down, see {@link ActionTable#packFloor(BigDecimal)}.
+     *
+     * @param values the Values object to pack, may be null.
+     * @return a new PackedValues instance.
+     * @throws ArithmeticException if a value does not fit in a long once scaled.
+     */
+    public static PackedValues of(Values values) {
+        return new PackedValues().set(values);
+    }
+
+    /**
+     * Packs a single decimal value.
+     *
+     * @param value the value to pack, null is treated as zero.
+     * @return the value scaled by {@link #SCALE}.
+     * @throws ArithmeticException if the value has more than {@link #SCALE_DIGITS} fractional digits
+     *                             or does not fit in a long once scaled.
+     */
+    public static long pack(BigDecimal value) {
+        return ActionTable.pack(value);
+    }
+
+    /**
+     * Packs a whole number.
+     *
+     * @param value the value to pack.
+     * @return the value scaled by {@link #SCALE}.
+     */
+    public static long pack(long value) {
+        return ActionTable.pack(value);
+    }
+
+    /**
+     * Converts a packed value back to a BigDecimal without losing precision.
+     *
+     * @param packed the packed value.
+     * @return the value as a BigDecimal with the smallest scale that represents it exactly.
+     */
+    public static BigDecimal unpack(long packed) {
+        return ActionTable.unpack(packed);
+    }
+
+    /**
+     * Formats a packed value for logging.
+     *
+     * @param packed the packed value.
+     * @return the plain decimal representation.
+     */
+    public static String format(long packed) {
+        return unpack(packed).toPlainString();
+    }
+
+    /**
+     * Overwrites this instance with the packed form of the given Values object, rounding like
+     * {@link #of(Values)}.
+     *
+     * @param values the Values object to pack, may be null.
+     * @return this instance.
+     * @throws ArithmeticException if a value does not fit in a long once scaled.
+     */
+    public PackedValues set(Values values) {
+        if (values == null) {
+            return set(0L, 0L, 0L, 0L);
+        }
+        return set(
+                ActionTable.packFloor(values.getHullStrength()),
+                ActionTable.packFloor(values.getMaxHullStrength()),
+                ActionTable.packFloor(values.getCrewHealth()),
+                ActionTable.packFloor(values.getMaxCrewHealth())
+        );
+    }
+
+    public PackedValues set(PackedValues other) {
+        return set(other.hullStrength, other.maxHullStrength, other.crewHealth, other.maxCrewHealth);
+    }
+
+    public PackedValues set(long hullStrength, long maxHullStrength, long crewHealth, long maxCrewHealth) {
+        this.hullStrength = hullStrength;
+        this.maxHullStrength = maxHullStrength;
+        this.crewHealth = crewHealth;
+        this.maxCrewHealth = maxCrewHealth;
+        return this;
+    }
+
+    /**
+     * Converts this instance back to a protocol Values object.
+     *
+     * @return a new Values object holding the exact same values.
+     */
+    public Values toValues() {
+        Values values = new Values();
+        values.setHullStrength(unpack(this.hullStrength));
+        values.setMaxHullStrength(unpack(this.maxHullStrength));
+        values.setCrewHealth(unpack(this.crewHealth));
+        values.setMaxCrewHealth(unpack(this.maxCrewHealth));
+        return values;
+    }
+
+    public long getHullStrength() {
+        return hullStrength;
+    }
+
+    public void setHullStrength(long hullStrength) {
+        this.hullStrength = hullStrength;
+    }
+
+    public long getMaxHullStrength() {
+        return maxHullStrength;
+    }
+
+    public void setMaxHullStrength(long maxHullStrength) {
+        this.maxHullStrength = maxHullStrength;
+    }
+
+    public long getCrewHealth() {
+        return crewHealth;
+    }
+
+    public void setCrewHealth(long crewHealth) {
+        this.crewHealth = crewHealth;
+    }
+
+    public long getMaxCrewHealth() {
+        return maxCrewHealth;
+    }
+
+    public void setMaxCrewHealth(long maxCrewHealth) {
+        this.maxCrewHealth = maxCrewHealth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PackedValues)) return false;
+        PackedValues other = (PackedValues) o;
+        return hullStrength == other.hullStrength
+                && maxHullStrength == other.maxHullStrength
+                && crewHealth == other.crewHealth
+                && maxCrewHealth == other.maxCrewHealth;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(hullStrength);
+        result = 31 * result + Long.hashCode(maxHullStrength);
+        result = 31 * result + Long.hashCode(crewHealth);
+        result = 31 * result + Long.hashCode(maxCrewHealth);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedValues{hull=" + format(hullStrength) + "/" + format(maxHullStrength)
+                + ", crew=" + format(crewHealth) + "/" + format(maxCrewHealth) + "}";
+    }
+}
@@ -0,0 +1,98 @@
+package be.thebeehive.htf.client;
+
+import be.thebeehive.htf.client.planner.ActionScorer;
+import be.thebeehive.htf.client.planner.BeamSearchPlanner;
+import be.thebeehive.htf.client.planner.BranchAndBoundPlanner;
+import be.thebeehive.htf.client.planner.CheckpointPlanner;
+import be.thebeehive.htf.client.planner.GreedyPlanner;
+import be.thebeehive.htf.client.planner.ParallelBranchAndBoundPlanner;
+import be.thebeehive.htf.client.planner.ParetoPlanner;
+import be.thebeehive.htf.client.planner.RolloutEvaluator;
+import be.thebeehive.htf.client.planner.RolloutPlanner;
+import be.thebeehive.htf.client.planner.RoundDistribution;
+import be.thebeehive.htf.library.replay.ReplayReport;
+import be.thebeehive.htf.library.replay.ReplayRunner;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ReplayMain {
+
+    /**
+     * Replays a recorded session into {@link MyClient} without connecting to the server,
+     * and prints the throughput, the latency distribution and how many decisions changed.
+     * <p>
+     * Usage: {@code ReplayMain <journal directory> [greedy|bnb|parallel|pareto|beam|checkpoint|rollout|scheduled]
+     * [training journal directory]}. MyClient runs without its decision log so the log does not
+     * dominate the measurement.
+     * <p>
+     * The rollout planner learns its round distribution from the training journals, which should be
+     * other sessions than the replayed one: rollouts over the very rounds being replayed would
+     * foresee them. Without training journals it only learns from the replayed rounds as they
+     * arrive, as in a live game.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayMain <journal directory> [greedy|bnb|parallel|pareto|beam|checkpoint|rollout|scheduled]"
+                    + " [training journal directory]");
+            System.exit(2);
+        }
+        String mode = args.length > 1 ? args[1] : "greedy";
+
+        ActionScorer scorer = new ActionScorer();
+        RoundScheduler scheduler = null;
+        MyClient myClient;
+        switch (mode) {
+            case "greedy":
+                myClient = new MyClient(scorer, new GreedyPlanner(scorer), false);
+                break;
+            case "bnb":
+                myClient = new MyClient(scorer, new BranchAndBoundPlanner(scorer), false);
+                break;
+            case "parallel":
+                myClient = new MyClient(scorer, new ParallelBranchAndBoundPlanner(scorer), false);
+                break;
+            case "pareto":
+                myClient = new MyClient(scorer, new ParetoPlanner(scorer), false);
+                break;
+            case "beam":
+                myClient = new MyClient(scorer, new BeamSearchPlanner(scorer), false);
+                break;
+            case "checkpoint":
+                myClient = new MyClient(scorer, new CheckpointPlanner(scorer), false);
+                break;
+            case "rollout":
+                RoundDistribution distribution = args.length > 2
+                        ? RoundDistribution.learn(Paths.get(args[2]))
+                        : new RoundDistribution();
+                myClient = new MyClient(scorer, new RolloutPlanner(
+                        Arrays.asList(new CheckpointPlanner(scorer), new GreedyPlanner(scorer), new BeamSearchPlanner(scorer)),
+                        new RolloutEvaluator(scorer), distribution), false);
+                break;
+            case "scheduled":
+                scheduler = new RoundScheduler(
+                        new GreedyPlanner(scorer),
+                        Collections.singletonList(new ParallelBranchAndBoundPlanner(scorer)),
+                        Main.ROUND_BUDGET_MILLIS,
+                        false
+                );
+                myClient = new MyClient(scorer, scheduler, false);
+                break;
+            default:
+                System.err.println("Unknown planner: " + mode);
+                System.exit(2);
+                return;
+        }
+
+        ReplayReport report;
+        try {
+            report = new ReplayRunner(myClient).run(Paths.get(args[0]));
+        } finally {
+            if (scheduler != null) scheduler.close();
+        }
+
+        System.out.println("Planner: " + mode);
+        report.print(System.out);
+    }
+}
@@ -0,0 +1,196 @@
+package be.thebeehive.htf.client;
+
+import be.thebeehive.htf.client.planner.Planner;
+import be.thebeehive.htf.client.planner.PlanningRound;
+import be.thebeehive.htf.library.HtfClient;
+import be.thebeehive.htf.library.protocol.client.SelectActionsClientMessage;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers every round exactly once, before its deadline.
+ * <p>
+ * When a round arrives a deadline timer is started and a cheap fallback plan is computed right away
+ * on the calling thread. The deeper planners then run one after the other on a planning thread; each
+ * one that completes before the deadline replaces the current answer. The answer is sent as soon as
+ * every planner completed, or when the deadline fires, whichever comes first. Whatever goes wrong,
+ * exactly one {@link SelectActionsClientMessage} is sent per roundId.
+ * <p>
+ * Once a newer round has been scheduled, the older round is {@link PlanningRound#cancel cancelled}:
+ * a deeper planner searching it stops at its next deadline check, and the round is answered with
+ * what it has, so a scheduler that fell behind catches up.
+ */
+public class RoundScheduler implements AutoCloseable {
+
+    private final Planner fallback;
+    private final List<Planner> planners;
+    private final long budgetNanos;
+    private final boolean log;
+
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService planning;
+    private final AtomicReference<PlanningRound> latestRound = new AtomicReference<>();
+
+    /**
+     * @param fallback     the cheap planner that provides the first answer.
+     * @param planners     the deeper planners, run in this order until the deadline.
+     * @param budgetMillis the time between receiving a round and answering it at the latest.
+     */
+    public RoundScheduler(Planner fallback, List<Planner> planners, long budgetMillis) {
+        this(fallback, planners, budgetMillis, true);
+    }
+
+    /**
+     * @param fallback     the cheap planner that provides the first answer.
+     * @param planners     the deeper planners, run in this order until the deadline.
+     * @param budgetMillis the time between receiving a round and answering it at the latest.
+     * @param log          whether to log every answer to {@link System#out}.
+     */
+    public RoundScheduler(Planner fallback, List<Planner> planners, long budgetMillis, boolean log) {
+        this.fallback = fallback;
+        this.planners = new ArrayList<>(planners);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.log = log;
+
+        this.timer = new ScheduledThreadPoolExecutor(1, daemonThreads("round-deadline"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.planning = Executors.newSingleThreadExecutor(daemonThreads("round-planner"));
+    }
+
+    /**
+     * Schedules the answer for a round.
+     *
+     * @param client the client to answer on.
+     * @param msg    the round received from the server.
+     * @param round  the packed round.
+     */
+    public void schedule(HtfClient client, GameRoundServerMessage msg, PlanningRound round) {
+        long received = System.nanoTime();
+        PlanningRound deadlined = round.withDeadline(received + budgetNanos);
+        PlanningRound superseded = latestRound.getAndSet(deadlined);
+        if (superseded != null) superseded.cancel();
+        RoundAnswer answer = new RoundAnswer(client, msg.getRound(), msg.getRoundId(), received, log);
+
+        answer.timeout = timer.schedule(answer::send, budgetNanos, TimeUnit.NANOSECONDS);
+        answer.improve(plan(fallback, deadlined, msg.getRound()), fallback);
+
+        if (planners.isEmpty()) {
+            answer.send();
+            return;
+        }
+
+        planning.execute(() -> {
+            for (Planner planner : planners) {
+                if (answer.isSent() || deadlined.isExpired()) break;
+
+                List<Long> actionIds = plan(planner, deadlined, msg.getRound());
+                // A planner that ran into the deadline or was cancelled only has a partial result
+                if (deadlined.isExpired()) break;
+                answer.improve(actionIds, planner);
+            }
+            answer.send();
+        });
+    }
+
+    /**
+     * Sends an empty answer for a round that could not be planned at all.
+     */
+    public static void sendEmpty(HtfClient client, UUID roundId) {
+        client.send(new SelectActionsClientMessage(roundId, Collections.emptyList()));
+    }
+
+    private List<Long> plan(Planner planner, PlanningRound round, long roundNumber) {
+        try {
+            return planner.plan(round);
+        } catch (Exception ex) {
+            System.err.printf("Round %d | %s failed: %s%n", roundNumber, planner.getClass().getSimpleName(), ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        planning.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The answer for a single round, sent exactly once.
+     */
+    private static final class RoundAnswer {
+
+        private final HtfClient client;
+        private final long round;
+        private final UUID roundId;
+        private final long received;
+        private final boolean log;
+        private final AtomicBoolean sent = new AtomicBoolean();
+
+        private volatile List<Long> actionIds = Collections.emptyList();
+        private volatile Planner answeredBy;
+        private volatile ScheduledFuture<?> timeout;
+
+        RoundAnswer(HtfClient client, long round, UUID roundId, long received, boolean log) {
+            this.client = client;
+            this.round = round;
+            this.roundId = roundId;
+            this.received = received;
+            this.log = log;
+        }
+
+        void improve(List<Long> actionIds, Planner planner) {
+            if (actionIds == null) return;
+            this.actionIds = actionIds;
+            this.answeredBy = planner;
+        }
+
+        boolean isSent() {
+            return sent.get();
+        }
+
+        void send() {
+            if (!sent.compareAndSet(false, true)) return;
+
+            ScheduledFuture<?> pending = this.timeout;
+            if (pending != null) pending.cancel(false);
+
+            List<Long> chosen = this.actionIds;
+            Planner planner = this.answeredBy;
+            try {
+                client.send(new SelectActionsClientMessage(roundId, chosen));
+            } catch (Exception ex) {
+                System.err.printf("Round %d | Failed to send answer: %s%n", round, ex);
+                return;
+            }
+            if (!log) return;
+
+            System.out.printf(
+                    "Round %d | Answered by %s after %d ms | Chosen: %s%n",
+                    round,
+                    planner != null ? planner.getClass().getSimpleName() : "none",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - received),
+                    chosen
+            );
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package be.thebeehive.htf.client;
+
+import be.thebeehive.htf.client.planner.ActionScorer;
+import be.thebeehive.htf.client.planner.BeamSearchPlanner;
+import be.thebeehive.htf.client.planner.BranchAndBoundPlanner;
+import be.thebeehive.htf.client.planner.CheckpointPlanner;
+import be.thebeehive.htf.client.planner.GreedyPlanner;
+import be.thebeehive.htf.client.planner.ParallelBranchAndBoundPlanner;
+import be.thebeehive.htf.client.planner.ParetoPlanner;
+import be.thebeehive.htf.client.planner.RolloutEvaluator;
+import be.thebeehive.htf.client.planner.RolloutPlanner;
+import be.thebeehive.htf.client.planner.RoundDistribution;
+import be.thebeehive.htf.server.GameSettings;
+import be.thebeehive.htf.server.GameSimulator;
+
+import java.util.Arrays;
+
+public class SimulatorMain {
+
+    /**
+     * Plays full games in memory against the bots of the local server, and prints the throughput
+     * and the average result of every player and bot.
+     * <p>
+     * Usage: {@code SimulatorMain [games] [seed] [greedy|bnb|parallel|pareto|beam[:width]|checkpoint|rollout...]}.
+     * Every planner plays as a separate {@link MyClient} in the same games, so planners can be
+     * compared on identical rounds. The players run without their decision log.
+     */
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+
+        GameSimulator simulator = new GameSimulator(new GameSettings().setSeed(seed).setRestartGames(false));
+        if (args.length > 2) {
+            for (int i = 2; i < args.length; i++) {
+                addPlayer(simulator, args[i]);
+            }
+        } else {
+            addPlayer(simulator, "greedy");
+        }
+
+        simulator.run(games).print(System.out);
+    }
+
+    private static void addPlayer(GameSimulator simulator, String player) {
+        // "beam:16" is the beam search with width 16
+        int colon = player.indexOf(':');
+        String mode = colon < 0 ? player : player.substring(0, colon);
+        int width = colon < 0 ? BeamSearchPlanner.DEFAULT_WIDTH : Integer.parseInt(player.substring(colon + 1));
+
+        ActionScorer scorer = new ActionScorer();
+        switch (mode) {
+            case "greedy":
+                simulator.addPlayer(player, () -> new MyClient(scorer, new GreedyPlanner(scorer), false));
+                break;
+            case "bnb":
+                simulator.addPlayer(player, () -> new MyClient(scorer, new BranchAndBoundPlanner(scorer), false));
+                break;
+            case "parallel":
+                simulator.addPlayer(player, () -> new MyClient(scorer, new ParallelBranchAndBoundPlanner(scorer), false));
+                break;
+            case "pareto":
+                simulator.addPlayer(player, () -> new MyClient(scorer, new ParetoPlanner(scorer), false));
+                break;
+            case "beam":
+                simulator.addPlayer(player, () -> new MyClient(scorer, new BeamSearchPlanner(scorer, width), false));
+                break;
+            case "checkpoint":
+                simulator.addPlayer(player, () -> new MyClient(scorer, new CheckpointPlanner(scorer), false));
+                break;
+            case "rollout":
+                RolloutEvaluator evaluator = new RolloutEvaluator(scorer);
+                simulator.addPlayer(player, () -> new MyClient(scorer, new RolloutPlanner(
+                        Arrays.asList(new CheckpointPlanner(scorer), new GreedyPlanner(scorer), new BeamSearchPlanner(scorer)),
+                        evaluator, new RoundDistribution()), false));
+                break;
+            default:
+                System.err.println("Unknown planner: " + player);
+                System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package be.thebeehive.htf.client;
+
+import be.thebeehive.htf.client.planner.ActionScorer;
+import be.thebeehive.htf.client.planner.BranchAndBoundPlanner;
+import be.thebeehive.htf.client.planner.GreedyPlanner;
+import be.thebeehive.htf.client.planner.Planner;
+import be.thebeehive.htf.client.planner.ScorerParameters;
+import be.thebeehive.htf.client.tuning.ParameterTuner;
+import be.thebeehive.htf.client.tuning.SimulatedFitness;
+import be.thebeehive.htf.server.GameSettings;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Function;
+
+public class TunerMain {
+
+    /**
+     * Tunes the {@link ActionScorer} parameters on simulated games, using all cores.
+     * <p>
+     * Usage: {@code TunerMain <checkpoint file> [generations] [games per candidate] [greedy|bnb]}.
+     * When the checkpoint file exists the run is resumed from it, otherwise a new run starts from
+     * the default parameters. Afterwards the center of the search distribution is written to
+     * {@code <checkpoint file>.params}, ready to be used with {@code -Dhtf.params}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: TunerMain <checkpoint file> [generations] [games per candidate] [greedy|bnb]");
+            System.exit(2);
+        }
+        Path checkpoint = Paths.get(args[0]);
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String mode = args.length > 3 ? args[3] : "greedy";
+
+        Function<ActionScorer, Planner> planners;
+        switch (mode) {
+            case "greedy":
+                planners = GreedyPlanner::new;
+                break;
+            case "bnb":
+                planners = BranchAndBoundPlanner::new;
+                break;
+            default:
+                System.err.println("Unknown planner: " + mode);
+                System.exit(2);
+                return;
+        }
+
+        SimulatedFitness fitness = new SimulatedFitness(new GameSettings().setRestartGames(false), planners);
+        ParameterTuner tuner = Files.exists(checkpoint)
+                ? ParameterTuner.resume(fitness, checkpoint)
+                : new ParameterTuner(fitness, ScorerParameters.defaults(), games, 1L);
+
+        tuner.run(generations, Runtime.getRuntime().availableProcessors(), checkpoint);
+
+        Path params = Paths.get(args[0] + ".params");
+        tuner.getMean().store(params, "Tuned scorer parameters after " + tuner.getGeneration() + " generations");
+        System.out.printf("Best fitness %.2f after %d generations%n", tuner.getBestFitness(), tuner.getGeneration());
+        System.out.println("Best: " + tuner.getBest());
+        System.out.println("Mean: " + tuner.getMean());
+        System.out.println("Written to " + params);
+    }
+}
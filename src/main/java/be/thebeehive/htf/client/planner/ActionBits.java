@@ -0,0 +1,49 @@
+package be.thebeehive.htf.client.planner;
+
+import java.util.Arrays;
+
+/**
+ * Bitsets over the dense action indices of a round, one bit per action in a {@code long[]}.
+ */
+final class ActionBits {
+
+    private ActionBits() {
+
+    }
+
+    /**
+     * The number of words needed for {@code actions} bits.
+     */
+    static int words(int actions) {
+        return (actions + 63) >>> 6;
+    }
+
+    static boolean get(long[] bits, int action) {
+        return (bits[action >>> 6] & (1L << action)) != 0;
+    }
+
+    static void set(long[] bits, int action) {
+        bits[action >>> 6] |= 1L << action;
+    }
+
+    static void clear(long[] bits, int action) {
+        bits[action >>> 6] &= ~(1L << action);
+    }
+
+    /**
+     * Whether every bit set in {@code subset} is also set in {@code bits}; both have the same length.
+     */
+    static boolean containsAll(long[] bits, long[] subset) {
+        for (int i = 0; i < subset.length; i++) {
+            if ((subset[i] & ~bits[i]) != 0L) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Clears the bits of the first {@code actions} actions.
+     */
+    static void clearAll(long[] bits, int actions) {
+        Arrays.fill(bits, 0, words(actions), 0L);
+    }
+}
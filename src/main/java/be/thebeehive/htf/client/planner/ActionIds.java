@@ -0,0 +1,89 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Remaps the sparse action ids of a round to the dense indices the planners work with, and back.
+ * <p>
+ * The dense index of an action is its position in the round's {@link ActionTable}. Planners track
+ * actions by index only, in {@link ActionBits} bitsets and int arrays, and convert to the
+ * server's ids once, when the answer is built. The reverse lookup is an open-addressing hash
+ * table over primitive longs. Missing actions have id -1 and cannot be looked up.
+ */
+public final class ActionIds {
+
+    private static final long MISSING = -1L;
+
+    private final long[] ids;
+    private final long[] keys;
+    private final int[] indices;
+    private final int mask;
+
+    ActionIds(ActionTable actions) {
+        this.ids = Arrays.copyOf(actions.getId(), actions.size());
+        int capacity = Integer.highestOneBit(Math.max(ids.length, 1) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        Arrays.fill(keys, MISSING);
+        this.indices = new int[capacity];
+        this.mask = capacity - 1;
+
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == MISSING) continue;
+
+            int pos = hash(ids[i]) & mask;
+            while (keys[pos] != MISSING && keys[pos] != ids[i]) {
+                pos = (pos + 1) & mask;
+            }
+            // The first action with an id wins
+            if (keys[pos] == MISSING) {
+                keys[pos] = ids[i];
+                indices[pos] = i;
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * The server's id of the action at a dense index, or -1 if that action is missing.
+     */
+    public long idOf(int index) {
+        return ids[index];
+    }
+
+    /**
+     * The dense index of the (first) action with a server id, or -1 if the round has no such action.
+     */
+    public int indexOf(long id) {
+        if (id == MISSING) return -1;
+        int pos = hash(id) & mask;
+        long key;
+        while ((key = keys[pos]) != MISSING) {
+            if (key == id) return indices[pos];
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * The server's ids of the first {@code length} dense indices in {@code path}, for the answer.
+     */
+    public List<Long> toIds(int[] path, int length) {
+        List<Long> result = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            result.add(ids[path[i]]);
+        }
+        return result;
+    }
+}
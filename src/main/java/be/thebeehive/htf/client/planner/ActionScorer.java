@@ -0,0 +1,329 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+
+import static be.thebeehive.htf.client.planner.ScorerParameter.*;
+
+/**
+ * Scoring rules and survival guards shared by all planners.
+ * <p>
+ * All values are {@link PackedValues} units and all scores are expressed in packed units.
+ * The thresholds and weights come from {@link ScorerParameters}, the hand-tuned defaults unless
+ * given otherwise. Instances are immutable and can be shared between threads.
+ */
+public class ActionScorer {
+
+    public static final int MAX_ACTIONS_PER_ROUND = 4;
+
+    /**
+     * Score returned for actions that must never be taken, also used as the penalty for dying.
+     */
+    public static final double FORBIDDEN_SCORE = -1_000_000d * PackedValues.SCALE;
+
+    public static final int GUARD_NONE = 0;
+    public static final int GUARD_CRITICAL_HULL = 1;
+    public static final int GUARD_INTO_CRITICAL_HULL = 2;
+    public static final int GUARD_CRITICAL_CREW = 3;
+    public static final int GUARD_INTO_CRITICAL_CREW = 4;
+
+    private final ScorerParameters parameters;
+
+    private final long crewReserve;
+
+    private final long lowHull;
+    private final long criticalHull;
+
+    private final long lowCrew;
+    private final long criticalCrew;
+
+    // When above these, we allow more aggressive, scaling-focused choices.
+    private final long healthyHull;
+    private final long healthyCrew;
+
+    private final BandWeights weights;
+
+    public ActionScorer() {
+        this(ScorerParameters.defaults());
+    }
+
+    public ActionScorer(ScorerParameters parameters) {
+        this.parameters = parameters;
+
+        this.crewReserve = packThreshold(parameters, CREW_RESERVE);
+        this.lowHull = packThreshold(parameters, LOW_HULL);
+        this.criticalHull = packThreshold(parameters, CRITICAL_HULL);
+        this.healthyHull = packThreshold(parameters, HEALTHY_HULL);
+        this.lowCrew = packThreshold(parameters, LOW_CREW);
+        this.criticalCrew = packThreshold(parameters, CRITICAL_CREW);
+        this.healthyCrew = packThreshold(parameters, HEALTHY_CREW);
+
+        this.weights = new BandWeights(parameters, criticalHull, lowHull, healthyHull,
+                criticalCrew, lowCrew, healthyCrew);
+    }
+
+    private static long packThreshold(ScorerParameters parameters, ScorerParameter parameter) {
+        return Math.round(parameters.get(parameter) * PackedValues.SCALE);
+    }
+
+    public ScorerParameters getParameters() {
+        return parameters;
+    }
+
+    public long getCrewReserve() {
+        return crewReserve;
+    }
+
+    public long getLowHull() {
+        return lowHull;
+    }
+
+    public long getCriticalHull() {
+        return criticalHull;
+    }
+
+    public long getHealthyHull() {
+        return healthyHull;
+    }
+
+    public long getLowCrew() {
+        return lowCrew;
+    }
+
+    public long getCriticalCrew() {
+        return criticalCrew;
+    }
+
+    public long getHealthyCrew() {
+        return healthyCrew;
+    }
+
+    /**
+     * When both hull and crew are healthy we allow more aggressive, scaling-focused choices.
+     */
+    public boolean isAggressive(long currentHull, long currentCrew) {
+        return currentHull > healthyHull && currentCrew > healthyCrew;
+    }
+
+    /**
+     * Whether the values contain hull or crew damage.
+     */
+    public static boolean isHarmful(PackedValues v) {
+        if (v == null) return false;
+        return v.getHullStrength() < 0 || v.getCrewHealth() < 0;
+    }
+
+    /**
+     * Whether letting the effect hit the given state would leave no hull or crew.
+     */
+    public static boolean effectWouldKill(PackedValues state, PackedValues effect) {
+        return state.getHullStrength() + effect.getHullStrength() <= 0
+                || state.getCrewHealth() + effect.getCrewHealth() <= 0;
+    }
+
+    /**
+     * Hard survival guards for beneficial (non-counter) actions.
+     *
+     * @return {@link #GUARD_NONE} if the action may be taken, otherwise the guard that rejects it.
+     */
+    public int survivalGuard(PackedValues delta, long currentHull, long currentCrew) {
+        return survivalGuard(delta.getHullStrength(), delta.getCrewHealth(), currentHull, currentCrew);
+    }
+
+    /**
+     * {@link #survivalGuard(PackedValues, long, long)} on the hull and crew deltas of an action,
+     * e.g. read from the columns of an {@link ActionTable}.
+     */
+    public int survivalGuard(long deltaHull, long deltaCrew, long currentHull, long currentCrew) {
+        long projectedHull = currentHull + deltaHull;
+        long projectedCrew = currentCrew + deltaCrew;
+
+        // 1) If we are already in critical hull, never take *more* hull damage
+        if (currentHull <= criticalHull && deltaHull < 0) {
+            return GUARD_CRITICAL_HULL;
+        }
+
+        // 2) If we are above critical, don't cross into critical with hull damage
+        if (currentHull > criticalHull && projectedHull < criticalHull && deltaHull < 0) {
+            return GUARD_INTO_CRITICAL_HULL;
+        }
+
+        // 3) If crew is already critical, never take more crew damage
+        if (currentCrew <= criticalCrew && deltaCrew < 0) {
+            return GUARD_CRITICAL_CREW;
+        }
+
+        // 4) If crew is low-but-not-critical, don't cross into critical with crew damage
+        if (currentCrew > criticalCrew
+                && currentCrew <= lowCrew
+                && projectedCrew < criticalCrew
+                && deltaCrew < 0) {
+            return GUARD_INTO_CRITICAL_CREW;
+        }
+
+        return GUARD_NONE;
+    }
+
+    /**
+     * The weight band of a state, see {@link BandWeights}.
+     */
+    int band(long currentHull, long currentCrew) {
+        return weights.band(currentHull, currentCrew);
+    }
+
+    /**
+     * A weight of a band, {@code column} being one of the {@link BandWeights} columns.
+     */
+    double bandWeight(int band, int column) {
+        return weights.table()[band * BandWeights.STRIDE + column];
+    }
+
+    /**
+     * How bad is this effect if we let it hit us,
+     * taking current hull/crew into account.
+     */
+    public double weightedDamage(PackedValues v,
+                                 long currentHull,
+                                 long currentCrew) {
+        if (v == null) return 0d;
+
+        // Only consider negative parts as "damage".
+        long dh = Math.min(v.getHullStrength(), 0L);
+        long dc = Math.min(v.getCrewHealth(), 0L);
+
+        double[] table = weights.table();
+        int at = weights.band(currentHull, currentCrew) * BandWeights.STRIDE;
+
+        // damage is negative; weights just make dangerous things more negative
+        return dh * table[at + BandWeights.DAMAGE_HULL] + dc * table[at + BandWeights.DAMAGE_CREW];
+    }
+
+    /**
+     * Scoring function: decide how good an action is,
+     * depending on current hull / crew situation.
+     *
+     * Strong bias: crew survival > hull > max stats,
+     * especially once crew starts getting low.
+     */
+    public double scoreAction(PackedValues effect,
+                              long currentHull,
+                              long currentCrew) {
+        return scoreAction(effect.getHullStrength(), effect.getCrewHealth(),
+                effect.getMaxHullStrength(), effect.getMaxCrewHealth(), currentHull, currentCrew);
+    }
+
+    /**
+     * {@link #scoreAction(PackedValues, long, long)} on the deltas of an action,
+     * e.g. read from the columns of an {@link ActionTable}.
+     */
+    public double scoreAction(long deltaHull,
+                              long deltaCrew,
+                              long deltaMaxHull,
+                              long deltaMaxCrew,
+                              long currentHull,
+                              long currentCrew) {
+        int band = weights.band(currentHull, currentCrew);
+
+        // If crew is critical, absolutely no crew damage regardless of mode
+        if (deltaCrew < 0 && weights.forbidsCrewLoss(band)) {
+            return FORBIDDEN_SCORE;
+        }
+
+        return weightedChange(band, deltaHull, deltaCrew, deltaMaxHull, deltaMaxCrew);
+    }
+
+    /**
+     * The weighted value of a change of state, as {@link #scoreAction(long, long, long, long, long, long)}
+     * scores it but without forbidding crew loss at critical crew: a smaller loss is always worth more.
+     * Planners that compare whole plans by their outcome use it to value the change over a round.
+     */
+    public double scoreChange(long deltaHull,
+                              long deltaCrew,
+                              long deltaMaxHull,
+                              long deltaMaxCrew,
+                              long currentHull,
+                              long currentCrew) {
+        return weightedChange(weights.band(currentHull, currentCrew), deltaHull, deltaCrew, deltaMaxHull, deltaMaxCrew);
+    }
+
+    private double weightedChange(int band, long deltaHull, long deltaCrew, long deltaMaxHull, long deltaMaxCrew) {
+        // Aggressive mode prioritizes long-term scaling, defensive mode immediate survival / recovery
+        double[] table = weights.table();
+        int at = band * BandWeights.STRIDE;
+
+        double score = deltaHull * table[at + BandWeights.HULL]
+                + deltaCrew * table[at + (deltaCrew < 0 ? BandWeights.CREW_ON_LOSS : BandWeights.CREW)]
+                + deltaMaxHull * table[at + BandWeights.MAX_HULL]
+                + deltaMaxCrew * table[at + BandWeights.MAX_CREW];
+
+        // Extra hull risk penalty, zero in aggressive mode
+        if (deltaHull < 0) {
+            score -= -deltaHull * table[at + BandWeights.HULL_RISK];
+        }
+
+        return score;
+    }
+
+    /**
+     * Scores every action of a table against one state, as {@link #scoreAction} and
+     * {@link #survivalGuard} would one by one.
+     * <p>
+     * The state fixes the band, so the weights and the guard conditions on the state are resolved
+     * once; what remains per action is branch-free arithmetic and comparisons over the columns,
+     * which the JIT can unroll and vectorize. Missing actions are scored as a zero delta, callers
+     * skip them with {@link ActionTable#isPresent}.
+     *
+     * @param scores receives the score of action {@code i} at index {@code i}.
+     * @param guards receives the survival guard of action {@code i} at index {@code i}, may be null.
+     */
+    public void scoreAll(ActionTable table, long currentHull, long currentCrew, double[] scores, int[] guards) {
+        int size = table.size();
+        long[] hull = table.getHullStrength();
+        long[] crew = table.getCrewHealth();
+        long[] maxHull = table.getMaxHullStrength();
+        long[] maxCrew = table.getMaxCrewHealth();
+
+        int band = weights.band(currentHull, currentCrew);
+        int at = band * BandWeights.STRIDE;
+        double[] bandTable = weights.table();
+        double hullWeight = bandTable[at + BandWeights.HULL];
+        double crewWeight = bandTable[at + BandWeights.CREW];
+        double crewOnLossWeight = bandTable[at + BandWeights.CREW_ON_LOSS];
+        double maxHullWeight = bandTable[at + BandWeights.MAX_HULL];
+        double maxCrewWeight = bandTable[at + BandWeights.MAX_CREW];
+        double hullRisk = bandTable[at + BandWeights.HULL_RISK];
+        boolean forbidsCrewLoss = weights.forbidsCrewLoss(band);
+
+        for (int i = 0; i < size; i++) {
+            long dh = hull[i];
+            long dc = crew[i];
+            double score = dh * hullWeight
+                    + dc * (dc < 0 ? crewOnLossWeight : crewWeight)
+                    + maxHull[i] * maxHullWeight
+                    + maxCrew[i] * maxCrewWeight;
+            score -= dh < 0 ? -dh * hullRisk : 0d;
+            scores[i] = dc < 0 && forbidsCrewLoss ? FORBIDDEN_SCORE : score;
+        }
+
+        if (guards == null) return;
+
+        // The parts of the four guards that only depend on the state
+        boolean hullCritical = currentHull <= criticalHull;
+        boolean crewCritical = currentCrew <= criticalCrew;
+        boolean crewLow = !crewCritical && currentCrew <= lowCrew;
+        long intoCriticalHull = criticalHull - currentHull;
+        long intoCriticalCrew = criticalCrew - currentCrew;
+
+        for (int i = 0; i < size; i++) {
+            long dh = hull[i];
+            long dc = crew[i];
+            boolean hullLoss = dh < 0;
+            boolean crewLoss = dc < 0;
+            guards[i] = hullLoss && hullCritical ? GUARD_CRITICAL_HULL
+                    : hullLoss && dh < intoCriticalHull ? GUARD_INTO_CRITICAL_HULL
+                    : crewLoss && crewCritical ? GUARD_CRITICAL_CREW
+                    : crewLoss && crewLow && dc < intoCriticalCrew ? GUARD_INTO_CRITICAL_CREW
+                    : GUARD_NONE;
+        }
+    }
+}
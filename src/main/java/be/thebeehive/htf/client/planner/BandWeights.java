@@ -0,0 +1,137 @@
+package be.thebeehive.htf.client.planner;
+
+import static be.thebeehive.htf.client.planner.ScorerParameter.*;
+
+/**
+ * The weights of the {@link ActionScorer}, precomputed for every state band.
+ * <p>
+ * The weights only depend on which side of the critical, low and healthy thresholds the hull
+ * and the crew are, so the state is reduced to a band: three bits for the hull and four for the
+ * crew (the crew is compared both strictly and non-strictly against its critical threshold).
+ * Whether the scorer is aggressive follows from the band as well. All weights of a band sit next
+ * to each other in a single table, so scoring an action is one band computation and a few reads.
+ * <p>
+ * The table is built once from the {@link ScorerParameters}; new parameters need a new scorer.
+ */
+final class BandWeights {
+
+    static final int HULL = 0;
+    static final int CREW = 1;
+    static final int CREW_ON_LOSS = 2;
+    static final int MAX_HULL = 3;
+    static final int MAX_CREW = 4;
+    static final int HULL_RISK = 5;
+    static final int DAMAGE_HULL = 6;
+    static final int DAMAGE_CREW = 7;
+    static final int STRIDE = 8;
+
+    private static final int HULL_CRITICAL = 1;
+    private static final int HULL_LOW = 2;
+    private static final int HULL_HEALTHY = 4;
+    private static final int CREW_CRITICAL = 8;
+    private static final int CREW_LOW = 16;
+    private static final int CREW_HEALTHY = 32;
+    private static final int CREW_AT_MOST_CRITICAL = 64;
+    static final int BANDS = 128;
+
+    private final long criticalHull;
+    private final long lowHull;
+    private final long healthyHull;
+    private final long criticalCrew;
+    private final long lowCrew;
+    private final long healthyCrew;
+
+    private final double[] table = new double[BANDS * STRIDE];
+    private final boolean[] forbidsCrewLoss = new boolean[BANDS];
+
+    BandWeights(ScorerParameters p, long criticalHull, long lowHull, long healthyHull,
+                long criticalCrew, long lowCrew, long healthyCrew) {
+        this.criticalHull = criticalHull;
+        this.lowHull = lowHull;
+        this.healthyHull = healthyHull;
+        this.criticalCrew = criticalCrew;
+        this.lowCrew = lowCrew;
+        this.healthyCrew = healthyCrew;
+
+        for (int band = 0; band < BANDS; band++) {
+            boolean hullCritical = (band & HULL_CRITICAL) != 0;
+            boolean hullLow = (band & HULL_LOW) != 0;
+            boolean crewCritical = (band & CREW_CRITICAL) != 0;
+            boolean crewLow = (band & CREW_LOW) != 0;
+            boolean aggressive = (band & HULL_HEALTHY) != 0 && (band & CREW_HEALTHY) != 0;
+            int at = band * STRIDE;
+
+            forbidsCrewLoss[band] = (band & CREW_AT_MOST_CRITICAL) != 0;
+
+            // Damage of effects that hit us
+            double damageHull = p.get(DAMAGE_HULL_WEIGHT);
+            double damageCrew = p.get(DAMAGE_CREW_WEIGHT);
+            if (hullLow) damageHull += p.get(DAMAGE_LOW_HULL_BONUS);
+            if (hullCritical) damageHull += p.get(DAMAGE_CRITICAL_HULL_BONUS);
+            if (crewLow) damageCrew += p.get(DAMAGE_LOW_CREW_BONUS);
+            if (crewCritical) damageCrew += p.get(DAMAGE_CRITICAL_CREW_BONUS);
+            table[at + DAMAGE_HULL] = damageHull;
+            table[at + DAMAGE_CREW] = damageCrew;
+
+            if (aggressive) {
+                // Aggressive mode: prioritize long-term scaling more, no extra hull risk penalty
+                table[at + HULL] = p.get(AGGRESSIVE_HULL_WEIGHT);
+                table[at + CREW] = p.get(AGGRESSIVE_CREW_WEIGHT);
+                table[at + CREW_ON_LOSS] = p.get(AGGRESSIVE_CREW_WEIGHT);
+                table[at + MAX_HULL] = p.get(AGGRESSIVE_MAX_HULL_WEIGHT);
+                table[at + MAX_CREW] = p.get(AGGRESSIVE_MAX_CREW_WEIGHT);
+                table[at + HULL_RISK] = 0d;
+                continue;
+            }
+
+            // Defensive mode: favor immediate survival / recovery
+            double hull = p.get(DEFENSIVE_HULL_WEIGHT);
+            if (hullLow) hull += p.get(DEFENSIVE_LOW_HULL_BONUS);
+            if (hullCritical) hull += p.get(DEFENSIVE_CRITICAL_HULL_BONUS);
+
+            double crew = p.get(DEFENSIVE_CREW_WEIGHT);
+            if (crewLow) crew += p.get(DEFENSIVE_LOW_CREW_BONUS);
+            if (crewCritical) crew += p.get(DEFENSIVE_CRITICAL_CREW_BONUS);
+            // Penalise crew loss more when low
+            double crewOnLoss = crewLow ? crew + p.get(DEFENSIVE_CREW_LOSS_PENALTY) : crew;
+
+            double risk = p.get(HULL_RISK_BASE);
+            if (hullLow) risk += p.get(HULL_RISK_LOW_HULL_BONUS);
+            if (hullCritical) risk += p.get(HULL_RISK_CRITICAL_HULL_BONUS);
+
+            table[at + HULL] = hull;
+            table[at + CREW] = crew;
+            table[at + CREW_ON_LOSS] = crewOnLoss;
+            table[at + MAX_HULL] = p.get(DEFENSIVE_MAX_HULL_WEIGHT);
+            table[at + MAX_CREW] = p.get(DEFENSIVE_MAX_CREW_WEIGHT);
+            table[at + HULL_RISK] = risk;
+        }
+    }
+
+    /**
+     * The band of a state.
+     */
+    int band(long hull, long crew) {
+        return (hull < criticalHull ? HULL_CRITICAL : 0)
+                | (hull < lowHull ? HULL_LOW : 0)
+                | (hull > healthyHull ? HULL_HEALTHY : 0)
+                | (crew < criticalCrew ? CREW_CRITICAL : 0)
+                | (crew < lowCrew ? CREW_LOW : 0)
+                | (crew > healthyCrew ? CREW_HEALTHY : 0)
+                | (crew <= criticalCrew ? CREW_AT_MOST_CRITICAL : 0);
+    }
+
+    /**
+     * The weights of all bands; the weights of a band start at {@code band * STRIDE}.
+     */
+    double[] table() {
+        return table;
+    }
+
+    /**
+     * Whether any crew damage is forbidden in the band.
+     */
+    boolean forbidsCrewLoss(int band) {
+        return forbidsCrewLoss[band];
+    }
+}
@@ -0,0 +1,278 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.ClientUtils;
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Beam search over the ordered action sequences of a round, for rounds too large to search
+ * exhaustively.
+ * <p>
+ * Plans are valued and restricted as in {@link PlanSearch}: the same scores, effect timing and
+ * rules for which actions may be taken, so the survival guards of the greedy planner apply. Step by
+ * step every plan in the beam is extended with every allowed action, and only the {@code width}
+ * best extensions, valued as if the plan stopped there, are kept for the next step. The actions of
+ * a plan are scored in one batch with {@link ActionScorer#scoreAll}.
+ * <p>
+ * A width of one follows the single best plan; wider beams trade latency for quality, and the
+ * width can be changed at runtime with {@link #setWidth}. Among equally good plans the shortest
+ * one found first is returned. Planning stops at the round's deadline with the best plan found so far.
+ */
+public class BeamSearchPlanner implements Planner {
+
+    public static final int DEFAULT_WIDTH = 16;
+
+    // The worst node first; among equal values the latest one, so earlier plans win ties
+    private static final Comparator<Node> WORST_FIRST =
+            Comparator.comparingDouble((Node node) -> node.value).thenComparing(node -> -node.sequence);
+
+    private final ActionScorer scorer;
+    private final int maxSteps;
+    private volatile int width;
+
+    public BeamSearchPlanner() {
+        this(new ActionScorer());
+    }
+
+    public BeamSearchPlanner(ActionScorer scorer) {
+        this(scorer, DEFAULT_WIDTH);
+    }
+
+    /**
+     * @param scorer the scoring rules.
+     * @param width  the number of plans kept per step.
+     */
+    public BeamSearchPlanner(ActionScorer scorer, int width) {
+        this.scorer = scorer;
+        this.maxSteps = ActionScorer.MAX_ACTIONS_PER_ROUND;
+        setWidth(width);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Changes the number of plans kept per step, from the next round on. Safe to call while
+     * another thread is planning.
+     */
+    public void setWidth(int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        this.width = width;
+    }
+
+    @Override
+    public List<Long> plan(PlanningRound round) {
+        Search search = new Search(new SearchSpace(scorer, round, maxSteps), width);
+        search.run();
+        return BranchAndBoundPlanner.toActionIds(round, search.bestPath, search.bestPath.length);
+    }
+
+    /**
+     * A partial plan and the state after its last step.
+     */
+    private static final class Node {
+
+        final int[] path;
+        final PackedValues state;
+        // Effects removed by the plan, an ActionBits bitset over effect indices; shared when unchanged
+        final long[] removed;
+        // Score of the plan so far, and the score if it stops here
+        final double score;
+        final double value;
+        final long sequence;
+
+        Node(int[] path, PackedValues state, long[] removed, double score, double value, long sequence) {
+            this.path = path;
+            this.state = state;
+            this.removed = removed;
+            this.score = score;
+            this.value = value;
+            this.sequence = sequence;
+        }
+
+        boolean uses(int action) {
+            for (int a : path) {
+                if (a == action) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The scratch state of planning one round.
+     */
+    private final class Search {
+
+        private final SearchSpace space;
+        private final ActionTable actions;
+        private final int width;
+
+        private final double[] scores;
+        private final int[] guards;
+        private final PackedValues next = new PackedValues();
+        private final PackedValues scratch = new PackedValues();
+        private long sequence;
+
+        private double bestValue = Double.NEGATIVE_INFINITY;
+        private int[] bestPath = new int[0];
+
+        Search(SearchSpace space, int width) {
+            this.space = space;
+            this.actions = space.round.getActionTable();
+            this.width = width;
+            this.scores = new double[actions.size()];
+            this.guards = new int[actions.size()];
+        }
+
+        void run() {
+            PackedValues rootState = new PackedValues().set(space.round.getStart());
+            long[] none = new long[ActionBits.words(space.effectValues.length)];
+            double rootScore = applyEffects(rootState, none, 0, space.effectStart[1]);
+            if (ClientUtils.isDead(rootState)) {
+                offer(new int[0], rootScore);
+                return;
+            }
+
+            List<Node> beam = new ArrayList<>();
+            beam.add(new Node(new int[0], rootState, none, rootScore, stopValue(rootState, none, rootScore, 1), sequence++));
+            offer(beam.get(0).path, beam.get(0).value);
+
+            for (int step = 1; step <= maxSteps && !beam.isEmpty(); step++) {
+                PriorityQueue<Node> kept = new PriorityQueue<>(width + 1, WORST_FIRST);
+                for (Node node : beam) {
+                    if (space.round.isExpired()) return;
+                    extend(node, step, kept);
+                }
+
+                beam = new ArrayList<>(kept);
+                beam.sort(WORST_FIRST.reversed());
+            }
+        }
+
+        /**
+         * Offers every allowed extension of {@code node} at {@code step}, and keeps the best living ones.
+         */
+        private void extend(Node node, int step, PriorityQueue<Node> kept) {
+            PackedValues state = node.state;
+            scorer.scoreAll(actions, state.getHullStrength(), state.getCrewHealth(), scores, guards);
+
+            for (int action = 0; action < scores.length; action++) {
+                if (!actions.isPresent(action) || node.uses(action)) continue;
+                if (!isAllowed(node, action, step)) continue;
+
+                long[] removed = remove(node.removed, action, step);
+                double score = node.score + scores[action]
+                        + applyEffects(next, removed, space.effectStart[step], space.effectStart[step + 1]);
+                if (ClientUtils.isDead(next)) {
+                    if (score > bestValue) offer(append(node.path, action), score);
+                    continue;
+                }
+
+                double value = stopValue(next, removed, score, step + 1);
+                int[] path = null;
+                if (value > bestValue) {
+                    path = append(node.path, action);
+                    offer(path, value);
+                }
+                if (kept.size() < width || value > kept.peek().value) {
+                    if (path == null) path = append(node.path, action);
+                    if (kept.size() == width) kept.poll();
+                    kept.add(new Node(path, new PackedValues().set(next), removed, score, value, sequence++));
+                }
+            }
+        }
+
+        /**
+         * The rules of {@link PlanSearch}: an action removing a pending harmful effect must not kill
+         * us and must keep the crew reserve unless that effect would kill us; any other action needs
+         * a strictly positive score and must pass the survival guards. Leaves the state after the
+         * action in {@link #next}.
+         */
+        private boolean isAllowed(Node node, int action, int step) {
+            PackedValues state = node.state;
+            boolean removesHarmful = false;
+            boolean removesLethal = false;
+            for (int e : space.countered[action]) {
+                if (!ActionBits.get(node.removed, e) && space.effectSteps[e] >= step && ActionScorer.isHarmful(space.effectValues[e])) {
+                    removesHarmful = true;
+                    removesLethal |= ActionScorer.effectWouldKill(state, space.effectValues[e]);
+                }
+            }
+
+            if (!removesHarmful && (scores[action] <= 0d || guards[action] != ActionScorer.GUARD_NONE)) {
+                return false;
+            }
+
+            ClientUtils.sumValues(state, space.actionValues[action], next);
+            if (ClientUtils.isDead(next)) return false;
+            return !removesHarmful || removesLethal || next.getCrewHealth() >= scorer.getCrewReserve();
+        }
+
+        /**
+         * The removed effects after executing {@code action} at {@code step}; a copy only if it removes any.
+         */
+        private long[] remove(long[] removed, int action, int step) {
+            long[] result = removed;
+            for (int e : space.countered[action]) {
+                if (space.effectSteps[e] >= step && !ActionBits.get(result, e)) {
+                    if (result == removed) result = removed.clone();
+                    ActionBits.set(result, e);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * The score if the plan stops in {@code state}: every effect from {@code step} on still hits.
+         */
+        private double stopValue(PackedValues state, long[] removed, double score, int step) {
+            scratch.set(state);
+            int from = space.effectStart[Math.min(step, maxSteps + 1)];
+            return score + applyEffects(scratch, removed, from, space.effectOrder.length);
+        }
+
+        /**
+         * Lets the effects at positions {@code [from, to)} of the effect order hit {@code state},
+         * skipping removed ones.
+         *
+         * @return the summed weighted damage, including the death penalty if we die.
+         */
+        private double applyEffects(PackedValues state, long[] removed, int from, int to) {
+            double score = 0d;
+            for (int pos = from; pos < to; pos++) {
+                int e = space.effectOrder[pos];
+                if (ActionBits.get(removed, e)) continue;
+
+                PackedValues effect = space.effectValues[e];
+                score += scorer.weightedDamage(effect, state.getHullStrength(), state.getCrewHealth());
+                ClientUtils.sumValues(state, effect, state);
+                if (ClientUtils.isDead(state)) {
+                    return score + ActionScorer.FORBIDDEN_SCORE;
+                }
+            }
+            return score;
+        }
+
+        private void offer(int[] path, double value) {
+            if (value > bestValue) {
+                bestValue = value;
+                bestPath = path;
+            }
+        }
+
+        private int[] append(int[] path, int action) {
+            int[] result = Arrays.copyOf(path, path.length + 1);
+            result[path.length] = action;
+            return result;
+        }
+    }
+}
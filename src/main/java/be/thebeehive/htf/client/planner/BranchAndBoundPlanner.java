@@ -0,0 +1,43 @@
+package be.thebeehive.htf.client.planner;
+
+import java.util.List;
+
+/**
+ * Exhaustive planner: searches every ordered sequence of up to
+ * {@link ActionScorer#MAX_ACTIONS_PER_ROUND} distinct actions and returns the best one.
+ * <p>
+ * Unlike the {@link GreedyPlanner} it sees combinations where an early action that scores badly
+ * on its own leads to a better state for the later steps. See {@link PlanSearch} for how a plan
+ * is valued. Branches are pruned with optimistic bounds on the score of the remaining steps,
+ * which keeps the search fast for rounds with hundreds of actions. Among equally good plans the
+ * shortest one found first is returned, so the result is deterministic.
+ */
+public class BranchAndBoundPlanner implements Planner {
+
+    private final ActionScorer scorer;
+    private final int maxSteps;
+
+    public BranchAndBoundPlanner() {
+        this(new ActionScorer());
+    }
+
+    public BranchAndBoundPlanner(ActionScorer scorer) {
+        this(scorer, ActionScorer.MAX_ACTIONS_PER_ROUND);
+    }
+
+    public BranchAndBoundPlanner(ActionScorer scorer, int maxSteps) {
+        this.scorer = scorer;
+        this.maxSteps = maxSteps;
+    }
+
+    @Override
+    public List<Long> plan(PlanningRound round) {
+        PlanSearch search = new PlanSearch(new SearchSpace(scorer, round, maxSteps));
+        search.search();
+        return toActionIds(round, search.getBestPath(), search.getBestLength());
+    }
+
+    static List<Long> toActionIds(PlanningRound round, int[] path, int length) {
+        return round.getActionIds().toIds(path, length);
+    }
+}
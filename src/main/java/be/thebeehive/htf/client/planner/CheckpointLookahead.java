@@ -0,0 +1,194 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.PackedValues;
+
+/**
+ * Projects our hull and crew forward to the next checkpoint, from statistics of the rounds so far.
+ * <p>
+ * Every round is {@link #observe observed} once; the statistics are running averages, so the cost
+ * per round is one pass over its effects and actions and nothing is recomputed for older rounds.
+ * Two estimates of how much hull and crew a round costs are kept:
+ * <ul>
+ *     <li>the change of our state between consecutive rounds, without the values of a checkpoint
+ *     reached in between: what rounds actually cost us with our own plans;</li>
+ *     <li>the sum of all effects of a round plus the {@link ActionScorer#MAX_ACTIONS_PER_ROUND}
+ *     best gains among its actions: what a round could cost, used while few rounds were observed.</li>
+ * </ul>
+ * A projection over {@code k} rounds is the expected change times {@code k}, lowered by
+ * {@code confidence} standard deviations of its sum, so a shaky history projects pessimistically.
+ * <p>
+ * Instances follow a single game and are not thread-safe.
+ */
+public class CheckpointLookahead {
+
+    public static final double DEFAULT_DECAY = 0.2;
+    public static final double DEFAULT_CONFIDENCE = 1.0;
+
+    // Rounds of observed change it takes to trust the observations as much as the round statistics
+    private static final int PRIOR_ROUNDS = 3;
+
+    private final double decay;
+    private final double confidence;
+
+    private final RunningStat observedHull = new RunningStat();
+    private final RunningStat observedCrew = new RunningStat();
+    private final RunningStat roundHull = new RunningStat();
+    private final RunningStat roundCrew = new RunningStat();
+
+    private long lastRound = -1L;
+    private PackedValues lastStart;
+    private long lastCheckpointRound = -1L;
+    private PackedValues lastCheckpointValues;
+
+    public CheckpointLookahead() {
+        this(DEFAULT_DECAY, DEFAULT_CONFIDENCE);
+    }
+
+    /**
+     * @param decay      the weight of the newest round in the running averages, in (0, 1].
+     * @param confidence the number of standard deviations a projection is lowered by.
+     */
+    public CheckpointLookahead(double decay, double confidence) {
+        if (!(decay > 0d && decay <= 1d)) {
+            throw new IllegalArgumentException("decay must be in (0, 1]: " + decay);
+        }
+        this.decay = decay;
+        this.confidence = confidence;
+    }
+
+    /**
+     * Adds a round to the statistics. Rounds must be observed in order; a round that does not
+     * follow the previous one only updates the round statistics.
+     */
+    public void observe(PlanningRound round) {
+        long effectHull = 0L;
+        long effectCrew = 0L;
+        for (PackedValues effect : round.getEffectValues()) {
+            if (effect == null) continue;
+            effectHull += effect.getHullStrength();
+            effectCrew += effect.getCrewHealth();
+        }
+        roundHull.add(effectHull + bestGains(round, true), decay);
+        roundCrew.add(effectCrew + bestGains(round, false), decay);
+
+        PackedValues start = round.getStart();
+        if (lastStart != null && round.getRound() == lastRound + 1) {
+            long hull = start.getHullStrength() - lastStart.getHullStrength();
+            long crew = start.getCrewHealth() - lastStart.getCrewHealth();
+            if (lastCheckpointRound == lastRound && lastCheckpointValues != null) {
+                hull -= lastCheckpointValues.getHullStrength();
+                crew -= lastCheckpointValues.getCrewHealth();
+            }
+            observedHull.add(hull, decay);
+            observedCrew.add(crew, decay);
+        }
+
+        lastRound = round.getRound();
+        lastStart = start;
+        lastCheckpointRound = round.getCheckpointRound();
+        lastCheckpointValues = round.getCheckpointValues();
+    }
+
+    /**
+     * The number of rounds still to play after {@code round} before its checkpoint is reached,
+     * or -1 if the round has no checkpoint ahead.
+     */
+    public static long roundsToCheckpoint(PlanningRound round) {
+        if (round.getRound() < 0 || round.getCheckpointRound() < round.getRound()) return -1L;
+        return round.getCheckpointRound() - round.getRound();
+    }
+
+    /**
+     * The hull we expect after {@code rounds} more rounds, starting at {@code hull}.
+     */
+    public long projectHull(long hull, long rounds) {
+        return project(hull, rounds, observedHull, roundHull);
+    }
+
+    /**
+     * The crew we expect after {@code rounds} more rounds, starting at {@code crew}.
+     */
+    public long projectCrew(long crew, long rounds) {
+        return project(crew, rounds, observedCrew, roundCrew);
+    }
+
+    private long project(long value, long rounds, RunningStat observed, RunningStat prior) {
+        if (rounds <= 0 || prior.count == 0) return value;
+
+        double trust = (double) observed.count / (observed.count + PRIOR_ROUNDS);
+        double mean = trust * observed.mean + (1d - trust) * prior.mean;
+        double variance = trust * observed.variance + (1d - trust) * prior.variance;
+        return value + Math.round(rounds * mean - confidence * Math.sqrt(rounds * variance));
+    }
+
+    /**
+     * Values an end state with {@code base}, minus {@code weight} times how far the state projected
+     * to the checkpoint, plus the values the checkpoint adds, falls short of the scorer's critical
+     * hull and crew. The shortfall is valued
+     * with {@link ActionScorer#scoreChange} in the band of the start state, so the utility stays
+     * monotone. Without a checkpoint ahead the base utility is returned.
+     */
+    public StateUtility utility(StateUtility base, ActionScorer scorer, PlanningRound round, double weight) {
+        long rounds = roundsToCheckpoint(round);
+        if (rounds < 0) return base;
+
+        // The projected change does not depend on the end state, compute it once for the round
+        PackedValues checkpoint = round.getCheckpointValues();
+        long hullChange = projectHull(0L, rounds) + (checkpoint != null ? checkpoint.getHullStrength() : 0L);
+        long crewChange = projectCrew(0L, rounds) + (checkpoint != null ? checkpoint.getCrewHealth() : 0L);
+        return (start, end) -> {
+            long hullShort = Math.max(0L, scorer.getCriticalHull() - (end.getHullStrength() + hullChange));
+            long crewShort = Math.max(0L, scorer.getCriticalCrew() - (end.getCrewHealth() + crewChange));
+            double value = base.value(start, end);
+            if (hullShort == 0L && crewShort == 0L) return value;
+
+            return value + weight * scorer.scoreChange(-hullShort, -crewShort, 0L, 0L,
+                    start.getHullStrength(), start.getCrewHealth());
+        };
+    }
+
+    /**
+     * The sum of the best positive hull or crew deltas among the actions, as many as can be taken.
+     */
+    private static long bestGains(PlanningRound round, boolean hull) {
+        long[] best = new long[ActionScorer.MAX_ACTIONS_PER_ROUND];
+        for (PackedValues action : round.getActionValues()) {
+            if (action == null) continue;
+            long gain = hull ? action.getHullStrength() : action.getCrewHealth();
+            // Keep the best gains sorted, highest first
+            for (int i = 0; i < best.length && gain > 0; i++) {
+                if (gain > best[i]) {
+                    long swap = best[i];
+                    best[i] = gain;
+                    gain = swap;
+                }
+            }
+        }
+
+        long sum = 0L;
+        for (long gain : best) {
+            sum += gain;
+        }
+        return sum;
+    }
+
+    /**
+     * Exponentially weighted mean and variance.
+     */
+    private static final class RunningStat {
+
+        int count;
+        double mean;
+        double variance;
+
+        void add(double value, double decay) {
+            if (count++ == 0) {
+                mean = value;
+                return;
+            }
+            double diff = value - mean;
+            mean += decay * diff;
+            variance = (1d - decay) * (variance + decay * diff * diff);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package be.thebeehive.htf.client.planner;
+
+import java.util.List;
+
+/**
+ * Plans every round so that we arrive at the next checkpoint alive.
+ * <p>
+ * The {@link CheckpointLookahead} is fed every round and projects the end state of a plan to the
+ * checkpoint and adds what the checkpoint gives; a {@link ParetoPlanner} then picks the plan with
+ * the best outcome, valued by the base utility minus a penalty when the projection falls below the
+ * critical hull or crew. Far
+ * from danger the penalty is zero and the plans are those of the Pareto planner.
+ * <p>
+ * The lookahead follows a single game, so an instance must not be shared between games.
+ */
+public class CheckpointPlanner implements Planner {
+
+    public static final double DEFAULT_SHORTFALL_WEIGHT = 1.0;
+
+    private final ActionScorer scorer;
+    private final CheckpointLookahead lookahead;
+    private final StateUtility base;
+    private final double shortfallWeight;
+    private final int maxFront;
+
+    public CheckpointPlanner() {
+        this(new ActionScorer());
+    }
+
+    public CheckpointPlanner(ActionScorer scorer) {
+        this(scorer, new CheckpointLookahead(), StateUtility.scored(scorer), DEFAULT_SHORTFALL_WEIGHT);
+    }
+
+    /**
+     * @param scorer          the scoring rules.
+     * @param lookahead       the projection, fed by this planner.
+     * @param base            values the end state of a plan.
+     * @param shortfallWeight how much a projected shortfall at the checkpoint costs, relative to the scorer's weights.
+     */
+    public CheckpointPlanner(ActionScorer scorer, CheckpointLookahead lookahead, StateUtility base, double shortfallWeight) {
+        this.scorer = scorer;
+        this.lookahead = lookahead;
+        this.base = base;
+        this.shortfallWeight = shortfallWeight;
+        this.maxFront = ParetoPlanner.DEFAULT_MAX_FRONT;
+    }
+
+    public CheckpointLookahead getLookahead() {
+        return lookahead;
+    }
+
+    @Override
+    public List<Long> plan(PlanningRound round) {
+        lookahead.observe(round);
+        StateUtility utility = lookahead.utility(base, scorer, round, shortfallWeight);
+        return new ParetoPlanner(scorer, utility, maxFront).plan(round);
+    }
+}
@@ -0,0 +1,145 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+import be.thebeehive.htf.library.protocol.server.EffectTable;
+
+import java.util.Arrays;
+
+/**
+ * Per-round index from an effect id to the actions that counter it and the effects carrying it.
+ * <p>
+ * Effect ids are the keys of an open-addressing hash table over primitive longs, so a lookup
+ * costs one hash probe and no boxing. The action and effect indices of every key are stored
+ * back to back in index order. Actions without a counter ({@code effectId == -1}) and missing
+ * actions or effects are left out. Instances are immutable and built once per
+ * {@link PlanningRound}.
+ */
+public final class CounterIndex {
+
+    private static final long NO_KEY = Long.MIN_VALUE;
+    private static final int[] NONE = new int[0];
+
+    private final long[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    // For key slot k: counters are counterIndices[counterStart[k] .. counterStart[k + 1])
+    private final int[] counterStart;
+    private final int[] counterIndices;
+    private final int[] effectStart;
+    private final int[] effectIndices;
+
+    CounterIndex(ActionTable actions, EffectTable effects) {
+        int capacity = Integer.highestOneBit(Math.max(actions.size() + effects.size(), 1) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        Arrays.fill(keys, NO_KEY);
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+
+        // Assign a slot to every distinct id, then count and place the indices per slot
+        int distinct = 0;
+        // A missing action has effectId -1, a missing effect id -1 and step Integer.MAX_VALUE
+        long[] effectIds = actions.getEffectId();
+        int[] actionSlot = new int[actions.size()];
+        for (int a = 0; a < actionSlot.length; a++) {
+            actionSlot[a] = effectIds[a] == -1 ? -1 : slotFor(effectIds[a], distinct);
+            if (actionSlot[a] == distinct) distinct++;
+        }
+        long[] ids = effects.getId();
+        int[] effectSlot = new int[effects.size()];
+        for (int e = 0; e < effectSlot.length; e++) {
+            effectSlot[e] = isMissing(effects, e) || ids[e] == NO_KEY ? -1 : slotFor(ids[e], distinct);
+            if (effectSlot[e] == distinct) distinct++;
+        }
+
+        this.counterStart = new int[distinct + 1];
+        this.counterIndices = place(actionSlot, counterStart);
+        this.effectStart = new int[distinct + 1];
+        this.effectIndices = place(effectSlot, effectStart);
+    }
+
+    private static boolean isMissing(EffectTable effects, int e) {
+        return !effects.isPresent(e) && effects.getId()[e] == -1L && effects.getStep()[e] == Integer.MAX_VALUE;
+    }
+
+    /**
+     * The slot of {@code id}, assigning {@code next} if the id is new.
+     */
+    private int slotFor(long id, int next) {
+        int pos = hash(id) & mask;
+        while (keys[pos] != NO_KEY) {
+            if (keys[pos] == id) return slots[pos];
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = id;
+        slots[pos] = next;
+        return next;
+    }
+
+    private static int[] place(int[] slotOf, int[] start) {
+        for (int slot : slotOf) {
+            if (slot >= 0) start[slot + 1]++;
+        }
+        for (int k = 1; k < start.length; k++) {
+            start[k] += start[k - 1];
+        }
+        int[] indices = new int[start[start.length - 1]];
+        int[] fill = Arrays.copyOf(start, start.length - 1);
+        for (int i = 0; i < slotOf.length; i++) {
+            if (slotOf[i] >= 0) indices[fill[slotOf[i]]++] = i;
+        }
+        return indices.length == 0 ? NONE : indices;
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * The slot of an effect id, or -1 if no action or effect of the round carries it.
+     */
+    private int slotOf(long effectId) {
+        if (effectId == NO_KEY) return -1;
+        int pos = hash(effectId) & mask;
+        long key;
+        while ((key = keys[pos]) != NO_KEY) {
+            if (key == effectId) return slots[pos];
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * The first action, in round order, that counters {@code effectId} and is not used.
+     * The lookup is a single hash probe; only the counters of this id are scanned.
+     *
+     * @param used the action indices already taken, an {@link ActionBits} bitset.
+     * @return the action index, or -1 if every counter is used or there is none.
+     */
+    public int firstUnusedCounter(long effectId, long[] used) {
+        int slot = slotOf(effectId);
+        if (slot < 0) return -1;
+        for (int i = counterStart[slot], end = counterStart[slot + 1]; i < end; i++) {
+            int action = counterIndices[i];
+            if (!ActionBits.get(used, action)) return action;
+        }
+        return -1;
+    }
+
+    /**
+     * The indices of the actions that counter {@code effectId}, in round order.
+     */
+    public int[] counters(long effectId) {
+        int slot = slotOf(effectId);
+        return slot < 0 ? NONE : Arrays.copyOfRange(counterIndices, counterStart[slot], counterStart[slot + 1]);
+    }
+
+    /**
+     * The indices of the effects with id {@code effectId}, in round order.
+     */
+    public int[] effects(long effectId) {
+        int slot = slotOf(effectId);
+        return slot < 0 ? NONE : Arrays.copyOfRange(effectIndices, effectStart[slot], effectStart[slot + 1]);
+    }
+}
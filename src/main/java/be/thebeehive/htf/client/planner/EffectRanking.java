@@ -0,0 +1,182 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.library.protocol.server.EffectTable;
+
+/**
+ * Ranking of the harmful effects of a round: earlier steps first and, within a step, by the
+ * {@link ActionScorer#weightedDamage} of the effect against the simulated state.
+ * <p>
+ * The weighted damage only depends on the state through its band, so the hull and crew loss of
+ * every harmful effect is extracted once per round, and ranking a band is one pass computing a
+ * primitive danger key per effect followed by a stable merge sort on (step, danger). Rankings
+ * are cached per band, and only sorted for a band not seen yet this round.
+ * <p>
+ * {@link #next(long, long)} hands out every harmful effect once. When the simulated state moves
+ * to another band in the meantime, it continues with the effects not handed out yet, in the
+ * ranking of the new band.
+ * <p>
+ * An instance is reused across rounds and allocates nothing once its arrays have grown to the
+ * round's size. It is not thread-safe.
+ */
+public final class EffectRanking {
+
+    private ActionScorer scorer;
+    private int count;
+
+    // Per harmful effect, in round order
+    private int[] effects = new int[0];
+    private int[] steps = new int[0];
+    private long[] hullLoss = new long[0];
+    private long[] crewLoss = new long[0];
+
+    // Sort keys and merge buffer, per harmful effect
+    private double[] danger = new double[0];
+    private int[] buffer = new int[0];
+    // Per effect of the round, whether next() handed it out
+    private boolean[] taken = new boolean[0];
+
+    // The ranking of band b is orders[b], valid while stamps[b] == stamp; before cursors[b] all are taken
+    private final int[][] orders = new int[BandWeights.BANDS][];
+    private final int[] stamps = new int[BandWeights.BANDS];
+    private final int[] cursors = new int[BandWeights.BANDS];
+    private int stamp;
+
+    /**
+     * Prepares the ranking for a round, dropping the rankings of the previous one.
+     */
+    public void build(ActionScorer scorer, EffectTable table) {
+        this.scorer = scorer;
+        this.stamp++;
+
+        int size = table.size();
+        if (effects.length < size) {
+            int capacity = Math.max(size, effects.length * 2);
+            effects = new int[capacity];
+            steps = new int[capacity];
+            hullLoss = new long[capacity];
+            crewLoss = new long[capacity];
+            danger = new double[capacity];
+            buffer = new int[capacity];
+            taken = new boolean[capacity];
+        }
+
+        boolean[] present = table.getPresent();
+        int[] step = table.getStep();
+        long[] hull = table.getHullStrength();
+        long[] crew = table.getCrewHealth();
+
+        int n = 0;
+        for (int e = 0; e < size; e++) {
+            if (!present[e] || (hull[e] >= 0 && crew[e] >= 0)) continue;
+
+            taken[e] = false;
+            effects[n] = e;
+            steps[n] = step[e];
+            // Only the negative parts are damage
+            hullLoss[n] = Math.min(hull[e], 0L);
+            crewLoss[n] = Math.min(crew[e], 0L);
+            n++;
+        }
+        this.count = n;
+    }
+
+    /**
+     * The number of harmful effects of the round.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * The next harmful effect in priority order for a state, among those not handed out yet this
+     * round, and marks it handed out.
+     *
+     * @return the index of the effect in the round, or -1 if all have been handed out.
+     */
+    public int next(long currentHull, long currentCrew) {
+        int band = scorer.band(currentHull, currentCrew);
+        int[] order = rank(band);
+
+        int i = cursors[band];
+        while (i < count && taken[order[i]]) i++;
+        if (i == count) {
+            cursors[band] = i;
+            return -1;
+        }
+
+        int e = order[i];
+        taken[e] = true;
+        cursors[band] = i + 1;
+        return e;
+    }
+
+    /**
+     * The indices of the harmful effects in priority order for a state; only the first
+     * {@link #size()} entries are valid. The array is owned by the ranking and stays valid until
+     * the next {@link #build}.
+     */
+    public int[] ranked(long currentHull, long currentCrew) {
+        return rank(scorer.band(currentHull, currentCrew));
+    }
+
+    private int[] rank(int band) {
+        int[] order = orders[band];
+        if (stamps[band] == stamp) return order;
+
+        if (order == null || order.length < count) {
+            order = new int[Math.max(count, effects.length)];
+            orders[band] = order;
+        }
+
+        double hullWeight = scorer.bandWeight(band, BandWeights.DAMAGE_HULL);
+        double crewWeight = scorer.bandWeight(band, BandWeights.DAMAGE_CREW);
+        for (int i = 0; i < count; i++) {
+            danger[i] = hullLoss[i] * hullWeight + crewLoss[i] * crewWeight;
+            order[i] = i;
+        }
+
+        sort(order);
+        for (int i = 0; i < count; i++) {
+            order[i] = effects[order[i]];
+        }
+
+        stamps[band] = stamp;
+        cursors[band] = 0;
+        return order;
+    }
+
+    /**
+     * Bottom-up merge sort of the positions in {@code order}; stable, so equal keys keep their
+     * order in the round.
+     */
+    private void sort(int[] order) {
+        int[] from = order;
+        int[] to = buffer;
+        for (int width = 1; width < count; width *= 2) {
+            for (int lo = 0; lo < count; lo += 2 * width) {
+                int mid = Math.min(lo + width, count);
+                int hi = Math.min(lo + 2 * width, count);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    to[k++] = compare(from[j], from[i]) < 0 ? from[j++] : from[i++];
+                }
+                while (i < mid) to[k++] = from[i++];
+                while (j < hi) to[k++] = from[j++];
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, count);
+        }
+    }
+
+    private int compare(int a, int b) {
+        int byStep = Integer.compare(steps[a], steps[b]);
+        if (byStep != 0) return byStep;
+
+        // Within a step the greedy planner has always put the larger (less negative) key first
+        return Double.compare(danger[b], danger[a]);
+    }
+}
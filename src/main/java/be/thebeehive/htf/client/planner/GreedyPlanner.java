@@ -0,0 +1,322 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.ClientUtils;
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+
+import java.util.*;
+
+import static be.thebeehive.htf.client.PackedValues.format;
+
+/**
+ * Greedy round planner:
+ * 1. Cancel harmful effects when possible (prioritising what is most dangerous).
+ * 2. Use remaining steps for beneficial actions (repairs/heals/upgrades),
+ *    with a strong bias towards protecting crew and keeping hull out of danger zones.
+ * <p>
+ * All working state lives in a {@link PlannerScratch}, so {@link #plan(PlanningRound, PlannerScratch)}
+ * allocates nothing once the scratch has grown to the round's size. The decision trace is
+ * only printed when enabled; printing it allocates.
+ */
+public class GreedyPlanner implements Planner {
+
+    private final ActionScorer scorer;
+    private final boolean trace;
+
+    public GreedyPlanner() {
+        this(new ActionScorer());
+    }
+
+    public GreedyPlanner(ActionScorer scorer) {
+        this(scorer, false);
+    }
+
+    /**
+     * @param scorer the scoring rules.
+     * @param trace  whether to print every decision to {@link System#out}.
+     */
+    public GreedyPlanner(ActionScorer scorer, boolean trace) {
+        this.scorer = scorer;
+        this.trace = trace;
+    }
+
+    @Override
+    public List<Long> plan(PlanningRound round) {
+        PlannerScratch scratch = PlannerScratch.forCurrentThread();
+        int count = plan(round, scratch);
+        return BranchAndBoundPlanner.toActionIds(round, scratch.getChosen(), count);
+    }
+
+    /**
+     * Plans a round without allocating.
+     *
+     * @param round   the round to plan.
+     * @param scratch the working memory; holds the chosen action indices afterwards.
+     * @return the number of chosen actions.
+     */
+    public int plan(PlanningRound round, PlannerScratch scratch) {
+        long[] actionIds = round.getActionTable().getId();
+        PackedValues[] actionValues = round.getActionValues();
+        long[] effectIds = round.getEffectTable().getId();
+        int[] effectSteps = round.getEffectTable().getStep();
+        PackedValues[] effectValues = round.getEffectValues();
+        CounterIndex counterIndex = round.getCounterIndex();
+
+        scratch.reset(actionValues.length);
+        long[] used = scratch.used;
+        PackedValues simulated = scratch.state.set(round.getStart());
+        PackedValues projected = scratch.projected;
+        int step = 1;
+
+        // 1. Cancel harmful effects, earlier steps first, then the most dangerous given the simulated state
+        EffectRanking ranking = scratch.harmfulEffects;
+        ranking.build(scorer, round.getEffectTable());
+        int harmfulCount = ranking.size();
+        if (trace && harmfulCount > 0) {
+            int[] harmfulEffects = ranking.ranked(simulated.getHullStrength(), simulated.getCrewHealth());
+            System.out.println("  Harmful effects (sorted):");
+            for (int i = 0; i < harmfulCount; i++) {
+                int e = harmfulEffects[i];
+                System.out.printf(
+                        "    Effect id=%d step=%d dh=%s dc=%s%n",
+                        effectIds[e],
+                        effectSteps[e],
+                        format(effectValues[e].getHullStrength()),
+                        format(effectValues[e].getCrewHealth())
+                );
+            }
+        }
+
+        // Taking a counter can move the state to another band, which re-ranks the remaining effects
+        int e;
+        while ((e = ranking.next(simulated.getHullStrength(), simulated.getCrewHealth())) >= 0) {
+            if (step > ActionScorer.MAX_ACTIONS_PER_ROUND) break;
+            if (step > effectSteps[e]) continue; // too late to cancel for this step
+
+            int counter = counterIndex.firstUnusedCounter(effectIds[e], used);
+            if (counter < 0 || actionValues[counter] == null) continue;
+
+            // Simulate if we TAKE the counter
+            PackedValues afterCounter = ClientUtils.sumValues(simulated, actionValues[counter], projected);
+
+            long crewAfterCounter = afterCounter.getCrewHealth();
+            long hullAfterCounter = afterCounter.getHullStrength();
+
+            // Simulate if we DO NOT counter and let the effect hit us
+            PackedValues effectValue = effectValues[e];
+            boolean effectWouldKill = ActionScorer.effectWouldKill(simulated, effectValue);
+
+            if (trace) {
+                System.out.printf(
+                        "  [COUNTER EVAL] effect=%d step=%d | "
+                                + "noCounter(hull=%s, crew=%s, kill=%s) vs "
+                                + "counter(hull=%s, crew=%s)%n",
+                        effectIds[e], effectSteps[e],
+                        format(simulated.getHullStrength() + effectValue.getHullStrength()),
+                        format(simulated.getCrewHealth() + effectValue.getCrewHealth()),
+                        effectWouldKill,
+                        format(hullAfterCounter), format(crewAfterCounter)
+                );
+            }
+
+            // If the effect does NOT kill us, and the counter would drop crew below reserve,
+            // skip this counter - saving crew for future rounds.
+            if (!effectWouldKill && crewAfterCounter < scorer.getCrewReserve()) {
+                if (trace) {
+                    System.out.printf(
+                            "  [SKIP COUNTER] effect=%d action=%d drops crew below reserve (%s -> %s) while effect is non-lethal%n",
+                            effectIds[e], actionIds[counter],
+                            format(simulated.getCrewHealth()), format(crewAfterCounter)
+                    );
+                }
+                continue;
+            }
+
+            // Also keep the generic "don't instantly kill us" guard:
+            if (ClientUtils.isDead(afterCounter)) {
+                if (trace) {
+                    System.out.printf(
+                            "  [SKIP COUNTER] effect=%d action=%d would kill us immediately%n",
+                            effectIds[e], actionIds[counter]
+                    );
+                }
+                continue;
+            }
+
+            //  Accept counter
+            if (trace) {
+                System.out.printf(
+                        "  [COUNTER] step=%d effect=%d action=%d | hull=%s->%s crew=%s->%s%n",
+                        step, effectIds[e], actionIds[counter],
+                        format(simulated.getHullStrength()), format(hullAfterCounter),
+                        format(simulated.getCrewHealth()), format(crewAfterCounter)
+                );
+            }
+
+            scratch.choose(counter);
+            simulated.set(afterCounter);
+            step++;
+        }
+
+        // 2. Use remaining steps for the best beneficial actions
+        while (step <= ActionScorer.MAX_ACTIONS_PER_ROUND) {
+            int best = chooseBestBeneficialAction(round.getActionTable(), used, simulated, scratch);
+
+            if (best < 0) {
+                if (trace) {
+                    System.out.printf("  No more beneficial actions found at step=%d%n", step);
+                }
+                break;
+            }
+
+            PackedValues after = ClientUtils.sumValues(simulated, actionValues[best], projected);
+
+            if (ClientUtils.isDead(after)) {
+                if (trace) {
+                    System.out.printf(
+                            "  [SKIP PICK] step=%d action=%d would kill us: hull=%s->%s crew=%s->%s%n",
+                            step,
+                            actionIds[best],
+                            format(simulated.getHullStrength()), format(after.getHullStrength()),
+                            format(simulated.getCrewHealth()), format(after.getCrewHealth())
+                    );
+                }
+                break;
+            }
+
+            if (trace) {
+                double score = scorer.scoreAction(actionValues[best], simulated.getHullStrength(), simulated.getCrewHealth());
+                System.out.printf(
+                        "  [PICK] step=%d action=%d score=%s | hull=%s->%s crew=%s->%s%n",
+                        step,
+                        actionIds[best],
+                        score,
+                        format(simulated.getHullStrength()), format(after.getHullStrength()),
+                        format(simulated.getCrewHealth()), format(after.getCrewHealth())
+                );
+            }
+
+            scratch.choose(best);
+            simulated.set(after);
+            step++;
+        }
+
+        return scratch.getChosenCount();
+    }
+
+    /**
+     * Choose the best beneficial action given the current simulated state.
+     * We heavily bias towards keeping crew safe, especially when crew is low.
+     * <p>
+     * All actions of the round's {@link ActionTable} are scored in one batch with
+     * {@link ActionScorer#scoreAll}; the scan then only picks the best one.
+     *
+     * @param scratch holds the batch scores; must be reset for the round.
+     * @return the index of the best action, or -1 if no action has a strictly positive score.
+     */
+    int chooseBestBeneficialAction(
+            ActionTable table,
+            long[] used,
+            PackedValues state,
+            PlannerScratch scratch
+    ) {
+        boolean[] present = table.getPresent();
+        long[] ids = table.getId();
+        long[] hull = table.getHullStrength();
+        long[] crew = table.getCrewHealth();
+        long[] maxHull = table.getMaxHullStrength();
+        long[] maxCrew = table.getMaxCrewHealth();
+        double[] scores = scratch.actionScores;
+        int[] guards = scratch.actionGuards;
+        int size = table.size();
+
+        int best = -1;
+        double bestScore = 0d; // require strictly positive score
+
+        long currentHull = state.getHullStrength();
+        long currentCrew = state.getCrewHealth();
+
+        if (trace) {
+            System.out.printf(
+                    "  [EVAL] mode=%s, currentHull=%s, currentCrew=%s%n",
+                    scorer.isAggressive(currentHull, currentCrew) ? "AGG" : "DEF",
+                    format(currentHull),
+                    format(currentCrew)
+            );
+        }
+
+        // ---- Hard survival guards and scores (uses aggressive/defensive weights) ----
+        scorer.scoreAll(table, currentHull, currentCrew, scores, guards);
+
+        for (int i = 0; i < size; i++) {
+            if (!present[i] || ActionBits.get(used, i)) continue;
+
+            int guard = guards[i];
+            if (guard != ActionScorer.GUARD_NONE) {
+                if (trace) traceGuard(guard, ids[i], hull[i], crew[i], currentHull, currentCrew);
+                continue;
+            }
+
+            double score = scores[i];
+
+            // Log candidate that passed the hard guards
+            if (trace) {
+                System.out.printf(
+                        "    [CAND] action=%d dh=%s dc=%s dMaxH=%s dMaxC=%s | projHull=%s projCrew=%s | score=%s%n",
+                        ids[i],
+                        format(hull[i]), format(crew[i]),
+                        format(maxHull[i]), format(maxCrew[i]),
+                        format(currentHull + hull[i]), format(currentCrew + crew[i]),
+                        score
+                );
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+
+        if (trace) {
+            System.out.printf(
+                    "  [DECISION] mode=%s, bestAction=%s, bestScore=%s%n",
+                    scorer.isAggressive(currentHull, currentCrew) ? "AGG" : "DEF",
+                    (best >= 0 ? ids[best] : "none"),
+                    bestScore
+            );
+        }
+
+        return best;
+    }
+
+    private void traceGuard(int guard, long actionId, long deltaHull, long deltaCrew, long currentHull, long currentCrew) {
+        switch (guard) {
+            case ActionScorer.GUARD_CRITICAL_HULL:
+                System.out.printf(
+                        "    [SKIP] action=%d would reduce critical hull: dh=%s%n",
+                        actionId, format(deltaHull)
+                );
+                return;
+            case ActionScorer.GUARD_INTO_CRITICAL_HULL:
+                System.out.printf(
+                        "    [SKIP] action=%d would push hull into critical: %s -> %s%n",
+                        actionId, format(currentHull), format(currentHull + deltaHull)
+                );
+                return;
+            case ActionScorer.GUARD_CRITICAL_CREW:
+                System.out.printf(
+                        "    [SKIP] action=%d would reduce critical crew: dc=%s%n",
+                        actionId, format(deltaCrew)
+                );
+                return;
+            case ActionScorer.GUARD_INTO_CRITICAL_CREW:
+                System.out.printf(
+                        "    [SKIP] action=%d would push crew into critical: %s -> %s%n",
+                        actionId, format(currentCrew), format(currentCrew + deltaCrew)
+                );
+                return;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package be.thebeehive.htf.client.planner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel variant of the {@link BranchAndBoundPlanner}.
+ * <p>
+ * The search tree is split by the first (and optionally second) action, and every subtree is
+ * searched as a task in a {@link ForkJoinPool}. The best score found so far is shared between
+ * all tasks so subtrees prune one another.
+ * <p>
+ * The result is identical to the sequential search: a subtree is only pruned by the shared
+ * bound when it cannot reach that score at all, so every subtree containing the best score
+ * still returns its first best plan, and equally good plans are then resolved in the order
+ * the sequential search would have visited them.
+ */
+public class ParallelBranchAndBoundPlanner implements Planner {
+
+    // Below this many actions a sequential search is faster than forking
+    static final int SEQUENTIAL_THRESHOLD = 16;
+
+    private final ActionScorer scorer;
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final int maxSteps;
+
+    public ParallelBranchAndBoundPlanner() {
+        this(new ActionScorer());
+    }
+
+    public ParallelBranchAndBoundPlanner(ActionScorer scorer) {
+        this(scorer, ForkJoinPool.commonPool(), 1);
+    }
+
+    /**
+     * @param scorer     the scoring rules.
+     * @param pool       the pool the subtrees are searched in.
+     * @param splitDepth split the tree by the first action (1) or by the first two actions (2).
+     */
+    public ParallelBranchAndBoundPlanner(ActionScorer scorer, ForkJoinPool pool, int splitDepth) {
+        if (splitDepth < 1 || splitDepth > ActionScorer.MAX_ACTIONS_PER_ROUND) {
+            throw new IllegalArgumentException("splitDepth must be between 1 and "
+                    + ActionScorer.MAX_ACTIONS_PER_ROUND + ": " + splitDepth);
+        }
+        this.scorer = scorer;
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        this.maxSteps = ActionScorer.MAX_ACTIONS_PER_ROUND;
+    }
+
+    @Override
+    public List<Long> plan(PlanningRound round) {
+        SearchSpace space = new SearchSpace(scorer, round, maxSteps);
+
+        if (round.getActionCount() < SEQUENTIAL_THRESHOLD) {
+            PlanSearch search = new PlanSearch(space);
+            search.search();
+            return BranchAndBoundPlanner.toActionIds(round, search.getBestPath(), search.getBestLength());
+        }
+
+        Result result = pool.invoke(new SubtreeTask(space, new SharedBound(), new int[0], 0));
+        if (result == null) return Collections.emptyList();
+        return BranchAndBoundPlanner.toActionIds(round, result.path, result.length);
+    }
+
+    /**
+     * Searches every plan that starts with a fixed prefix of actions.
+     */
+    private final class SubtreeTask extends RecursiveTask<Result> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SearchSpace space;
+        private final SharedBound bound;
+        private final int[] prefix;
+        private final int length;
+
+        SubtreeTask(SearchSpace space, SharedBound bound, int[] prefix, int length) {
+            this.space = space;
+            this.bound = bound;
+            this.prefix = prefix;
+            this.length = length;
+        }
+
+        @Override
+        protected Result compute() {
+            // Subtrees forked before the round expired or was cancelled do not start searching
+            if (space.round.isExpired()) return null;
+
+            BoundedSearch search = new BoundedSearch(space, bound);
+            double score = search.follow(prefix, length);
+            if (Double.isNaN(score)) return null;
+
+            if (search.isDeadAt(length)) {
+                search.offer(score, length);
+                return Result.of(search);
+            }
+
+            if (length >= splitDepth || length == maxSteps) {
+                search.expand(length, score);
+                return Result.of(search);
+            }
+
+            // Stopping here comes first, then the subtrees in the order the sequential search visits them
+            search.offerStop(length, score);
+            Result best = Result.of(search);
+
+            List<SubtreeTask> subtrees = new ArrayList<>();
+            for (int action : search.candidates(length)) {
+                int[] childPrefix = Arrays.copyOf(prefix, length + 1);
+                childPrefix[length] = action;
+                subtrees.add(new SubtreeTask(space, bound, childPrefix, length + 1));
+            }
+            invokeAll(subtrees);
+
+            for (SubtreeTask subtree : subtrees) {
+                Result result = subtree.join();
+                if (result != null && result.score > best.score) {
+                    best = result;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * A search that also prunes against, and publishes to, the bound shared by all subtrees.
+     */
+    private static final class BoundedSearch extends PlanSearch {
+
+        private final SharedBound bound;
+
+        BoundedSearch(SearchSpace space, SharedBound bound) {
+            super(space);
+            this.bound = bound;
+        }
+
+        @Override
+        boolean isPruned(double upperBound) {
+            // Strictly below: an equally good plan in another subtree may still win the tie
+            return super.isPruned(upperBound)
+                    || upperBound + Math.abs(upperBound) * RELATIVE_SLACK < bound.get();
+        }
+
+        @Override
+        void offer(double score, int length) {
+            super.offer(score, length);
+            bound.raise(score);
+        }
+    }
+
+    private static final class SharedBound {
+
+        private final AtomicLong bits = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+
+        double get() {
+            return Double.longBitsToDouble(bits.get());
+        }
+
+        void raise(double score) {
+            long current;
+            do {
+                current = bits.get();
+                if (score <= Double.longBitsToDouble(current)) return;
+            } while (!bits.compareAndSet(current, Double.doubleToLongBits(score)));
+        }
+    }
+
+    private static final class Result {
+
+        final double score;
+        final int[] path;
+        final int length;
+
+        Result(double score, int[] path, int length) {
+            this.score = score;
+            this.path = path;
+            this.length = length;
+        }
+
+        static Result of(PlanSearch search) {
+            return new Result(search.getBestScore(), search.getBestPath().clone(), search.getBestLength());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.ClientUtils;
+import be.thebeehive.htf.client.PackedValues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dynamic-programming planner over the states the submarine can be in after every step.
+ * <p>
+ * Step by step, every kept partial plan is extended with every unused action, with the effect
+ * timing of {@link PlanSearch}. A partial plan is dropped when another one reached a state at
+ * least as good in all four values, removed the same pending effects and used no action the dropped
+ * one did not use: {@link ClientUtils#sumValues} is monotone in every value, and every action the
+ * dropped plan can still take is still free for the other one, so whatever the dropped plan can
+ * still reach, the other one can match with the same actions. Of the resulting Pareto front only
+ * the {@code maxFront} plans with the best outcome are extended further.
+ * <p>
+ * Every partial plan is also a candidate that stops there, valued by the {@link StateUtility} of
+ * the state it ends in once the remaining effects have hit. Unlike the branch-and-bound planners
+ * the actions are not scored one by one and the survival guards do not apply: any plan is allowed,
+ * and dying costs {@link ActionScorer#FORBIDDEN_SCORE}. Among equally good plans the shortest one
+ * found first is returned. Planning stops at the round's deadline with the best plan found so far.
+ */
+public class ParetoPlanner implements Planner {
+
+    public static final int DEFAULT_MAX_FRONT = 128;
+
+    private final ActionScorer scorer;
+    private final StateUtility utility;
+    private final int maxFront;
+    private final int maxSteps;
+
+    public ParetoPlanner() {
+        this(new ActionScorer());
+    }
+
+    public ParetoPlanner(ActionScorer scorer) {
+        this(scorer, StateUtility.scored(scorer), DEFAULT_MAX_FRONT);
+    }
+
+    /**
+     * @param scorer   the scoring rules, only used for the effect schedule and counters.
+     * @param utility  values the end state of a plan.
+     * @param maxFront the number of non-dominated partial plans extended per step.
+     */
+    public ParetoPlanner(ActionScorer scorer, StateUtility utility, int maxFront) {
+        if (maxFront < 1) {
+            throw new IllegalArgumentException("maxFront must be positive: " + maxFront);
+        }
+        this.scorer = scorer;
+        this.utility = utility;
+        this.maxFront = maxFront;
+        this.maxSteps = ActionScorer.MAX_ACTIONS_PER_ROUND;
+    }
+
+    @Override
+    public List<Long> plan(PlanningRound round) {
+        Search search = new Search(new SearchSpace(scorer, round, maxSteps));
+        search.run();
+        return BranchAndBoundPlanner.toActionIds(round, search.bestPath, search.bestPath.length);
+    }
+
+    /**
+     * A partial plan and the state after its last step.
+     */
+    private static final class Node {
+
+        final int[] path;
+        // Actions on the path, an ActionBits bitset over action indices
+        final long[] used;
+        final PackedValues state;
+        // Effects removed by the plan, an ActionBits bitset over effect indices; shared when unchanged
+        final long[] removed;
+        // Utility if the plan stops here
+        final double value;
+
+        Node(int[] path, long[] used, PackedValues state, long[] removed, double value) {
+            this.path = path;
+            this.used = used;
+            this.state = state;
+            this.removed = removed;
+            this.value = value;
+        }
+
+        boolean uses(int action) {
+            return ActionBits.get(used, action);
+        }
+
+        /**
+         * Whether this plan ended at least as well in every value and every action {@code other}
+         * can still take is free for this one too. Pending effects are compared separately.
+         */
+        boolean dominates(Node other) {
+            return ActionBits.containsAll(other.used, used)
+                    && state.getHullStrength() >= other.state.getHullStrength()
+                    && state.getMaxHullStrength() >= other.state.getMaxHullStrength()
+                    && state.getCrewHealth() >= other.state.getCrewHealth()
+                    && state.getMaxCrewHealth() >= other.state.getMaxCrewHealth();
+        }
+    }
+
+    /**
+     * The scratch state of planning one round.
+     */
+    private final class Search {
+
+        private final SearchSpace space;
+        private final PlanningRound round;
+        private final PackedValues start;
+        private final PackedValues scratch = new PackedValues();
+
+        private double bestValue = Double.NEGATIVE_INFINITY;
+        private int[] bestPath = new int[0];
+
+        Search(SearchSpace space) {
+            this.space = space;
+            this.round = space.round;
+            this.start = round.getStart();
+        }
+
+        void run() {
+            PackedValues rootState = new PackedValues().set(start);
+            long[] none = new long[ActionBits.words(space.effectValues.length)];
+            if (!applyEffects(rootState, none, 0, space.effectStart[1])) {
+                offer(new int[0], utility.value(start, rootState) + ActionScorer.FORBIDDEN_SCORE);
+                return;
+            }
+
+            Node root = new Node(new int[0], new long[ActionBits.words(space.actionValues.length)],
+                    rootState, none, stopValue(rootState, none, 1));
+            offer(root.path, root.value);
+
+            List<Node> front = Collections.singletonList(root);
+            for (int step = 1; step <= maxSteps && !front.isEmpty(); step++) {
+                List<Node> extended = new ArrayList<>();
+                for (Node node : front) {
+                    if (round.isExpired()) return;
+                    for (int action = 0; action < space.actionValues.length; action++) {
+                        if (space.actionValues[action] == null || node.uses(action)) continue;
+
+                        Node child = extend(node, action, step);
+                        if (child != null) extended.add(child);
+                    }
+                }
+                front = prune(extended, space.effectStart[Math.min(step + 1, maxSteps + 1)]);
+            }
+        }
+
+        /**
+         * Executes {@code action} at {@code step} after {@code node}, and offers the plan that stops there.
+         *
+         * @return the extended plan, or null if we die.
+         */
+        private Node extend(Node node, int action, int step) {
+            int[] path = Arrays.copyOf(node.path, node.path.length + 1);
+            path[node.path.length] = action;
+            long[] used = node.used.clone();
+            ActionBits.set(used, action);
+
+            long[] removed = node.removed;
+            for (int e : space.countered[action]) {
+                if (space.effectSteps[e] >= step && !ActionBits.get(removed, e)) {
+                    if (removed == node.removed) removed = removed.clone();
+                    ActionBits.set(removed, e);
+                }
+            }
+
+            PackedValues state = ClientUtils.sumValues(node.state, space.actionValues[action], new PackedValues());
+            if (ClientUtils.isDead(state)
+                    || !applyEffects(state, removed, space.effectStart[step], space.effectStart[step + 1])) {
+                offer(path, utility.value(start, state) + ActionScorer.FORBIDDEN_SCORE);
+                return null;
+            }
+
+            Node child = new Node(path, used, state, removed, stopValue(state, removed, step + 1));
+            offer(path, child.value);
+            return child;
+        }
+
+        /**
+         * Keeps the non-dominated plans, best outcome first, at most {@code maxFront} of them.
+         *
+         * @param pending the position in the effect order of the first effect still to hit.
+         */
+        private List<Node> prune(List<Node> nodes, int pending) {
+            // Stable, so equally good plans keep the order they were found in
+            nodes.sort((a, b) -> Double.compare(b.value, a.value));
+
+            List<Node> kept = new ArrayList<>();
+            for (Node node : nodes) {
+                if (kept.size() == maxFront) break;
+                if (!isDominated(node, kept, pending)) kept.add(node);
+            }
+            return kept;
+        }
+
+        private boolean isDominated(Node node, List<Node> kept, int pending) {
+            for (Node other : kept) {
+                if (other.dominates(node) && samePending(other.removed, node.removed, pending)) return true;
+            }
+            return false;
+        }
+
+        private boolean samePending(long[] a, long[] b, int pending) {
+            if (a == b) return true;
+            for (int pos = pending; pos < space.effectOrder.length; pos++) {
+                int e = space.effectOrder[pos];
+                if (ActionBits.get(a, e) != ActionBits.get(b, e)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * The utility of stopping in {@code state}: every effect from {@code step} on still hits.
+         */
+        private double stopValue(PackedValues state, long[] removed, int step) {
+            scratch.set(state);
+            int from = space.effectStart[Math.min(step, maxSteps + 1)];
+            boolean alive = applyEffects(scratch, removed, from, space.effectOrder.length);
+            return utility.value(start, scratch) + (alive ? 0d : ActionScorer.FORBIDDEN_SCORE);
+        }
+
+        /**
+         * Lets the effects at positions {@code [from, to)} of the effect order hit {@code state},
+         * skipping removed ones.
+         *
+         * @return false if we die.
+         */
+        private boolean applyEffects(PackedValues state, long[] removed, int from, int to) {
+            for (int pos = from; pos < to; pos++) {
+                int e = space.effectOrder[pos];
+                if (ActionBits.get(removed, e)) continue;
+
+                ClientUtils.sumValues(state, space.effectValues[e], state);
+                if (ClientUtils.isDead(state)) return false;
+            }
+            return true;
+        }
+
+        private void offer(int[] path, double value) {
+            if (value > bestValue) {
+                bestValue = value;
+                bestPath = path;
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.ClientUtils;
+import be.thebeehive.htf.client.PackedValues;
+
+import java.util.Arrays;
+
+/**
+ * Depth-first branch-and-bound over the ordered action sequences of a round.
+ * <p>
+ * A plan is worth the sum of {@link ActionScorer#scoreAction} of its actions, each scored against
+ * the state it is executed in, plus {@link ActionScorer#weightedDamage} of every harmful effect
+ * that is not removed, scored against the state it hits. Dying costs
+ * {@link ActionScorer#FORBIDDEN_SCORE} and ends the plan.
+ * <p>
+ * Effect timing: at step {@code s} the {@code s}-th action is executed first, then the effects of
+ * step {@code s} that were not removed hit. An action removes the effects whose id equals its
+ * {@code effectId} and that have not hit yet. Effects after the last step still hit in order.
+ * <p>
+ * The same rules as the greedy planner decide which actions may be taken: an action removing a
+ * pending harmful effect must not kill us and must keep the crew reserve unless that effect would
+ * kill us; any other action needs a strictly positive score and must pass the survival guards.
+ * <p>
+ * The search stops early once the round's deadline has passed, keeping the best plan found so far.
+ * Instances hold the scratch state of one search and are not thread-safe.
+ */
+class PlanSearch {
+
+    // Scores are sums of doubles, keep a margin so rounding never prunes a better plan
+    static final double RELATIVE_SLACK = 1e-9;
+
+    // Number of nodes between two deadline checks, minus one
+    private static final long DEADLINE_CHECK_MASK = 1023;
+
+    final SearchSpace space;
+
+    private final PackedValues[] states;
+    private final PackedValues scratch;
+    private final long[] used;
+    private final int[] counteredAt;
+    private final int[] path;
+
+    private double bestScore = Double.NEGATIVE_INFINITY;
+    private final int[] bestPath;
+    private int bestLength;
+    private long nodes;
+    private boolean aborted;
+
+    PlanSearch(SearchSpace space) {
+        this.space = space;
+        this.states = new PackedValues[space.maxSteps + 1];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new PackedValues();
+        }
+        this.scratch = new PackedValues();
+        this.used = new long[ActionBits.words(space.actionValues.length)];
+        this.counteredAt = new int[space.effectValues.length];
+        Arrays.fill(counteredAt, -1);
+        this.path = new int[space.maxSteps];
+        this.bestPath = new int[space.maxSteps];
+    }
+
+    /**
+     * Searches every sequence, starting from the round's start state.
+     */
+    void search() {
+        double score = prepareRoot();
+        if (ClientUtils.isDead(states[0])) {
+            offer(score, 0);
+            return;
+        }
+        expand(0, score);
+    }
+
+    /**
+     * Applies the effects that hit before the first step to the root state.
+     *
+     * @return the score of the root state.
+     */
+    double prepareRoot() {
+        states[0].set(space.round.getStart());
+        return applyEffects(states[0], 0, space.effectStart[1]);
+    }
+
+    /**
+     * Considers stopping at {@code depth} and every extension of the current path.
+     */
+    void expand(int depth, double score) {
+        // Also checked at the first node, so a search started on an expired round stops right away
+        if ((nodes++ & DEADLINE_CHECK_MASK) == 0 && space.round.isExpired()) {
+            aborted = true;
+        }
+        if (aborted) return;
+        offerStop(depth, score);
+        if (depth == space.maxSteps) return;
+
+        int step = depth + 1;
+        PackedValues state = states[depth];
+        int remaining = space.maxSteps - depth;
+        SearchSpace.RankedActions ranked = space.rankedFor(state, step, remaining);
+        double topRemaining = ranked.topSum(used, remaining);
+        if (isPruned(score + topRemaining)) return;
+        double topAfterThis = ranked.topSum(used, remaining - 1);
+
+        int betterCount = 0;
+        for (int pos = 0; pos < ranked.order.length; pos++) {
+            int action = ranked.order[pos];
+            if (ActionBits.get(used, action)) continue;
+
+            double optimistic = ranked.optimistic[pos];
+            boolean inTop = optimistic > 0d && betterCount < remaining - 1;
+            if (optimistic > 0d) betterCount++;
+
+            // Candidates are ordered by optimistic score, no later one can do better either
+            double upper = inTop ? score + topRemaining : score + optimistic + topAfterThis;
+            if (isPruned(upper)) break;
+
+            tryAction(depth, score, action, inTop ? topRemaining - optimistic : topAfterThis);
+            if (aborted) return;
+        }
+    }
+
+    /**
+     * Offers the plan that stops after the current path of length {@code depth}:
+     * every remaining effect hits in order.
+     */
+    void offerStop(int depth, double score) {
+        scratch.set(states[depth]);
+        int from = space.effectStart[Math.min(depth + 1, space.maxSteps + 1)];
+        offer(score + applyEffects(scratch, from, space.effectOrder.length), depth);
+    }
+
+    /**
+     * Follows a fixed prefix of actions from the root, so the search can continue below it.
+     *
+     * @return the score after the prefix, or NaN if the rules do not allow it.
+     */
+    double follow(int[] prefix, int length) {
+        double score = prepareRoot();
+        for (int depth = 0; depth < length; depth++) {
+            if (ClientUtils.isDead(states[depth])) return Double.NaN;
+
+            PackedValues state = states[depth];
+            double actionScore = space.scorer.scoreAction(space.actionValues[prefix[depth]], state.getHullStrength(), state.getCrewHealth());
+            score = enter(depth, score, prefix[depth], actionScore);
+            if (Double.isNaN(score)) return score;
+        }
+        return score;
+    }
+
+    /**
+     * The candidate actions below the current path of length {@code depth}, in search order.
+     */
+    int[] candidates(int depth) {
+        SearchSpace.RankedActions ranked = space.rankedFor(states[depth], depth + 1, space.maxSteps - depth);
+        int[] result = new int[ranked.order.length];
+        int count = 0;
+        for (int action : ranked.order) {
+            if (!ActionBits.get(used, action)) result[count++] = action;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    boolean isDeadAt(int depth) {
+        return ClientUtils.isDead(states[depth]);
+    }
+
+    /**
+     * Executes {@code action} at {@code depth} if the rules allow it and searches its extensions.
+     */
+    void tryAction(int depth, double score, int action, double boundAfter) {
+        PackedValues state = states[depth];
+        double actionScore = space.scorer.scoreAction(space.actionValues[action], state.getHullStrength(), state.getCrewHealth());
+        if (isPruned(score + Math.max(actionScore, 0d) + boundAfter)) return;
+
+        double nextScore = enter(depth, score, action, actionScore);
+        if (Double.isNaN(nextScore)) return;
+
+        if (ClientUtils.isDead(states[depth + 1])) {
+            offer(nextScore, depth + 1);
+        } else {
+            expand(depth + 1, nextScore);
+        }
+        leave(depth, action);
+    }
+
+    /**
+     * Executes {@code action} at {@code depth}: checks the rules, applies the action and the
+     * effects of its step, and records it on the current path. Undo with {@link #leave}.
+     *
+     * @return the score after this step, or NaN if the rules do not allow the action.
+     */
+    double enter(int depth, double score, int action, double actionScore) {
+        int step = depth + 1;
+        PackedValues state = states[depth];
+        PackedValues delta = space.actionValues[action];
+        ActionScorer scorer = space.scorer;
+
+        boolean removesHarmful = false;
+        boolean removesLethal = false;
+        for (int e : space.countered[action]) {
+            if (counteredAt[e] < 0 && space.effectSteps[e] >= step && ActionScorer.isHarmful(space.effectValues[e])) {
+                removesHarmful = true;
+                removesLethal |= ActionScorer.effectWouldKill(state, space.effectValues[e]);
+            }
+        }
+
+        if (!removesHarmful) {
+            if (actionScore <= 0d) return Double.NaN;
+            if (scorer.survivalGuard(delta, state.getHullStrength(), state.getCrewHealth()) != ActionScorer.GUARD_NONE) {
+                return Double.NaN;
+            }
+        }
+
+        PackedValues next = ClientUtils.sumValues(state, delta, states[depth + 1]);
+        if (ClientUtils.isDead(next)) return Double.NaN;
+        if (removesHarmful && !removesLethal && next.getCrewHealth() < scorer.getCrewReserve()) return Double.NaN;
+
+        for (int e : space.countered[action]) {
+            if (counteredAt[e] < 0 && space.effectSteps[e] >= step) counteredAt[e] = depth;
+        }
+        ActionBits.set(used, action);
+        path[depth] = action;
+
+        return score + actionScore + applyEffects(next, space.effectStart[step], space.effectStart[step + 1]);
+    }
+
+    /**
+     * Undoes {@link #enter} for {@code action} at {@code depth}.
+     */
+    void leave(int depth, int action) {
+        ActionBits.clear(used, action);
+        for (int e : space.countered[action]) {
+            if (counteredAt[e] == depth) counteredAt[e] = -1;
+        }
+    }
+
+    /**
+     * Lets the effects at positions {@code [from, to)} of the effect order hit {@code state},
+     * skipping removed ones.
+     *
+     * @return the summed weighted damage, including the death penalty if we die.
+     */
+    private double applyEffects(PackedValues state, int from, int to) {
+        double score = 0d;
+        for (int pos = from; pos < to; pos++) {
+            int e = space.effectOrder[pos];
+            if (counteredAt[e] >= 0) continue;
+
+            PackedValues effect = space.effectValues[e];
+            score += space.scorer.weightedDamage(effect, state.getHullStrength(), state.getCrewHealth());
+            ClientUtils.sumValues(state, effect, state);
+            if (ClientUtils.isDead(state)) {
+                return score + ActionScorer.FORBIDDEN_SCORE;
+            }
+        }
+        return score;
+    }
+
+    boolean isPruned(double upperBound) {
+        return upperBound + Math.abs(upperBound) * RELATIVE_SLACK <= bestScore;
+    }
+
+    void offer(double score, int length) {
+        if (score > bestScore) {
+            bestScore = score;
+            bestLength = length;
+            System.arraycopy(path, 0, bestPath, 0, length);
+        }
+    }
+
+    double getBestScore() {
+        return bestScore;
+    }
+
+    int getBestLength() {
+        return bestLength;
+    }
+
+    int[] getBestPath() {
+        return bestPath;
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Whether the search stopped at the deadline before it was complete.
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+}
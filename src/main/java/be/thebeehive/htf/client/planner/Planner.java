@@ -0,0 +1,19 @@
+package be.thebeehive.htf.client.planner;
+
+import java.util.List;
+
+/**
+ * Chooses the actions to execute during a single round.
+ */
+public interface Planner {
+
+    /**
+     * Plans the actions for a round.
+     *
+     * @param round the packed round, our submarine is alive.
+     * @return the ids of the chosen actions in execution order, at most
+     *         {@link ActionScorer#MAX_ACTIONS_PER_ROUND} of them.
+     */
+    List<Long> plan(PlanningRound round);
+
+}
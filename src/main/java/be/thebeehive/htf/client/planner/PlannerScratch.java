@@ -0,0 +1,71 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.PackedValues;
+
+/**
+ * Reusable working memory of a planner, so planning a round allocates nothing once the arrays
+ * have grown to the largest round seen.
+ * <p>
+ * A scratch holds primitive arrays sized per round, mutable value slots for the simulated
+ * state, the {@link EffectRanking} of the harmful effects, the batch scores of the actions, the
+ * used actions as an {@link ActionBits} bitset, and the chosen actions as indices into the
+ * round's actions. It is not thread-safe; use {@link #forCurrentThread()} to get the
+ * one of the calling thread.
+ */
+public final class PlannerScratch {
+
+    private static final ThreadLocal<PlannerScratch> PER_THREAD = ThreadLocal.withInitial(PlannerScratch::new);
+
+    final PackedValues state = new PackedValues();
+    final PackedValues projected = new PackedValues();
+    final EffectRanking harmfulEffects = new EffectRanking();
+
+    long[] used = new long[0];
+    double[] actionScores = new double[0];
+    int[] actionGuards = new int[0];
+
+    private final int[] chosen = new int[ActionScorer.MAX_ACTIONS_PER_ROUND];
+    private int chosenCount;
+
+    /**
+     * The scratch of the calling thread.
+     */
+    public static PlannerScratch forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Prepares the scratch for a round: every action unused, no action chosen.
+     */
+    void reset(int actionCount) {
+        int words = ActionBits.words(actionCount);
+        if (used.length < words) {
+            used = new long[Math.max(words, used.length * 2)];
+        } else {
+            ActionBits.clearAll(used, actionCount);
+        }
+        if (actionScores.length < actionCount) {
+            int size = Math.max(actionCount, actionScores.length * 2);
+            actionScores = new double[size];
+            actionGuards = new int[size];
+        }
+        chosenCount = 0;
+    }
+
+    void choose(int action) {
+        ActionBits.set(used, action);
+        chosen[chosenCount++] = action;
+    }
+
+    /**
+     * The indices of the chosen actions, in execution order; only the first
+     * {@link #getChosenCount()} entries are valid.
+     */
+    public int[] getChosen() {
+        return chosen;
+    }
+
+    public int getChosenCount() {
+        return chosenCount;
+    }
+}
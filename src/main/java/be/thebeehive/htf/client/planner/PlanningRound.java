@@ -0,0 +1,292 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+import be.thebeehive.htf.library.protocol.server.EffectTable;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+
+import java.util.List;
+
+/**
+ * A single round as seen by the planners: the actions and effects in columnar form together
+ * with their values packed once, so planners never touch BigDecimals.
+ * <p>
+ * Actions and effects are addressed by their index in the round.
+ * An entry in {@link #getActionValues()} or {@link #getEffectValues()} is null
+ * when the corresponding action or effect (or its values) is missing.
+ * Which actions counter which effects is indexed once, see {@link #getCounterIndex()}; the
+ * server's action ids are mapped to indices and back by {@link #getActionIds()}.
+ * <p>
+ * Everything is built from the columnar form, {@link #getActionTable()} and
+ * {@link #getEffectTable()}, which planners also scan directly. When the decoder already produced
+ * the tables they are used as they are, and the protocol lists of {@link #getActions()} and
+ * {@link #getEffects()} are only built if asked for; otherwise the tables are built from the lists.
+ * <p>
+ * A round read from a message knows its number and the next checkpoint, for planners that look
+ * beyond the current round.
+ * <p>
+ * A round can carry a deadline; planners that search for a long time stop once it has passed, or
+ * once the round has been {@link #cancel cancelled}.
+ */
+public class PlanningRound {
+
+    private final PackedValues start;
+    private volatile List<GameRoundServerMessage.Action> actions;
+    private final PackedValues[] actionValues;
+    private final ActionTable actionTable;
+    private volatile List<GameRoundServerMessage.Effect> effects;
+    private final PackedValues[] effectValues;
+    private final EffectTable effectTable;
+    private final ActionIds actionIds;
+    private final CounterIndex counterIndex;
+    private final long deadline;
+    private volatile boolean cancelled;
+    private int roundedValues;
+
+    private long round = -1L;
+    private long checkpointRound = -1L;
+    private PackedValues checkpointValues;
+
+    public PlanningRound(PackedValues start,
+                         List<GameRoundServerMessage.Action> actions,
+                         List<GameRoundServerMessage.Effect> effects) {
+        this(start, actions, effects, null, null);
+    }
+
+    /**
+     * @param actions     the actions, or null to build them from {@code actionTable} when asked for.
+     * @param effects     the effects, or null to build them from {@code effectTable} when asked for.
+     * @param actionTable the actions in columnar form, or null to build it from {@code actions}.
+     * @param effectTable the effects in columnar form, or null to build it from {@code effects}.
+     */
+    public PlanningRound(PackedValues start,
+                         List<GameRoundServerMessage.Action> actions,
+                         List<GameRoundServerMessage.Effect> effects,
+                         ActionTable actionTable,
+                         EffectTable effectTable) {
+        this.start = start;
+        this.actions = actions;
+        this.effects = effects;
+        this.actionTable = actionTable != null && (actions == null || actionTable.size() == actions.size())
+                ? actionTable : ActionTable.of(actions);
+        this.effectTable = effectTable != null && (effects == null || effectTable.size() == effects.size())
+                ? effectTable : EffectTable.of(effects);
+        this.actionValues = packActions(this.actionTable);
+        this.effectValues = packEffects(this.effectTable);
+        this.actionIds = new ActionIds(this.actionTable);
+        this.counterIndex = new CounterIndex(this.actionTable, this.effectTable);
+        this.deadline = Long.MAX_VALUE;
+        this.roundedValues = this.actionTable.getRoundedValues() + this.effectTable.getRoundedValues();
+    }
+
+    private PlanningRound(PlanningRound other, long deadline) {
+        this.start = other.start;
+        this.actions = other.actions;
+        this.actionValues = other.actionValues;
+        this.actionTable = other.actionTable;
+        this.effects = other.effects;
+        this.effectValues = other.effectValues;
+        this.effectTable = other.effectTable;
+        this.actionIds = other.actionIds;
+        this.counterIndex = other.counterIndex;
+        this.deadline = deadline;
+        this.round = other.round;
+        this.checkpointRound = other.checkpointRound;
+        this.checkpointValues = other.checkpointValues;
+        this.roundedValues = other.roundedValues;
+    }
+
+    /**
+     * Packs the state of our submarine and all actions and effects of a round. The protocol lists of
+     * a round decoded in columnar form are left alone. Values with more than
+     * {@link PackedValues#SCALE_DIGITS} fractional digits are rounded toward more harm and counted
+     * in {@link #getRoundedValues()}.
+     *
+     * @param msg the round received from the server.
+     * @return the packed round.
+     */
+    public static PlanningRound of(GameRoundServerMessage msg) {
+        ActionTable actionTable = msg.getActionTable();
+        EffectTable effectTable = msg.getEffectTable();
+        PlanningRound round = new PlanningRound(
+                PackedValues.of(msg.getOurSubmarine().getValues()),
+                actionTable != null ? null : msg.getActions(),
+                effectTable != null ? null : msg.getEffects(),
+                actionTable,
+                effectTable
+        );
+        round.round = msg.getRound();
+        round.roundedValues += ActionTable.countInexact(msg.getOurSubmarine().getValues());
+        GameRoundServerMessage.Checkpoint checkpoint = msg.getNextCheckpoint();
+        if (checkpoint != null && checkpoint.getValues() != null) {
+            round.checkpointRound = checkpoint.getRound();
+            round.checkpointValues = PackedValues.of(checkpoint.getValues());
+            round.roundedValues += ActionTable.countInexact(checkpoint.getValues());
+        }
+        return round;
+    }
+
+    private static PackedValues[] packActions(ActionTable table) {
+        PackedValues[] packed = new PackedValues[table.size()];
+        for (int i = 0; i < packed.length; i++) {
+            if (table.isPresent(i)) {
+                packed[i] = new PackedValues(
+                        table.getHullStrength()[i],
+                        table.getMaxHullStrength()[i],
+                        table.getCrewHealth()[i],
+                        table.getMaxCrewHealth()[i]
+                );
+            }
+        }
+        return packed;
+    }
+
+    private static PackedValues[] packEffects(EffectTable table) {
+        PackedValues[] packed = new PackedValues[table.size()];
+        for (int i = 0; i < packed.length; i++) {
+            if (table.isPresent(i)) {
+                packed[i] = new PackedValues(
+                        table.getHullStrength()[i],
+                        table.getMaxHullStrength()[i],
+                        table.getCrewHealth()[i],
+                        table.getMaxCrewHealth()[i]
+                );
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Returns the same round with a deadline.
+     *
+     * @param deadline the deadline as a {@link System#nanoTime()} value.
+     * @return a PlanningRound sharing all data with this one.
+     */
+    public PlanningRound withDeadline(long deadline) {
+        return new PlanningRound(this, deadline);
+    }
+
+    /**
+     * Whether the deadline of this round has passed, or the round was cancelled. A round without
+     * deadline only expires when cancelled.
+     */
+    public boolean isExpired() {
+        return cancelled || (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0);
+    }
+
+    /**
+     * Expires this round right away, e.g. because a newer round arrived. Planners searching it
+     * stop at their next deadline check. Only affects this instance, not rounds sharing its data.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Whether any effect of this round damages hull or crew.
+     */
+    public boolean hasHarmfulEffect() {
+        for (PackedValues v : this.effectValues) {
+            if (ActionScorer.isHarmful(v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public PackedValues getStart() {
+        return start;
+    }
+
+    /**
+     * The number of this round, or -1 if the round was not read from a message.
+     */
+    public long getRound() {
+        return round;
+    }
+
+    /**
+     * The number of values of this round that could not be packed exactly and were rounded toward
+     * more harm, see {@link ActionTable#packFloor(java.math.BigDecimal)}.
+     */
+    public int getRoundedValues() {
+        return roundedValues;
+    }
+
+    /**
+     * The round of the next checkpoint, see {@link GameRoundServerMessage.Checkpoint#getRound()},
+     * or -1 if unknown.
+     */
+    public long getCheckpointRound() {
+        return checkpointRound;
+    }
+
+    /**
+     * The values the next checkpoint adds, or null if unknown.
+     */
+    public PackedValues getCheckpointValues() {
+        return checkpointValues;
+    }
+
+    /**
+     * The protocol actions, built from the {@link #getActionTable()} on first access if the round
+     * was created without them. Planners use the table instead.
+     */
+    public List<GameRoundServerMessage.Action> getActions() {
+        List<GameRoundServerMessage.Action> result = actions;
+        if (result == null) {
+            actions = result = actionTable.toActions();
+        }
+        return result;
+    }
+
+    public PackedValues[] getActionValues() {
+        return actionValues;
+    }
+
+    public ActionTable getActionTable() {
+        return actionTable;
+    }
+
+    /**
+     * The protocol effects, built from the {@link #getEffectTable()} on first access if the round
+     * was created without them. Planners use the table instead.
+     */
+    public List<GameRoundServerMessage.Effect> getEffects() {
+        List<GameRoundServerMessage.Effect> result = effects;
+        if (result == null) {
+            effects = result = effectTable.toEffects();
+        }
+        return result;
+    }
+
+    public PackedValues[] getEffectValues() {
+        return effectValues;
+    }
+
+    public EffectTable getEffectTable() {
+        return effectTable;
+    }
+
+    /**
+     * The server's ids of the actions, by index.
+     */
+    public ActionIds getActionIds() {
+        return actionIds;
+    }
+
+    /**
+     * The actions countering each effect id, and the effects carrying it.
+     */
+    public CounterIndex getCounterIndex() {
+        return counterIndex;
+    }
+
+    public int getActionCount() {
+        return actionValues.length;
+    }
+
+    public int getEffectCount() {
+        return effectValues.length;
+    }
+}
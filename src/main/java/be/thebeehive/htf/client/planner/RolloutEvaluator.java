@@ -0,0 +1,313 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.ClientUtils;
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+import be.thebeehive.htf.library.protocol.server.EffectTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Estimates how long we survive after a plan by Monte Carlo rollouts over random future rounds.
+ * <p>
+ * Every candidate plan is played through the current round with the rules of the server. Each
+ * rollout then generates up to {@code horizon} random rounds from a {@link RoundDistribution}
+ * and plays them with a cheap default policy: the {@link ActionScorer#MAX_ACTIONS_PER_ROUND}
+ * best actions by {@link ActionScorer#scoreAction}, an action countering a harmful effect also
+ * earning the damage it prevents, and other actions only if they pass the survival guards. The
+ * next checkpoint of the round is added when it is reached.
+ * <p>
+ * All candidates of a rollout play the same random rounds, so differences between candidates are
+ * not drowned in the noise of the rounds. The random rounds of rollout {@code i} only depend on
+ * the seed, the round number and {@code i}, so the estimates are reproducible however the
+ * rollouts are spread over the pool.
+ * <p>
+ * The rollouts are split into at most {@code parallelism} tasks on the pool. Every task checks
+ * the round's deadline before each rollout, and the estimates are computed from the rollouts
+ * that completed. Instances are immutable and can be shared between planners.
+ */
+public class RolloutEvaluator {
+
+    public static final int DEFAULT_ROLLOUTS = 64;
+    public static final int DEFAULT_HORIZON = 20;
+
+    private final ActionScorer scorer;
+    private final ExecutorService pool;
+    private final int parallelism;
+    private final int rollouts;
+    private final int horizon;
+    private final long seed;
+
+    public RolloutEvaluator(ActionScorer scorer) {
+        this(scorer, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), DEFAULT_ROLLOUTS, DEFAULT_HORIZON, 1L);
+    }
+
+    /**
+     * @param scorer      the scoring rules of the default policy.
+     * @param pool        the pool the rollouts run in.
+     * @param parallelism the maximum number of tasks per evaluation.
+     * @param rollouts    the number of rollouts per evaluation.
+     * @param horizon     the number of future rounds per rollout.
+     * @param seed        the seed of the random rounds.
+     */
+    public RolloutEvaluator(ActionScorer scorer, ExecutorService pool, int parallelism, int rollouts, int horizon, long seed) {
+        if (parallelism < 1 || rollouts < 1 || horizon < 1) {
+            throw new IllegalArgumentException("parallelism, rollouts and horizon must be positive: "
+                    + parallelism + ", " + rollouts + ", " + horizon);
+        }
+        this.scorer = scorer;
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.rollouts = rollouts;
+        this.horizon = horizon;
+        this.seed = seed;
+    }
+
+    public int getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Estimates the expected number of rounds survived with every plan: the current round counts
+     * as one if the plan survives it, plus every random round survived, so the estimate lies
+     * between 0 and {@code 1 + horizon}. Without completed rollouts, e.g. when the deadline has
+     * passed or the distribution is empty, only the current round is counted.
+     *
+     * @param round        the current round.
+     * @param distribution the distribution the future rounds are generated from.
+     * @param plans        the candidate plans, as action ids in order.
+     * @return per plan the expected number of rounds survived.
+     */
+    public double[] evaluate(PlanningRound round, RoundDistribution distribution, List<List<Long>> plans) {
+        PackedValues[] ends = new PackedValues[plans.size()];
+        for (int p = 0; p < ends.length; p++) {
+            ends[p] = play(round, plans.get(p));
+        }
+
+        double[] expected = new double[ends.length];
+        for (int p = 0; p < ends.length; p++) {
+            expected[p] = ends[p] != null ? 1d : 0d;
+        }
+        if (distribution.isEmpty() || round.isExpired()) return expected;
+
+        int tasks = Math.min(parallelism, rollouts);
+        List<Callable<long[]>> batch = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int from = (int) ((long) rollouts * t / tasks);
+            int to = (int) ((long) rollouts * (t + 1) / tasks);
+            batch.add(() -> new Rollouts(round, distribution, ends).run(from, to));
+        }
+
+        // Per plan the rounds survived over all rollouts, followed by the number of rollouts
+        long[] total = new long[ends.length + 1];
+        try {
+            for (Future<long[]> future : pool.invokeAll(batch)) {
+                long[] partial = future.get();
+                for (int i = 0; i < total.length; i++) {
+                    total[i] += partial[i];
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return expected;
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Rollout failed", ex.getCause());
+        }
+
+        long completed = total[ends.length];
+        if (completed == 0) return expected;
+        for (int p = 0; p < ends.length; p++) {
+            if (ends[p] != null) expected[p] += (double) total[p] / completed;
+        }
+        return expected;
+    }
+
+    /**
+     * Plays a plan through the current round as the server does.
+     *
+     * @return the state at the end of the round, or null if we die.
+     */
+    private static PackedValues play(PlanningRound round, List<Long> plan) {
+        ActionTable actions = round.getActionTable();
+        EffectTable effects = round.getEffectTable();
+        PackedValues[] actionValues = round.getActionValues();
+        PackedValues[] effectValues = round.getEffectValues();
+        boolean[] removed = new boolean[effectValues.length];
+
+        PackedValues state = new PackedValues().set(round.getStart());
+        for (int step = 1; step <= ActionScorer.MAX_ACTIONS_PER_ROUND; step++) {
+            int action = step <= plan.size() ? round.getActionIds().indexOf(plan.get(step - 1)) : -1;
+            if (action >= 0 && actionValues[action] != null) {
+                ClientUtils.sumValues(state, actionValues[action], state);
+                if (ClientUtils.isDead(state)) return null;
+
+                long effectId = actions.getEffectId()[action];
+                for (int e = 0; e < effectValues.length; e++) {
+                    if (effectId != -1L && effects.getId()[e] == effectId && effects.getStep()[e] >= step) removed[e] = true;
+                }
+            }
+            for (int e = 0; e < effectValues.length; e++) {
+                if (effectValues[e] == null || removed[e] || effects.getStep()[e] != step) continue;
+
+                ClientUtils.sumValues(state, effectValues[e], state);
+                if (ClientUtils.isDead(state)) return null;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Seeds rollout {@code i} of a round with a mix of the seed, the round number and {@code i}.
+     */
+    private long seedOf(long round, int i) {
+        long z = seed + round * 0x9E3779B97F4A7C15L + i * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The scratch state of one task, running a range of rollouts.
+     */
+    private final class Rollouts {
+
+        private final PlanningRound round;
+        private final RoundDistribution distribution;
+        private final PackedValues[] ends;
+
+        private final RoundDistribution.SampledRound sampled = new RoundDistribution.SampledRound();
+        private final PackedValues[] states;
+        private final int[] chosen = new int[ActionScorer.MAX_ACTIONS_PER_ROUND];
+        private double[] scores = new double[0];
+        private boolean[] removed = new boolean[0];
+
+        Rollouts(PlanningRound round, RoundDistribution distribution, PackedValues[] ends) {
+            this.round = round;
+            this.distribution = distribution;
+            this.ends = ends;
+            this.states = new PackedValues[ends.length];
+            for (int p = 0; p < states.length; p++) {
+                states[p] = new PackedValues();
+            }
+        }
+
+        /**
+         * Runs the rollouts {@code [from, to)}, until the deadline.
+         *
+         * @return per plan the rounds survived, followed by the number of completed rollouts.
+         */
+        long[] run(int from, int to) {
+            long[] survived = new long[ends.length + 1];
+            for (int i = from; i < to && !round.isExpired(); i++) {
+                rollout(i, survived);
+                survived[ends.length]++;
+            }
+            return survived;
+        }
+
+        private void rollout(int i, long[] survived) {
+            int living = 0;
+            for (int p = 0; p < ends.length; p++) {
+                if (ends[p] == null) continue;
+                states[p].set(ends[p]);
+                living++;
+            }
+
+            SplittableRandom random = new SplittableRandom(seedOf(round.getRound(), i));
+            for (int r = 1; r <= horizon && living > 0; r++) {
+                long number = round.getRound() + r;
+                distribution.sample(number, random, sampled);
+                for (int p = 0; p < ends.length; p++) {
+                    if (ends[p] == null || ClientUtils.isDead(states[p])) continue;
+
+                    if (playRound(states[p])) {
+                        survived[p]++;
+                        if (number == round.getCheckpointRound() && round.getCheckpointValues() != null) {
+                            ClientUtils.sumValues(states[p], round.getCheckpointValues(), states[p]);
+                        }
+                    } else {
+                        living--;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Plays the sampled round with the default policy.
+         *
+         * @return false if we die; the state is then left dead.
+         */
+        private boolean playRound(PackedValues state) {
+            int count = choose(state);
+
+            int effects = sampled.getEffectCount();
+            if (removed.length < effects) removed = new boolean[effects];
+            for (int e = 0; e < effects; e++) {
+                removed[e] = false;
+            }
+
+            for (int step = 1; step <= ActionScorer.MAX_ACTIONS_PER_ROUND; step++) {
+                if (step <= count) {
+                    int action = chosen[step - 1];
+                    ClientUtils.sumValues(state, sampled.getActionValues(action), state);
+                    if (ClientUtils.isDead(state)) return false;
+
+                    int countered = sampled.getCountered(action);
+                    if (countered >= 0 && sampled.getEffectStep(countered) >= step) removed[countered] = true;
+                }
+                for (int e = 0; e < effects; e++) {
+                    if (removed[e] || sampled.getEffectStep(e) != step) continue;
+
+                    ClientUtils.sumValues(state, sampled.getEffectValues(e), state);
+                    if (ClientUtils.isDead(state)) return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Picks the best actions with a positive score against the state at the start of the round.
+         *
+         * @return the number of actions picked into {@link #chosen}.
+         */
+        private int choose(PackedValues state) {
+            long hull = state.getHullStrength();
+            long crew = state.getCrewHealth();
+            int actions = sampled.getActionCount();
+            if (scores.length < actions) scores = new double[actions];
+
+            for (int a = 0; a < actions; a++) {
+                PackedValues values = sampled.getActionValues(a);
+                int countered = sampled.getCountered(a);
+                if (countered >= 0 && ActionScorer.isHarmful(sampled.getEffectValues(countered))) {
+                    scores[a] = scorer.scoreAction(values, hull, crew)
+                            - scorer.weightedDamage(sampled.getEffectValues(countered), hull, crew);
+                } else if (scorer.survivalGuard(values, hull, crew) == ActionScorer.GUARD_NONE) {
+                    scores[a] = scorer.scoreAction(values, hull, crew);
+                } else {
+                    scores[a] = 0d;
+                }
+            }
+
+            int count = 0;
+            while (count < chosen.length) {
+                int best = -1;
+                for (int a = 0; a < actions; a++) {
+                    if (scores[a] > 0d && (best < 0 || scores[a] > scores[best])) best = a;
+                }
+                if (best < 0) break;
+
+                chosen[count++] = best;
+                scores[best] = 0d;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package be.thebeehive.htf.client.planner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Picks among the plans of other planners the one we are expected to survive longest with,
+ * estimated by a {@link RolloutEvaluator}.
+ * <p>
+ * Every round the candidate planners propose a plan each; identical plans are evaluated once.
+ * Among equally long expected survivals the plan of the earliest candidate wins, so the first
+ * candidate is the one followed unless the rollouts clearly favour another. Every round is added
+ * to the {@link RoundDistribution} before the rollouts, so a distribution learned from journals
+ * keeps learning from the game, and an empty one learns from the game alone.
+ * <p>
+ * The distribution and stateful candidates follow a single game, so an instance must not be
+ * shared between games; the evaluator can be.
+ */
+public class RolloutPlanner implements Planner {
+
+    private final List<Planner> candidates;
+    private final RolloutEvaluator evaluator;
+    private final RoundDistribution distribution;
+
+    /**
+     * @param candidates   the planners proposing the candidate plans, the preferred one first.
+     * @param evaluator    estimates the survival of the candidate plans.
+     * @param distribution the distribution the future rounds are generated from.
+     */
+    public RolloutPlanner(List<Planner> candidates, RolloutEvaluator evaluator, RoundDistribution distribution) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("At least one candidate planner is needed");
+        }
+        this.candidates = new ArrayList<>(candidates);
+        this.evaluator = evaluator;
+        this.distribution = distribution;
+    }
+
+    @Override
+    public List<Long> plan(PlanningRound round) {
+        distribution.add(round);
+
+        List<List<Long>> plans = new ArrayList<>(candidates.size());
+        for (Planner candidate : candidates) {
+            List<Long> plan = candidate.plan(round);
+            if (plan != null && !plans.contains(plan)) plans.add(plan);
+        }
+        if (plans.size() <= 1) return plans.isEmpty() ? Collections.<Long>emptyList() : plans.get(0);
+
+        double[] expected = evaluator.evaluate(round, distribution, plans);
+        int best = 0;
+        for (int p = 1; p < expected.length; p++) {
+            if (expected[p] > expected[best]) best = p;
+        }
+        return plans.get(best);
+    }
+}
@@ -0,0 +1,283 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.library.journal.JournalDirection;
+import be.thebeehive.htf.library.journal.SessionJournalReader;
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+import be.thebeehive.htf.library.protocol.server.EffectTable;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessageDecoder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Empirical distribution of the effects and actions of a round, learned from recorded rounds,
+ * for generating random future rounds.
+ * <p>
+ * Rounds get harder as a game goes on, so the rounds are kept in buckets of
+ * {@link #BUCKET_ROUNDS} consecutive round numbers. Per bucket the distribution keeps the number
+ * of effects and actions of every recorded round, every effect with its step, and every action
+ * with whether it counters an effect. A generated round draws its sizes from one recorded round
+ * and its effects and actions independently from the pools of the bucket; an action that counters
+ * an effect counters a random effect of the generated round, as the server does.
+ * <p>
+ * Rounds are {@link #add added} from a single thread. Once no more rounds are added, generating
+ * rounds is safe from any number of threads.
+ */
+public class RoundDistribution {
+
+    public static final int BUCKET_ROUNDS = 10;
+
+    private Bucket[] buckets = new Bucket[0];
+    private int rounds;
+
+    /**
+     * Learns the rounds received in every session journaled in a directory.
+     */
+    public static RoundDistribution learn(Path directory) throws IOException {
+        return learn(SessionJournalReader.segments(directory));
+    }
+
+    /**
+     * Learns the rounds received in the given journal segments. Frames that cannot be decoded
+     * are skipped.
+     */
+    public static RoundDistribution learn(List<Path> segments) throws IOException {
+        RoundDistribution distribution = new RoundDistribution();
+        ServerMessageDecoder decoder = new ServerMessageDecoder();
+        decoder.setColumnar(true);
+        try (SessionJournalReader reader = new SessionJournalReader(segments)) {
+            while (reader.next()) {
+                if (reader.getDirection() != JournalDirection.INBOUND) continue;
+
+                ServerMessage msg;
+                try {
+                    msg = decoder.decode(reader.getFrame());
+                } catch (IOException ex) {
+                    System.err.println("Skipping undecodable frame ...\n" + ex);
+                    continue;
+                }
+                if (msg instanceof GameRoundServerMessage) {
+                    distribution.add(PlanningRound.of((GameRoundServerMessage) msg));
+                }
+            }
+        }
+        return distribution;
+    }
+
+    /**
+     * Adds the effects and actions of a round. Rounds without a round number count as the first round.
+     */
+    public void add(PlanningRound round) {
+        Bucket bucket = bucketFor(bucketOf(round.getRound()));
+
+        EffectTable effects = round.getEffectTable();
+        int effectCount = 0;
+        for (int e = 0; e < effects.size(); e++) {
+            if (!effects.isPresent(e)) continue;
+            bucket.addEffect(effects.getStep()[e], effects.getHullStrength()[e], effects.getMaxHullStrength()[e],
+                    effects.getCrewHealth()[e], effects.getMaxCrewHealth()[e]);
+            effectCount++;
+        }
+
+        ActionTable actions = round.getActionTable();
+        int actionCount = 0;
+        for (int a = 0; a < actions.size(); a++) {
+            if (!actions.isPresent(a)) continue;
+            bucket.addAction(actions.getEffectId()[a] != -1L, actions.getHullStrength()[a], actions.getMaxHullStrength()[a],
+                    actions.getCrewHealth()[a], actions.getMaxCrewHealth()[a]);
+            actionCount++;
+        }
+
+        bucket.addRound(effectCount, actionCount);
+        rounds++;
+    }
+
+    /**
+     * The number of rounds added.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    public boolean isEmpty() {
+        return rounds == 0;
+    }
+
+    /**
+     * Generates a random round with the given round number into {@code target}. Uses the bucket of
+     * the round number, or the closest earlier bucket with rounds if it has none, or the first
+     * bucket with rounds.
+     *
+     * @throws IllegalStateException if no rounds were added.
+     */
+    public void sample(long round, SplittableRandom random, SampledRound target) {
+        Bucket bucket = null;
+        for (int b = Math.min(bucketOf(round), buckets.length - 1); b >= 0 && bucket == null; b--) {
+            bucket = buckets[b];
+        }
+        for (int b = 0; b < buckets.length && bucket == null; b++) {
+            bucket = buckets[b];
+        }
+        if (bucket == null) {
+            throw new IllegalStateException("No rounds to sample from");
+        }
+
+        int size = random.nextInt(bucket.rounds);
+        int effectCount = bucket.effectCounts[size];
+        int actionCount = bucket.actionCounts[size];
+        target.reset(effectCount, actionCount);
+
+        for (int e = 0; e < effectCount; e++) {
+            int i = random.nextInt(bucket.effects);
+            target.effectSteps[e] = bucket.effectSteps[i];
+            target.effectValues[e].set(bucket.effectValues[4 * i], bucket.effectValues[4 * i + 1],
+                    bucket.effectValues[4 * i + 2], bucket.effectValues[4 * i + 3]);
+        }
+        for (int a = 0; a < actionCount; a++) {
+            int i = random.nextInt(bucket.actions);
+            target.actionValues[a].set(bucket.actionValues[4 * i], bucket.actionValues[4 * i + 1],
+                    bucket.actionValues[4 * i + 2], bucket.actionValues[4 * i + 3]);
+            target.countered[a] = bucket.counters[i] && effectCount > 0 ? random.nextInt(effectCount) : -1;
+        }
+    }
+
+    private static int bucketOf(long round) {
+        return (int) Math.min(Math.max(round - 1L, 0L) / BUCKET_ROUNDS, Integer.MAX_VALUE);
+    }
+
+    private Bucket bucketFor(int index) {
+        if (index >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, index + 1);
+        }
+        if (buckets[index] == null) {
+            buckets[index] = new Bucket();
+        }
+        return buckets[index];
+    }
+
+    /**
+     * A generated round, reused from round to round. Only the first {@link #getEffectCount()}
+     * effects and {@link #getActionCount()} actions are valid.
+     */
+    public static final class SampledRound {
+
+        private int effectCount;
+        private int actionCount;
+
+        int[] effectSteps = new int[0];
+        PackedValues[] effectValues = new PackedValues[0];
+        PackedValues[] actionValues = new PackedValues[0];
+        // Per action the index of the effect it counters, or -1
+        int[] countered = new int[0];
+
+        void reset(int effectCount, int actionCount) {
+            this.effectCount = effectCount;
+            this.actionCount = actionCount;
+            if (effectValues.length < effectCount) {
+                effectSteps = new int[effectCount];
+                effectValues = grow(effectValues, effectCount);
+            }
+            if (actionValues.length < actionCount) {
+                countered = new int[actionCount];
+                actionValues = grow(actionValues, actionCount);
+            }
+        }
+
+        private static PackedValues[] grow(PackedValues[] values, int size) {
+            PackedValues[] result = Arrays.copyOf(values, size);
+            for (int i = values.length; i < size; i++) {
+                result[i] = new PackedValues();
+            }
+            return result;
+        }
+
+        public int getEffectCount() {
+            return effectCount;
+        }
+
+        public int getActionCount() {
+            return actionCount;
+        }
+
+        public int getEffectStep(int effect) {
+            return effectSteps[effect];
+        }
+
+        public PackedValues getEffectValues(int effect) {
+            return effectValues[effect];
+        }
+
+        public PackedValues getActionValues(int action) {
+            return actionValues[action];
+        }
+
+        /**
+         * The index of the effect the action counters, or -1.
+         */
+        public int getCountered(int action) {
+            return countered[action];
+        }
+    }
+
+    /**
+     * The recorded rounds of a range of round numbers, in growable primitive arrays.
+     */
+    private static final class Bucket {
+
+        int rounds;
+        int[] effectCounts = new int[8];
+        int[] actionCounts = new int[8];
+
+        int effects;
+        int[] effectSteps = new int[32];
+        // Hull, max hull, crew and max crew of every effect, back to back
+        long[] effectValues = new long[4 * 32];
+
+        int actions;
+        boolean[] counters = new boolean[64];
+        long[] actionValues = new long[4 * 64];
+
+        void addRound(int effectCount, int actionCount) {
+            if (rounds == effectCounts.length) {
+                effectCounts = Arrays.copyOf(effectCounts, rounds * 2);
+                actionCounts = Arrays.copyOf(actionCounts, rounds * 2);
+            }
+            effectCounts[rounds] = effectCount;
+            actionCounts[rounds] = actionCount;
+            rounds++;
+        }
+
+        void addEffect(int step, long hull, long maxHull, long crew, long maxCrew) {
+            if (effects == effectSteps.length) {
+                effectSteps = Arrays.copyOf(effectSteps, effects * 2);
+                effectValues = Arrays.copyOf(effectValues, effects * 8);
+            }
+            effectSteps[effects] = step;
+            put(effectValues, effects, hull, maxHull, crew, maxCrew);
+            effects++;
+        }
+
+        void addAction(boolean counter, long hull, long maxHull, long crew, long maxCrew) {
+            if (actions == counters.length) {
+                counters = Arrays.copyOf(counters, actions * 2);
+                actionValues = Arrays.copyOf(actionValues, actions * 8);
+            }
+            counters[actions] = counter;
+            put(actionValues, actions, hull, maxHull, crew, maxCrew);
+            actions++;
+        }
+
+        private static void put(long[] values, int i, long hull, long maxHull, long crew, long maxCrew) {
+            values[4 * i] = hull;
+            values[4 * i + 1] = maxHull;
+            values[4 * i + 2] = crew;
+            values[4 * i + 3] = maxCrew;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package be.thebeehive.htf.client.planner;
+
+/**
+ * Enum representing the tunable constants of the {@link ActionScorer}, with their default value
+ * and the range a tuner may search.
+ * <p>
+ * Thresholds are hull or crew values in whole units; the scorer packs them. Their ranges overlap,
+ * {@link ScorerParameters} keeps them ordered.
+ * Weights multiply packed values; bonuses are added to a weight when a threshold is crossed.
+ */
+public enum ScorerParameter {
+
+    CREW_RESERVE(100, 0, 500),
+    LOW_HULL(60000, 10000, 140000),
+    CRITICAL_HULL(30000, 0, 80000),
+    HEALTHY_HULL(120000, 40000, 250000),
+    LOW_CREW(700, 100, 1000),
+    CRITICAL_CREW(300, 0, 700),
+    HEALTHY_CREW(900, 300, 1500),
+
+    DAMAGE_HULL_WEIGHT(1.0, 0, 5),
+    DAMAGE_CREW_WEIGHT(2.0, 0, 8),
+    DAMAGE_LOW_HULL_BONUS(1.0, 0, 5),
+    DAMAGE_CRITICAL_HULL_BONUS(1.5, 0, 8),
+    DAMAGE_LOW_CREW_BONUS(2.0, 0, 8),
+    DAMAGE_CRITICAL_CREW_BONUS(3.0, 0, 10),
+
+    AGGRESSIVE_HULL_WEIGHT(1.0, 0, 5),
+    AGGRESSIVE_CREW_WEIGHT(1.5, 0, 5),
+    AGGRESSIVE_MAX_HULL_WEIGHT(1.6, 0, 5),
+    AGGRESSIVE_MAX_CREW_WEIGHT(1.2, 0, 5),
+
+    DEFENSIVE_HULL_WEIGHT(1.8, 0, 5),
+    DEFENSIVE_CREW_WEIGHT(2.2, 0, 5),
+    DEFENSIVE_MAX_HULL_WEIGHT(0.4, 0, 3),
+    DEFENSIVE_MAX_CREW_WEIGHT(0.3, 0, 3),
+    DEFENSIVE_LOW_HULL_BONUS(1.5, 0, 6),
+    DEFENSIVE_CRITICAL_HULL_BONUS(2.0, 0, 8),
+    DEFENSIVE_LOW_CREW_BONUS(2.0, 0, 8),
+    DEFENSIVE_CRITICAL_CREW_BONUS(3.0, 0, 10),
+    DEFENSIVE_CREW_LOSS_PENALTY(2.0, 0, 8),
+
+    HULL_RISK_BASE(1.0, 0, 5),
+    HULL_RISK_LOW_HULL_BONUS(1.0, 0, 5),
+    HULL_RISK_CRITICAL_HULL_BONUS(2.0, 0, 8);
+
+    private final double defaultValue;
+    private final double min;
+    private final double max;
+
+    ScorerParameter(double defaultValue, double min, double max) {
+        this.defaultValue = defaultValue;
+        this.min = min;
+        this.max = max;
+    }
+
+    public double getDefaultValue() {
+        return defaultValue;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Clamps a value to the range of this parameter.
+     */
+    public double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+}
@@ -0,0 +1,173 @@
+package be.thebeehive.htf.client.planner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * An immutable vector of {@link ScorerParameter} values, indexed by {@link ScorerParameter#ordinal()}.
+ * <p>
+ * Every value is kept within the range of its parameter, and the thresholds are kept ordered:
+ * {@code CRITICAL <= LOW <= HEALTHY} for hull and for crew, as the guards and bands of the
+ * {@link ActionScorer} assume. Thresholds given out of order are sorted, so every value given is
+ * still used as one of the thresholds. Parameters can be stored in and loaded from a properties file
+ * keyed by parameter name; missing parameters keep their default.
+ */
+public final class ScorerParameters {
+
+    private static final ScorerParameter[] PARAMETERS = ScorerParameter.values();
+
+    private static final ScorerParameters DEFAULTS = new ScorerParameters(defaultValues());
+
+    private final double[] values;
+
+    private ScorerParameters(double[] values) {
+        this.values = values;
+    }
+
+    /**
+     * The values the scorer was hand-tuned with.
+     */
+    public static ScorerParameters defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Creates parameters from a vector, clamping every value to the range of its parameter and
+     * ordering the thresholds.
+     *
+     * @param values one value per {@link ScorerParameter}, in declaration order.
+     */
+    public static ScorerParameters of(double[] values) {
+        if (values.length != PARAMETERS.length) {
+            throw new IllegalArgumentException("Expected " + PARAMETERS.length + " values, got " + values.length);
+        }
+        double[] clamped = new double[values.length];
+        for (int i = 0; i < clamped.length; i++) {
+            clamped[i] = PARAMETERS[i].clamp(values[i]);
+        }
+        return new ScorerParameters(orderThresholds(clamped));
+    }
+
+    public static int size() {
+        return PARAMETERS.length;
+    }
+
+    public double get(ScorerParameter parameter) {
+        return values[parameter.ordinal()];
+    }
+
+    /**
+     * Returns a copy with one parameter changed. A threshold moved past another one trades places
+     * with it.
+     */
+    public ScorerParameters with(ScorerParameter parameter, double value) {
+        double[] copy = values.clone();
+        copy[parameter.ordinal()] = parameter.clamp(value);
+        return new ScorerParameters(orderThresholds(copy));
+    }
+
+    /**
+     * A copy of the vector, one value per {@link ScorerParameter} in declaration order.
+     */
+    public double[] toArray() {
+        return values.clone();
+    }
+
+    public static ScorerParameters load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties, "");
+    }
+
+    public void store(Path file, String comment) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            toProperties("").store(writer, comment);
+        }
+    }
+
+    /**
+     * Reads the parameters whose keys start with {@code prefix}.
+     *
+     * @throws IllegalArgumentException if a value is not a number.
+     */
+    public static ScorerParameters fromProperties(Properties properties, String prefix) {
+        double[] result = defaultValues();
+        for (ScorerParameter parameter : PARAMETERS) {
+            String value = properties.getProperty(prefix + parameter.name());
+            if (value != null) {
+                try {
+                    result[parameter.ordinal()] = Double.parseDouble(value.trim());
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Invalid value for " + parameter + ": " + value, ex);
+                }
+            }
+        }
+        return of(result);
+    }
+
+    /**
+     * Writes every parameter under its name prefixed with {@code prefix}.
+     */
+    public Properties toProperties(String prefix) {
+        Properties properties = new Properties();
+        for (ScorerParameter parameter : PARAMETERS) {
+            properties.setProperty(prefix + parameter.name(), Double.toString(values[parameter.ordinal()]));
+        }
+        return properties;
+    }
+
+    /**
+     * Sorts the critical, low and healthy thresholds of hull and of crew. The sorted values stay in
+     * range: the ranges are ordered the same way, so at most one value lies below the range of the
+     * low threshold and at most one above it.
+     */
+    private static double[] orderThresholds(double[] values) {
+        sort(values, ScorerParameter.CRITICAL_HULL, ScorerParameter.LOW_HULL, ScorerParameter.HEALTHY_HULL);
+        sort(values, ScorerParameter.CRITICAL_CREW, ScorerParameter.LOW_CREW, ScorerParameter.HEALTHY_CREW);
+        return values;
+    }
+
+    private static void sort(double[] values, ScorerParameter critical, ScorerParameter low, ScorerParameter healthy) {
+        double[] thresholds = {values[critical.ordinal()], values[low.ordinal()], values[healthy.ordinal()]};
+        Arrays.sort(thresholds);
+        values[critical.ordinal()] = thresholds[0];
+        values[low.ordinal()] = thresholds[1];
+        values[healthy.ordinal()] = thresholds[2];
+    }
+
+    private static double[] defaultValues() {
+        double[] result = new double[PARAMETERS.length];
+        for (ScorerParameter parameter : PARAMETERS) {
+            result[parameter.ordinal()] = parameter.getDefaultValue();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ScorerParameters && Arrays.equals(values, ((ScorerParameters) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ScorerParameters{");
+        for (ScorerParameter parameter : PARAMETERS) {
+            if (parameter.ordinal() > 0) sb.append(", ");
+            sb.append(parameter.name()).append('=').append(values[parameter.ordinal()]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,324 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-round data shared by every search over the ordered action sequences of a round.
+ * <p>
+ * Besides the effect schedule and the counter relations, it provides optimistic score bounds.
+ * {@link ActionScorer#scoreAction} only depends on the state through comparisons against the
+ * hull and crew thresholds, so it is constant between consecutive thresholds. For every
+ * threshold {@code t} the values {@code t-1}, {@code t} and {@code t+1} are therefore enough to
+ * represent every possible state, and the best score of an action over a range of states is the
+ * best score over the representatives covering that range.
+ */
+final class SearchSpace {
+
+    final ActionScorer scorer;
+    final PlanningRound round;
+    final int maxSteps;
+
+    final PackedValues[] actionValues;
+    final PackedValues[] effectValues;
+    final int[] effectSteps;
+
+    /**
+     * For every action, the effects it removes when executed.
+     */
+    final int[][] countered;
+
+    /**
+     * Effects with values, sorted by step and index.
+     */
+    final int[] effectOrder;
+
+    /**
+     * For every step {@code s} in {@code [0, maxSteps + 1]}, the first position in
+     * {@link #effectOrder} of an effect that hits at step {@code s} or later.
+     */
+    final int[] effectStart;
+
+    private final long[] hullReps;
+    private final long[] crewReps;
+
+    // Sum of the k most extreme action deltas, for k in [0, maxSteps]
+    private final long[] actionHullLoss;
+    private final long[] actionHullGain;
+    private final long[] actionMaxHullLoss;
+    private final long[] actionCrewLoss;
+    private final long[] actionCrewGain;
+    private final long[] actionMaxCrewLoss;
+
+    // Sum of the deltas of all effects hitting at step s or later, for s in [0, maxSteps + 1]
+    private final long[] effectHullLoss;
+    private final long[] effectHullGain;
+    private final long[] effectMaxHullLoss;
+    private final long[] effectCrewLoss;
+    private final long[] effectCrewGain;
+    private final long[] effectMaxCrewLoss;
+
+    private final RankedActions[] ranked;
+
+    SearchSpace(ActionScorer scorer, PlanningRound round, int maxSteps) {
+        this.scorer = scorer;
+        this.round = round;
+        this.maxSteps = maxSteps;
+        this.actionValues = round.getActionValues();
+        this.effectValues = round.getEffectValues();
+
+        // A missing effect has step Integer.MAX_VALUE
+        this.effectSteps = Arrays.copyOf(round.getEffectTable().getStep(), effectValues.length);
+
+        this.countered = buildCountered(round.getActionTable(), round.getCounterIndex());
+        this.effectOrder = buildEffectOrder();
+        this.effectStart = new int[maxSteps + 2];
+        for (int s = 0, pos = 0; s <= maxSteps + 1; s++) {
+            while (pos < effectOrder.length && effectSteps[effectOrder[pos]] < s) pos++;
+            this.effectStart[s] = pos;
+        }
+
+        this.hullReps = representatives(scorer.getCriticalHull(), scorer.getLowHull(), scorer.getHealthyHull());
+        this.crewReps = representatives(scorer.getCriticalCrew(), scorer.getLowCrew(), scorer.getHealthyCrew());
+        this.ranked = new RankedActions[hullReps.length * hullReps.length * crewReps.length * crewReps.length];
+
+        this.actionHullLoss = extremeSums(Component.HULL, true);
+        this.actionHullGain = extremeSums(Component.HULL, false);
+        this.actionMaxHullLoss = extremeSums(Component.MAX_HULL, true);
+        this.actionCrewLoss = extremeSums(Component.CREW, true);
+        this.actionCrewGain = extremeSums(Component.CREW, false);
+        this.actionMaxCrewLoss = extremeSums(Component.MAX_CREW, true);
+
+        this.effectHullLoss = effectSums(Component.HULL, true);
+        this.effectHullGain = effectSums(Component.HULL, false);
+        this.effectMaxHullLoss = effectSums(Component.MAX_HULL, true);
+        this.effectCrewLoss = effectSums(Component.CREW, true);
+        this.effectCrewGain = effectSums(Component.CREW, false);
+        this.effectMaxCrewLoss = effectSums(Component.MAX_CREW, true);
+    }
+
+    /**
+     * Ranks the actions by their best possible score over every state reachable from {@code state}
+     * at step {@code step} within the next {@code remaining} actions.
+     */
+    RankedActions rankedFor(PackedValues state, int step, int remaining) {
+        int k = Math.max(remaining - 1, 0);
+        int s = Math.min(step, maxSteps + 1);
+
+        long maxHullLow = state.getMaxHullStrength() + actionMaxHullLoss[k] + effectMaxHullLoss[s];
+        long hullLow = Math.min(state.getHullStrength() + actionHullLoss[k] + effectHullLoss[s], maxHullLow);
+        long hullHigh = state.getHullStrength() + actionHullGain[k] + effectHullGain[s];
+
+        long maxCrewLow = state.getMaxCrewHealth() + actionMaxCrewLoss[k] + effectMaxCrewLoss[s];
+        long crewLow = Math.min(state.getCrewHealth() + actionCrewLoss[k] + effectCrewLoss[s], maxCrewLow);
+        long crewHigh = state.getCrewHealth() + actionCrewGain[k] + effectCrewGain[s];
+
+        int h1 = repIndex(hullReps, hullLow);
+        int h2 = repIndex(hullReps, hullHigh);
+        int c1 = repIndex(crewReps, crewLow);
+        int c2 = repIndex(crewReps, crewHigh);
+
+        int key = ((h1 * hullReps.length + h2) * crewReps.length + c1) * crewReps.length + c2;
+        RankedActions result = ranked[key];
+        if (result == null) {
+            // Benign race when searched from several threads: every thread computes the same ranking
+            result = rank(h1, h2, c1, c2);
+            ranked[key] = result;
+        }
+        return result;
+    }
+
+    private RankedActions rank(int h1, int h2, int c1, int c2) {
+        int n = actionValues.length;
+        double[] best = new double[n];
+        List<Integer> positive = new ArrayList<>();
+        List<Integer> counters = new ArrayList<>();
+
+        // Best score of every action over the representatives, one batch per representative
+        Arrays.fill(best, Double.NEGATIVE_INFINITY);
+        double[] scores = new double[n];
+        for (int h = h1; h <= h2; h++) {
+            for (int c = c1; c <= c2; c++) {
+                scorer.scoreAll(round.getActionTable(), hullReps[h], crewReps[c], scores, null);
+                for (int a = 0; a < n; a++) {
+                    best[a] = Math.max(best[a], scores[a]);
+                }
+            }
+        }
+
+        for (int a = 0; a < n; a++) {
+            if (actionValues[a] == null) continue;
+
+            double max = best[a];
+            if (max > 0) {
+                positive.add(a);
+            } else if (countered[a].length > 0) {
+                // Counters may be worth a negative score, they can only be bounded by zero
+                counters.add(a);
+            }
+        }
+
+        positive.sort((a, b) -> {
+            int byScore = Double.compare(best[b], best[a]);
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+
+        int[] order = new int[positive.size() + counters.size()];
+        double[] optimistic = new double[order.length];
+        int pos = 0;
+        for (int a : positive) {
+            order[pos] = a;
+            optimistic[pos++] = best[a];
+        }
+        for (int a : counters) {
+            order[pos] = a;
+            optimistic[pos++] = 0d;
+        }
+        return new RankedActions(order, optimistic);
+    }
+
+    private int[][] buildCountered(ActionTable actions, CounterIndex index) {
+        int[][] result = new int[actionValues.length][];
+        int[] none = new int[0];
+        long[] effectIds = actions.getEffectId();
+        for (int a = 0; a < result.length; a++) {
+            // A missing action has effectId -1
+            if (effectIds[a] == -1) {
+                result[a] = none;
+                continue;
+            }
+
+            int[] matches = index.effects(effectIds[a]);
+            int count = 0;
+            for (int e : matches) {
+                if (effectValues[e] != null) matches[count++] = e;
+            }
+            result[a] = count == 0 ? none : Arrays.copyOf(matches, count);
+        }
+        return result;
+    }
+
+    private int[] buildEffectOrder() {
+        List<Integer> order = new ArrayList<>();
+        for (int e = 0; e < effectValues.length; e++) {
+            if (effectValues[e] != null) order.add(e);
+        }
+        order.sort((a, b) -> {
+            int byStep = Integer.compare(effectSteps[a], effectSteps[b]);
+            return byStep != 0 ? byStep : Integer.compare(a, b);
+        });
+
+        int[] result = new int[order.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = order.get(i);
+        }
+        return result;
+    }
+
+    private long[] extremeSums(Component component, boolean losses) {
+        long[] deltas = new long[actionValues.length];
+        int count = 0;
+        for (PackedValues v : actionValues) {
+            if (v == null) continue;
+            long delta = component.of(v);
+            if (losses ? delta < 0 : delta > 0) deltas[count++] = losses ? delta : -delta;
+        }
+        Arrays.sort(deltas, 0, count);
+
+        long[] sums = new long[maxSteps + 1];
+        for (int k = 1; k <= maxSteps; k++) {
+            long next = k <= count ? deltas[k - 1] : 0L;
+            sums[k] = sums[k - 1] + (losses ? next : -next);
+        }
+        return sums;
+    }
+
+    private long[] effectSums(Component component, boolean losses) {
+        long[] sums = new long[maxSteps + 2];
+        for (int s = 0; s <= maxSteps + 1; s++) {
+            long sum = 0L;
+            for (int pos = effectStart[s]; pos < effectOrder.length; pos++) {
+                long delta = component.of(effectValues[effectOrder[pos]]);
+                if (losses ? delta < 0 : delta > 0) sum += delta;
+            }
+            sums[s] = sum;
+        }
+        return sums;
+    }
+
+    private static long[] representatives(long... thresholds) {
+        long[] reps = new long[thresholds.length * 3];
+        int i = 0;
+        for (long t : thresholds) {
+            reps[i++] = t - 1;
+            reps[i++] = t;
+            reps[i++] = t + 1;
+        }
+        Arrays.sort(reps);
+
+        int unique = 0;
+        for (int j = 0; j < reps.length; j++) {
+            if (j == 0 || reps[j] != reps[unique - 1]) reps[unique++] = reps[j];
+        }
+        return Arrays.copyOf(reps, unique);
+    }
+
+    /**
+     * Index of the representative with the same score behaviour as {@code value}.
+     */
+    private static int repIndex(long[] reps, long value) {
+        int index = 0;
+        while (index + 1 < reps.length && reps[index + 1] <= value) index++;
+        return index;
+    }
+
+    private enum Component {
+        HULL, MAX_HULL, CREW, MAX_CREW;
+
+        long of(PackedValues v) {
+            switch (this) {
+                case HULL:
+                    return v.getHullStrength();
+                case MAX_HULL:
+                    return v.getMaxHullStrength();
+                case CREW:
+                    return v.getCrewHealth();
+                default:
+                    return v.getMaxCrewHealth();
+            }
+        }
+    }
+
+    /**
+     * Candidate actions ordered by decreasing optimistic score. Actions that can never be chosen
+     * in the covered states are left out.
+     */
+    static final class RankedActions {
+
+        final int[] order;
+        final double[] optimistic;
+
+        RankedActions(int[] order, double[] optimistic) {
+            this.order = order;
+            this.optimistic = optimistic;
+        }
+
+        /**
+         * Sum of the {@code count} best optimistic scores among the unused actions.
+         */
+        double topSum(long[] used, int count) {
+            double sum = 0d;
+            for (int pos = 0; pos < order.length && count > 0; pos++) {
+                if (optimistic[pos] <= 0d) break;
+                if (ActionBits.get(used, order[pos])) continue;
+                sum += optimistic[pos];
+                count--;
+            }
+            return sum;
+        }
+    }
+}
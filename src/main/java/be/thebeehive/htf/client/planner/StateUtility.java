@@ -0,0 +1,44 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.PackedValues;
+
+/**
+ * Values the state a plan ends in, for planners that compare whole plans by their outcome.
+ * <p>
+ * Planners that prune dominated states assume the utility never decreases when one of the four
+ * values of the end state increases.
+ */
+public interface StateUtility {
+
+    /**
+     * @param start the state the round started in.
+     * @param end   the state after the plan and every effect of the round.
+     * @return how good the end state is, higher is better.
+     */
+    double value(PackedValues start, PackedValues end);
+
+    /**
+     * The change over the round valued with the weights of the {@link ActionScorer} in the band of
+     * the start state, see {@link ActionScorer#scoreChange}.
+     */
+    static StateUtility scored(ActionScorer scorer) {
+        return (start, end) -> scorer.scoreChange(
+                end.getHullStrength() - start.getHullStrength(),
+                end.getCrewHealth() - start.getCrewHealth(),
+                end.getMaxHullStrength() - start.getMaxHullStrength(),
+                end.getMaxCrewHealth() - start.getMaxCrewHealth(),
+                start.getHullStrength(),
+                start.getCrewHealth()
+        );
+    }
+
+    /**
+     * A fixed linear combination of the end state, independent of the start state.
+     */
+    static StateUtility weighted(double hull, double maxHull, double crew, double maxCrew) {
+        return (start, end) -> end.getHullStrength() * hull
+                + end.getMaxHullStrength() * maxHull
+                + end.getCrewHealth() * crew
+                + end.getMaxCrewHealth() * maxCrew;
+    }
+}
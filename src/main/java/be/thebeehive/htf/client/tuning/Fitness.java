@@ -0,0 +1,21 @@
+package be.thebeehive.htf.client.tuning;
+
+import be.thebeehive.htf.client.planner.ScorerParameters;
+
+/**
+ * Measures how well a set of scorer parameters plays. Higher is better.
+ * <p>
+ * Implementations are called from several threads at once.
+ */
+public interface Fitness {
+
+    /**
+     * Plays one sample, typically a single game, with the given parameters.
+     *
+     * @param parameters the parameters to evaluate.
+     * @param seed       the seed of the sample; every candidate of a generation gets the same seeds.
+     * @return the fitness of this sample.
+     */
+    double evaluate(ScorerParameters parameters, long seed) throws Exception;
+
+}
@@ -0,0 +1,363 @@
+package be.thebeehive.htf.client.tuning;
+
+import be.thebeehive.htf.client.planner.ScorerParameter;
+import be.thebeehive.htf.client.planner.ScorerParameters;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes {@link ScorerParameters} with a separable CMA-ES: an evolution strategy that adapts a
+ * step size and a per-parameter variance (a diagonal covariance matrix).
+ * <p>
+ * The search runs in normalized coordinates, where 0 and 1 are the bounds of each
+ * {@link ScorerParameter}; samples outside are clamped, and {@link ScorerParameters#of} sorts
+ * thresholds sampled out of order. Every generation samples
+ * {@link #getPopulationSize()} candidates, plays {@code samplesPerCandidate} samples of each with
+ * the {@link Fitness} in parallel, and moves towards the better half. All candidates of a
+ * generation are evaluated on the same seeds, so they are compared on the same games.
+ * <p>
+ * The complete state is written to the checkpoint file after every generation, and a tuner can
+ * be resumed from it. The random numbers of a generation only depend on the seed and the
+ * generation number, so a resumed run continues exactly as the interrupted one would have.
+ */
+public class ParameterTuner {
+
+    private static final double INITIAL_SIGMA = 0.2;
+
+    private final Fitness fitness;
+    private final int samplesPerCandidate;
+    private final long seed;
+
+    private final int n;
+    private final int lambda;
+    private final int mu;
+    private final double[] weights;
+    private final double mueff;
+    private final double cs;
+    private final double ds;
+    private final double cc;
+    private final double c1;
+    private final double cmu;
+    private final double chiN;
+
+    private int generation;
+    private double sigma;
+    private final double[] mean;
+    private final double[] diag;
+    private final double[] pc;
+    private final double[] ps;
+
+    private ScorerParameters best;
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+    private double lastMeanFitness = Double.NaN;
+
+    /**
+     * Starts a new run from the given parameters.
+     *
+     * @param fitness             evaluates the candidates.
+     * @param start               the parameters to start from, usually the defaults.
+     * @param samplesPerCandidate the number of samples (games) averaged per candidate.
+     * @param seed                the seed of the run.
+     */
+    public ParameterTuner(Fitness fitness, ScorerParameters start, int samplesPerCandidate, long seed) {
+        this.fitness = fitness;
+        this.samplesPerCandidate = samplesPerCandidate;
+        this.seed = seed;
+
+        this.n = ScorerParameters.size();
+        this.lambda = 4 + (int) (3 * Math.log(n));
+        this.mu = lambda / 2;
+
+        this.weights = new double[mu];
+        double sum = 0d;
+        for (int i = 0; i < mu; i++) {
+            weights[i] = Math.log(mu + 0.5) - Math.log(i + 1);
+            sum += weights[i];
+        }
+        double sumSquares = 0d;
+        for (int i = 0; i < mu; i++) {
+            weights[i] /= sum;
+            sumSquares += weights[i] * weights[i];
+        }
+        this.mueff = 1d / sumSquares;
+
+        this.cs = (mueff + 2) / (n + mueff + 5);
+        this.ds = 1 + 2 * Math.max(0, Math.sqrt((mueff - 1) / (n + 1)) - 1) + cs;
+        this.cc = (4 + mueff / n) / (n + 4 + 2 * mueff / n);
+        // The diagonal is learned n-times faster than a full covariance matrix would be
+        double c1Full = 2 / ((n + 1.3) * (n + 1.3) + mueff);
+        double cmuFull = Math.min(1 - c1Full, 2 * (mueff - 2 + 1 / mueff) / ((n + 2) * (n + 2) + mueff));
+        this.c1 = Math.min(1, c1Full * (n + 2) / 3);
+        this.cmu = Math.min(1 - c1, cmuFull * (n + 2) / 3);
+        this.chiN = Math.sqrt(n) * (1 - 1d / (4 * n) + 1d / (21d * n * n));
+
+        this.sigma = INITIAL_SIGMA;
+        this.mean = normalize(start);
+        this.diag = new double[n];
+        Arrays.fill(diag, 1d);
+        this.pc = new double[n];
+        this.ps = new double[n];
+        this.best = start;
+    }
+
+    /**
+     * Resumes a run from a checkpoint written by {@link #checkpoint(Path)}.
+     */
+    public static ParameterTuner resume(Fitness fitness, Path checkpoint) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        ParameterTuner tuner = new ParameterTuner(
+                fitness,
+                ScorerParameters.fromProperties(properties, "best."),
+                Integer.parseInt(required(properties, "samplesPerCandidate")),
+                Long.parseLong(required(properties, "seed"))
+        );
+        tuner.generation = Integer.parseInt(required(properties, "generation"));
+        tuner.sigma = Double.parseDouble(required(properties, "sigma"));
+        tuner.bestFitness = Double.parseDouble(required(properties, "bestFitness"));
+        tuner.lastMeanFitness = Double.parseDouble(properties.getProperty("lastMeanFitness", "NaN"));
+        readVector(properties, "mean.", tuner.mean);
+        readVector(properties, "diag.", tuner.diag);
+        readVector(properties, "pc.", tuner.pc);
+        readVector(properties, "ps.", tuner.ps);
+        return tuner;
+    }
+
+    /**
+     * Runs generations until {@code generations} generations have been completed in total,
+     * checkpointing after each one.
+     *
+     * @param generations the total number of generations, including those of a resumed run.
+     * @param parallelism the number of samples played at the same time.
+     * @param checkpoint  the checkpoint file, or null to not checkpoint.
+     */
+    public void run(int generations, int parallelism, Path checkpoint) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "parameter-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            while (generation < generations) {
+                step(pool);
+                System.err.printf("Generation %d | best=%.2f | mean of generation=%.2f | sigma=%.4f%n",
+                        generation, bestFitness, lastMeanFitness, sigma);
+                if (checkpoint != null) {
+                    checkpoint(checkpoint);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Samples, evaluates and selects one generation.
+     */
+    private void step(ExecutorService pool) throws InterruptedException {
+        Random random = new Random(seed * 31 + generation * 0x9E3779B97F4A7C15L);
+        double[][] xs = new double[lambda][n];
+        for (double[] x : xs) {
+            for (int j = 0; j < n; j++) {
+                x[j] = clamp01(mean[j] + sigma * Math.sqrt(diag[j]) * random.nextGaussian());
+            }
+        }
+
+        double[] scores = evaluate(pool, xs);
+
+        Integer[] order = new Integer[lambda];
+        for (int k = 0; k < lambda; k++) order[k] = k;
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        double total = 0d;
+        for (double score : scores) total += score;
+        lastMeanFitness = total / lambda;
+        if (scores[order[0]] > bestFitness) {
+            bestFitness = scores[order[0]];
+            best = denormalize(xs[order[0]]);
+        }
+
+        // Steps of the selected candidates, as sampled (clamped samples count as where they were played)
+        double[] yw = new double[n];
+        double[][] ys = new double[mu][n];
+        for (int i = 0; i < mu; i++) {
+            double[] x = xs[order[i]];
+            for (int j = 0; j < n; j++) {
+                ys[i][j] = (x[j] - mean[j]) / sigma;
+                yw[j] += weights[i] * ys[i][j];
+            }
+        }
+
+        double psNorm = 0d;
+        for (int j = 0; j < n; j++) {
+            mean[j] = clamp01(mean[j] + sigma * yw[j]);
+            ps[j] = (1 - cs) * ps[j] + Math.sqrt(cs * (2 - cs) * mueff) * yw[j] / Math.sqrt(diag[j]);
+            psNorm += ps[j] * ps[j];
+        }
+        psNorm = Math.sqrt(psNorm);
+
+        generation++;
+        boolean hsig = psNorm / Math.sqrt(1 - Math.pow(1 - cs, 2 * generation)) / chiN < 1.4 + 2d / (n + 1);
+
+        for (int j = 0; j < n; j++) {
+            pc[j] = (1 - cc) * pc[j] + (hsig ? Math.sqrt(cc * (2 - cc) * mueff) * yw[j] : 0d);
+
+            double rankMu = 0d;
+            for (int i = 0; i < mu; i++) {
+                rankMu += weights[i] * ys[i][j] * ys[i][j];
+            }
+            double rankOne = pc[j] * pc[j] + (hsig ? 0d : cc * (2 - cc) * diag[j]);
+            diag[j] = (1 - c1 - cmu) * diag[j] + c1 * rankOne + cmu * rankMu;
+            diag[j] = Math.max(diag[j], 1e-12);
+        }
+
+        sigma *= Math.exp((cs / ds) * (psNorm / chiN - 1));
+        sigma = Math.min(sigma, 1d);
+    }
+
+    /**
+     * Plays every sample of every candidate on the pool.
+     *
+     * @return the average fitness per candidate.
+     */
+    private double[] evaluate(ExecutorService pool, double[][] xs) throws InterruptedException {
+        List<Callable<Double>> tasks = new ArrayList<>(xs.length * samplesPerCandidate);
+        for (double[] x : xs) {
+            ScorerParameters parameters = denormalize(x);
+            for (int s = 0; s < samplesPerCandidate; s++) {
+                long sampleSeed = seed + (long) generation * samplesPerCandidate + s;
+                tasks.add(() -> fitness.evaluate(parameters, sampleSeed));
+            }
+        }
+
+        List<Future<Double>> futures = pool.invokeAll(tasks);
+        double[] scores = new double[xs.length];
+        for (int k = 0; k < futures.size(); k++) {
+            try {
+                scores[k / samplesPerCandidate] += futures.get(k).get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Fitness evaluation failed", ex.getCause());
+            }
+        }
+        for (int k = 0; k < scores.length; k++) {
+            scores[k] /= samplesPerCandidate;
+        }
+        return scores;
+    }
+
+    /**
+     * Writes the complete state of the run, replacing the file atomically.
+     */
+    public void checkpoint(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("seed", Long.toString(seed));
+        properties.setProperty("samplesPerCandidate", Integer.toString(samplesPerCandidate));
+        properties.setProperty("generation", Integer.toString(generation));
+        properties.setProperty("sigma", Double.toString(sigma));
+        properties.setProperty("bestFitness", Double.toString(bestFitness));
+        properties.setProperty("lastMeanFitness", Double.toString(lastMeanFitness));
+        writeVector(properties, "mean.", mean);
+        writeVector(properties, "diag.", diag);
+        writeVector(properties, "pc.", pc);
+        writeVector(properties, "ps.", ps);
+        properties.putAll(best.toProperties("best."));
+
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Parameter tuner checkpoint");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String required(Properties properties, String key) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IOException("Checkpoint misses " + key);
+        }
+        return value;
+    }
+
+    private static void readVector(Properties properties, String prefix, double[] target) throws IOException {
+        for (ScorerParameter parameter : ScorerParameter.values()) {
+            target[parameter.ordinal()] = Double.parseDouble(required(properties, prefix + parameter.name()));
+        }
+    }
+
+    private static void writeVector(Properties properties, String prefix, double[] source) {
+        for (ScorerParameter parameter : ScorerParameter.values()) {
+            properties.setProperty(prefix + parameter.name(), Double.toString(source[parameter.ordinal()]));
+        }
+    }
+
+    private static double[] normalize(ScorerParameters parameters) {
+        double[] x = parameters.toArray();
+        for (ScorerParameter parameter : ScorerParameter.values()) {
+            int i = parameter.ordinal();
+            x[i] = (x[i] - parameter.getMin()) / (parameter.getMax() - parameter.getMin());
+        }
+        return x;
+    }
+
+    private static ScorerParameters denormalize(double[] x) {
+        double[] values = new double[x.length];
+        for (ScorerParameter parameter : ScorerParameter.values()) {
+            int i = parameter.ordinal();
+            values[i] = parameter.getMin() + x[i] * (parameter.getMax() - parameter.getMin());
+        }
+        return ScorerParameters.of(values);
+    }
+
+    private static double clamp01(double value) {
+        return Math.max(0d, Math.min(1d, value));
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public int getPopulationSize() {
+        return lambda;
+    }
+
+    public double getSigma() {
+        return sigma;
+    }
+
+    /**
+     * The best candidate evaluated so far.
+     */
+    public ScorerParameters getBest() {
+        return best;
+    }
+
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * The center of the search distribution, the less noisy estimate of the best parameters.
+     */
+    public ScorerParameters getMean() {
+        return denormalize(mean);
+    }
+}
@@ -0,0 +1,56 @@
+package be.thebeehive.htf.client.tuning;
+
+import be.thebeehive.htf.client.MyClient;
+import be.thebeehive.htf.client.planner.ActionScorer;
+import be.thebeehive.htf.client.planner.Planner;
+import be.thebeehive.htf.client.planner.ScorerParameters;
+import be.thebeehive.htf.library.protocol.server.GameEndedServerMessage;
+import be.thebeehive.htf.server.GameSettings;
+import be.thebeehive.htf.server.GameSimulator;
+
+import java.util.function.Function;
+
+/**
+ * Plays a full simulated game against the bots with {@link MyClient} and values the result as
+ * {@code lastRoundWeight * lastRound + pointsWeight * points}.
+ */
+public class SimulatedFitness implements Fitness {
+
+    private static final String PLAYER = "tuned";
+
+    private final GameSettings settings;
+    private final Function<ActionScorer, Planner> planners;
+    private final double lastRoundWeight;
+    private final double pointsWeight;
+
+    /**
+     * @param settings the settings of the simulated games; the seed is set per sample.
+     * @param planners creates the planner MyClient plays with, for the scorer under evaluation.
+     */
+    public SimulatedFitness(GameSettings settings, Function<ActionScorer, Planner> planners) {
+        this(settings, planners, 1d, 1d);
+    }
+
+    public SimulatedFitness(GameSettings settings, Function<ActionScorer, Planner> planners,
+                            double lastRoundWeight, double pointsWeight) {
+        this.settings = settings;
+        this.planners = planners;
+        this.lastRoundWeight = lastRoundWeight;
+        this.pointsWeight = pointsWeight;
+    }
+
+    @Override
+    public double evaluate(ScorerParameters parameters, long seed) throws Exception {
+        ActionScorer scorer = new ActionScorer(parameters);
+        GameEndedServerMessage ended = new GameSimulator(settings)
+                .addPlayer(PLAYER, () -> new MyClient(scorer, planners.apply(scorer), false))
+                .play(seed);
+
+        for (GameEndedServerMessage.LeaderboardTeam team : ended.getLeaderboard()) {
+            if (PLAYER.equals(team.getName())) {
+                return lastRoundWeight * team.getLastRound() + pointsWeight * team.getPoints().doubleValue();
+            }
+        }
+        throw new IllegalStateException("Player missing from the leaderboard");
+    }
+}
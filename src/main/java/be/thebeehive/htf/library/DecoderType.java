@@ -0,0 +1,14 @@
+package be.thebeehive.htf.library;
+
+/**
+ * Enum representing the different ways the HtfClient can decode incoming server messages.
+ * <p>
+ * STREAMING: Hand-written decoder on top of the Jackson token stream (default).
+ * OBJECT_MAPPER: Polymorphic data binding through the Jackson ObjectMapper.
+ */
+public enum DecoderType {
+
+    STREAMING,
+    OBJECT_MAPPER;
+
+}
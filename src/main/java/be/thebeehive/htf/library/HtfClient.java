@@ -1,30 +1,81 @@
 package be.thebeehive.htf.library;
 
+import be.thebeehive.htf.library.journal.JournalDirection;
+import be.thebeehive.htf.library.journal.SessionJournal;
 import be.thebeehive.htf.library.protocol.client.SelectActionsClientMessage;
+import be.thebeehive.htf.library.protocol.server.ActionTable;
+import be.thebeehive.htf.library.protocol.server.EffectTable;
 import be.thebeehive.htf.library.protocol.server.ErrorServerMessage;
 import be.thebeehive.htf.library.protocol.server.GameEndedServerMessage;
 import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
 import be.thebeehive.htf.library.protocol.server.ServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessageDecoder;
 import be.thebeehive.htf.library.protocol.server.WarningServerMessage;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
 
+/**
+ * Websocket client for the HtfServer.
+ * <p>
+ * Incoming frames are decoded on the websocket IO thread and handed to a dedicated dispatcher
+ * thread through a {@link MessageRingBuffer}; the {@link HtfClientListener} is only ever called
+ * on that dispatcher thread. Slow decision logic therefore never stops the IO thread from
+ * reading frames and answering pings. A dispatcher is started for every connection, also after
+ * {@link #reconnect()}, and stops once the connection closed and the ring is drained. The ring is
+ * only allocated when the first connection opens, so a client that never connects stays small.
+ * <p>
+ * Game rounds are coalesced in a {@link RoundInbox}: after the dispatcher caught up with the
+ * ring, the listener only gets the newest round. Rounds superseded in the meantime are dropped
+ * and counted in {@link #getDroppedRounds()}.
+ */
 public class HtfClient extends WebSocketClient {
 
+    private static final int RING_CAPACITY = 1024;
+    private static final int DRAIN_BATCH = 64;
+
     private final HtfClientListener listener;
     private final ObjectMapper objectMapper;
+    private final ServerMessageDecoder decoder;
+    private volatile DecoderType decoderType = DecoderType.STREAMING;
+    private volatile SessionJournal journal;
+
+    // Allocated on the first connection, before the dispatcher starts
+    private volatile MessageRingBuffer ring;
+    private final RoundInbox inbox = new RoundInbox();
+    private final WaitStrategy waitStrategy;
+    // One dispatcher per connection; the lock guards starting and stopping it
+    private final Object dispatcherLock = new Object();
+    private volatile Thread dispatcher;
+    private volatile boolean dispatching;
+    // Counts connections; the dispatcher forgets the rounds of an earlier connection
+    private volatile int connection;
+    private int dispatchedConnection;
 
     public HtfClient(
             String uri,
             String apiKey,
             EnvironmentType environmentType,
             HtfClientListener listener
+    ) throws URISyntaxException {
+        this(uri, apiKey, environmentType, listener, WaitStrategy.PARK);
+    }
+
+    /**
+     * @param waitStrategy how the dispatcher thread waits for the next message.
+     */
+    public HtfClient(
+            String uri,
+            String apiKey,
+            EnvironmentType environmentType,
+            HtfClientListener listener,
+            WaitStrategy waitStrategy
     ) throws URISyntaxException {
         super(new URI(uri), new HashMap<String, String>() {{
             this.put("apiKey", apiKey);
@@ -33,11 +84,87 @@ public class HtfClient extends WebSocketClient {
         }});
         this.listener = listener;
         this.objectMapper = new ObjectMapper();
+        this.decoder = new ServerMessageDecoder(this.objectMapper.getFactory());
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Selects how incoming messages are decoded. The streaming decoder is used by default;
+     * the ObjectMapper path is kept so both can be compared against each other.
+     *
+     * @param decoderType the {@link DecoderType} to use for subsequent messages.
+     */
+    public void setDecoderType(DecoderType decoderType) {
+        this.decoderType = decoderType;
+    }
+
+    public DecoderType getDecoderType() {
+        return decoderType;
+    }
+
+    /**
+     * Whether the streaming decoder reads the actions and effects of every round into an
+     * {@link ActionTable} and {@link EffectTable} instead of lists, off by default. The ObjectMapper
+     * path never fills them.
+     * <p>
+     * Only enable it for a listener that reads the tables. The lists it builds on demand differ from
+     * the decoded ones: missing values are zero instead of null, values lose their original scale,
+     * and an action or effect with id -1, no values and the placeholder effectId or step of the
+     * tables comes back as null.
+     */
+    public void setColumnarRounds(boolean columnar) {
+        this.decoder.setColumnar(columnar);
+    }
+
+    public boolean isColumnarRounds() {
+        return this.decoder.isColumnar();
+    }
+
+    /**
+     * Records every raw frame received and every message sent from now on, or stops recording.
+     * The client does not close the journal.
+     *
+     * @param journal the {@link SessionJournal} to record to, or null to stop recording.
+     */
+    public void setJournal(SessionJournal journal) {
+        this.journal = journal;
+    }
+
+    public SessionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Decodes a raw server frame with the currently selected {@link DecoderType}.
+     *
+     * @param messageStr the raw JSON text received from the server.
+     * @return the decoded {@link ServerMessage}.
+     * @throws IOException if the message cannot be decoded.
+     */
+    public ServerMessage decode(String messageStr) throws IOException {
+        if (this.decoderType == DecoderType.OBJECT_MAPPER) {
+            return this.objectMapper.readValue(messageStr, ServerMessage.class);
+        }
+        return this.decoder.decode(messageStr);
+    }
+
+    /**
+     * The number of rounds that were dropped without being handed to the listener, because a newer
+     * round arrived before the previous one could be handled, or the game ended or the client
+     * reconnected while a round was waiting. Dropped rounds are not logged.
+     */
+    public long getDroppedRounds() {
+        return this.inbox.getDroppedRounds();
     }
 
     public void send(SelectActionsClientMessage msg) {
         try {
-            this.send(this.objectMapper.writeValueAsString(msg));
+            String json = this.objectMapper.writeValueAsString(msg);
+            SessionJournal journal = this.journal;
+            if (journal != null) {
+                journal.recordOutbound(json);
+            }
+            this.send(json);
         } catch (JsonProcessingException ex) {
             this.onError(ex);
         }
@@ -45,9 +172,77 @@ public class HtfClient extends WebSocketClient {
 
     @Override
     public void onMessage(String messageStr) {
+        long received = System.nanoTime();
+        SessionJournal journal = this.journal;
+        if (journal != null) {
+            journal.record(JournalDirection.INBOUND, messageStr, received);
+        }
+
+        ServerMessage msg;
         try {
-            ServerMessage msg = this.objectMapper.readValue(messageStr, ServerMessage.class);
+            msg = this.decode(messageStr);
+        } catch (Exception ex) {
+            // A single bad message must not end the game, so the connection stays open
+            System.err.println("Failed to handle message ...\n" + ex);
+            return;
+        }
+
+        MessageRingBuffer ring = this.ring;
+        if (ring.offer(msg, received)) {
+            Thread consumer = this.dispatcher;
+            if (consumer != null) this.waitStrategy.signal(consumer);
+        } else {
+            System.err.println("Dispatcher is " + ring.capacity() + " messages behind, dropping " + msg.getClass().getSimpleName());
+        }
+    }
+
+    private void dispatchLoop() {
+        MessageRingBuffer ring = this.ring;
+        MessageRingBuffer.Handler handler = (msg, received) -> {
+            // A message published after a reconnect is read after the new connection count
+            int current = this.connection;
+            if (current != this.dispatchedConnection) {
+                this.dispatchedConnection = current;
+                this.inbox.reset();
+            }
+            this.receive(msg);
+        };
+        while (true) {
+            if (ring.drain(handler, DRAIN_BATCH) > 0) {
+                continue;
+            }
+
+            // Caught up with the ring: only the newest round is still worth planning
+            GameRoundServerMessage round = this.inbox.take();
+            if (round != null) {
+                this.dispatch(round);
+            } else if (!this.dispatching) {
+                synchronized (this.dispatcherLock) {
+                    // Unless a reconnect happened meanwhile, in which case this dispatcher serves the new connection
+                    if (!this.dispatching && ring.isEmpty()) {
+                        this.dispatcher = null;
+                        return;
+                    }
+                }
+            } else {
+                this.waitStrategy.idle();
+            }
+        }
+    }
 
+    private void receive(ServerMessage msg) {
+        if (msg instanceof GameRoundServerMessage) {
+            this.inbox.offer((GameRoundServerMessage) msg);
+            return;
+        }
+        if (msg instanceof GameEndedServerMessage) {
+            this.inbox.reset();
+        }
+        this.dispatch(msg);
+    }
+
+    private void dispatch(ServerMessage msg) {
+        try {
             if (msg instanceof ErrorServerMessage) {
                 this.listener.onErrorServerMessage(this, (ErrorServerMessage) msg);
             } else if (msg instanceof GameEndedServerMessage) {
@@ -58,18 +253,40 @@ public class HtfClient extends WebSocketClient {
                 this.listener.onWarningServerMessage(this, (WarningServerMessage) msg);
             }
         } catch (Exception ex) {
-            this.onError(ex);
+            System.err.println("Failed to handle message ...\n" + ex);
         }
     }
 
     @Override
     public void onOpen(ServerHandshake handshake) {
         System.out.println("You are connected to HtfServer: " + getURI());
+        // Every connection, including one opened by reconnect(), needs a running dispatcher
+        synchronized (this.dispatcherLock) {
+            this.connection++;
+            this.dispatching = true;
+            if (this.ring == null) {
+                this.ring = new MessageRingBuffer(RING_CAPACITY);
+            }
+            if (this.dispatcher == null) {
+                Thread thread = new Thread(this::dispatchLoop, "htf-dispatcher");
+                thread.setDaemon(true);
+                this.dispatcher = thread;
+                thread.start();
+            }
+        }
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
         System.out.println("You have been disconnected from: " + getURI() + "; Code: " + code + " " + reason);
+        // The dispatcher still handles what was received before the connection closed, then stops
+        synchronized (this.dispatcherLock) {
+            this.dispatching = false;
+        }
+        Thread current = this.dispatcher;
+        if (current != null) {
+            this.waitStrategy.signal(current);
+        }
     }
 
     @Override
@@ -0,0 +1,121 @@
+package be.thebeehive.htf.library;
+
+import be.thebeehive.htf.library.protocol.server.ServerMessage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-producer/single-consumer ring buffer handing decoded server messages from the
+ * websocket IO thread to the dispatcher thread.
+ * <p>
+ * All slots are allocated up front and reused. The producer and the consumer each own one
+ * sequence; a slot is published by an ordered write of the producer sequence after the slot was
+ * filled, and released by an ordered write of the consumer sequence after it was read, so neither
+ * side ever takes a lock. {@link #offer} must only be called from one thread, {@link #poll} and
+ * {@link #drain} from one other thread.
+ */
+public class MessageRingBuffer {
+
+    /**
+     * Receives the messages taken from the buffer.
+     */
+    public interface Handler {
+        void onMessage(ServerMessage msg, long receivedNanos);
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+
+    // Next sequence to write, only advanced by the producer
+    private final AtomicLong head = new AtomicLong();
+    // Next sequence to read, only advanced by the consumer
+    private final AtomicLong tail = new AtomicLong();
+
+    // Producer's last seen consumer sequence, so it only reads tail when the buffer looks full
+    private long cachedTail;
+
+    /**
+     * @param capacity the number of slots, a power of two.
+     */
+    public MessageRingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Publishes a message. Never blocks.
+     *
+     * @param msg           the decoded message.
+     * @param receivedNanos when the message was received, as a {@link System#nanoTime()} value.
+     * @return false if the buffer is full and the message was not published.
+     */
+    public boolean offer(ServerMessage msg, long receivedNanos) {
+        long sequence = head.get();
+        if (sequence - cachedTail >= slots.length) {
+            cachedTail = tail.get();
+            if (sequence - cachedTail >= slots.length) {
+                return false;
+            }
+        }
+
+        Slot slot = slots[(int) sequence & mask];
+        slot.message = msg;
+        slot.receivedNanos = receivedNanos;
+        head.lazySet(sequence + 1);
+        return true;
+    }
+
+    /**
+     * Takes the oldest message, if any, and passes it to the handler.
+     *
+     * @return false if the buffer was empty.
+     */
+    public boolean poll(Handler handler) {
+        return drain(handler, 1) > 0;
+    }
+
+    /**
+     * Takes up to {@code limit} messages in order and passes them to the handler.
+     * Each slot is released before its message is handled, so a handler that throws
+     * never sees the same message again.
+     *
+     * @return the number of messages taken.
+     */
+    public int drain(Handler handler, int limit) {
+        long sequence = tail.get();
+        long end = sequence + Math.min(head.get() - sequence, limit);
+
+        for (long s = sequence; s < end; s++) {
+            Slot slot = slots[(int) s & mask];
+            ServerMessage msg = slot.message;
+            long receivedNanos = slot.receivedNanos;
+            slot.message = null;
+            tail.lazySet(s + 1);
+            handler.onMessage(msg, receivedNanos);
+        }
+        return (int) (end - sequence);
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    public int size() {
+        return (int) (head.get() - tail.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    private static final class Slot {
+        ServerMessage message;
+        long receivedNanos;
+    }
+}
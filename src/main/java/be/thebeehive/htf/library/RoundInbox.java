@@ -0,0 +1,72 @@
+package be.thebeehive.htf.library;
+
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalescing inbox for game rounds: holds only the newest round that has not been handed out yet.
+ * <p>
+ * A round that is superseded by a newer one before it was taken, or that arrives after a newer
+ * round was already taken, is dropped and counted, so a client that fell behind answers the
+ * current round next instead of working through rounds the server has already closed.
+ * Rounds are ordered by their round number within a game; {@link #reset()} starts a new game or
+ * connection. Dropped rounds are only counted, not logged, as the inbox sits on the dispatch path.
+ * <p>
+ * Used by the dispatcher thread only, except for {@link #getDroppedRounds()}.
+ */
+public class RoundInbox {
+
+    private final AtomicLong droppedRounds = new AtomicLong();
+
+    private GameRoundServerMessage pending;
+    private long lastTaken = Long.MIN_VALUE;
+
+    /**
+     * Offers a newly received round.
+     */
+    public void offer(GameRoundServerMessage msg) {
+        if (msg.getRound() <= lastTaken) {
+            droppedRounds.incrementAndGet();
+        } else if (pending == null) {
+            pending = msg;
+        } else {
+            // Keep the newer of the two
+            droppedRounds.incrementAndGet();
+            if (msg.getRound() > pending.getRound()) pending = msg;
+        }
+    }
+
+    /**
+     * Takes the newest round.
+     *
+     * @return the round, or null if there is none.
+     */
+    public GameRoundServerMessage take() {
+        GameRoundServerMessage msg = pending;
+        if (msg != null) {
+            pending = null;
+            lastTaken = msg.getRound();
+        }
+        return msg;
+    }
+
+    /**
+     * Drops the pending round and forgets the round numbers seen so far, because the game ended
+     * or the client reconnected.
+     */
+    public void reset() {
+        if (pending != null) {
+            droppedRounds.incrementAndGet();
+            pending = null;
+        }
+        lastTaken = Long.MIN_VALUE;
+    }
+
+    /**
+     * The number of rounds dropped since this inbox was created.
+     */
+    public long getDroppedRounds() {
+        return droppedRounds.get();
+    }
+}
@@ -0,0 +1,55 @@
+package be.thebeehive.htf.library;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Enum representing how the HtfClient's dispatcher thread waits for the next server message.
+ * <p>
+ * BUSY_SPIN: Never gives up the CPU; lowest latency, keeps one core busy.
+ * YIELD: Yields to other threads between checks; low latency, still uses a core when idle.
+ * PARK: Sleeps until the IO thread signals a new message; barely uses any CPU at the cost of
+ * a wake-up per message (default).
+ */
+public enum WaitStrategy {
+
+    BUSY_SPIN {
+        @Override
+        void idle() {
+            // Spin
+        }
+    },
+    YIELD {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+    PARK {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+
+        @Override
+        void signal(Thread consumer) {
+            LockSupport.unpark(consumer);
+        }
+    };
+
+    // Only a safety net, the consumer is woken up by signal
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Called by the consumer each time it found nothing to do.
+     */
+    abstract void idle();
+
+    /**
+     * Called by the producer after it published a message.
+     */
+    void signal(Thread consumer) {
+        // The other strategies keep checking
+    }
+
+}
@@ -0,0 +1,20 @@
+package be.thebeehive.htf.library.journal;
+
+/**
+ * Enum representing the direction of a frame recorded in a {@link SessionJournal}.
+ * <p>
+ * INBOUND: Raw frame received from the server.
+ * OUTBOUND: Message sent to the server.
+ */
+public enum JournalDirection {
+
+    INBOUND,
+    OUTBOUND;
+
+    private static final JournalDirection[] VALUES = values();
+
+    static JournalDirection of(int code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+    }
+
+}
@@ -0,0 +1,215 @@
+package be.thebeehive.htf.library.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only journal of every frame exchanged with the server, written to memory-mapped files.
+ * <p>
+ * A journal consists of segments named {@code session-<start>-<n>.journal} in one directory,
+ * where {@code <start>} is the wall-clock time the session started in epoch milliseconds and
+ * {@code <n>} counts up from 0. When a record does not fit in the current segment a new one
+ * is started. Every segment starts with a header:
+ * <pre>
+ *   int  magic        0x4854464A ("HTFJ")
+ *   int  version      1
+ *   long epochMillis  wall-clock time the segment was created
+ *   long nanoTime     {@link System#nanoTime()} at that same moment
+ * </pre>
+ * followed by records:
+ * <pre>
+ *   int  length       number of payload bytes, always &gt; 0
+ *   byte direction    {@link JournalDirection#ordinal()}
+ *   long nanoTime     {@link System#nanoTime()} when the frame was recorded
+ *   byte[length]      the frame as UTF-8
+ * </pre>
+ * The unused part of a segment is zero, so a length of 0 marks the end of the data.
+ * <p>
+ * Recording does not allocate, apart from starting a new segment. Records that do not fit in
+ * an empty segment are skipped and counted. If a new segment cannot be created, journaling
+ * stops and the failure is logged. All methods are thread-safe.
+ */
+public class SessionJournal implements AutoCloseable {
+
+    static final int MAGIC = 0x4854464A;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+    static final int RECORD_HEADER_BYTES = 4 + 1 + 8;
+
+    /**
+     * Default size of a segment: 64 MiB.
+     */
+    public static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long sessionStart;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int segment = -1;
+    private long skippedRecords;
+    private boolean closed;
+
+    public SessionJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * @param directory    the directory the segments are written to; created if it does not exist.
+     * @param segmentBytes the size of a single segment file.
+     * @throws IOException if the first segment cannot be created.
+     */
+    public SessionJournal(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes <= HEADER_BYTES + RECORD_HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentBytes too small: " + segmentBytes);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.sessionStart = System.currentTimeMillis();
+        this.rotate();
+    }
+
+    /**
+     * Records a raw frame received from the server.
+     */
+    public void recordInbound(CharSequence frame) {
+        this.record(JournalDirection.INBOUND, frame, System.nanoTime());
+    }
+
+    /**
+     * Records a message sent to the server.
+     */
+    public void recordOutbound(CharSequence frame) {
+        this.record(JournalDirection.OUTBOUND, frame, System.nanoTime());
+    }
+
+    /**
+     * Appends one record.
+     *
+     * @param direction the direction of the frame.
+     * @param frame     the frame text, written as UTF-8.
+     * @param nanoTime  the {@link System#nanoTime()} the frame was sent or received.
+     */
+    public synchronized void record(JournalDirection direction, CharSequence frame, long nanoTime) {
+        if (this.closed) return;
+
+        int length = utf8Length(frame);
+        if (length == 0 || length > this.segmentBytes - HEADER_BYTES - RECORD_HEADER_BYTES) {
+            this.skippedRecords++;
+            return;
+        }
+        if (this.buffer.remaining() < RECORD_HEADER_BYTES + length) {
+            try {
+                this.rotate();
+            } catch (IOException ex) {
+                // Losing the journal must never affect the game itself
+                System.err.println("Failed to rotate session journal, journaling stopped ...\n" + ex);
+                this.closed = true;
+                return;
+            }
+        }
+
+        MappedByteBuffer buf = this.buffer;
+        int start = buf.position();
+        // The length goes last, so a reader never sees a half-written record
+        buf.position(start + 4);
+        buf.put((byte) direction.ordinal());
+        buf.putLong(nanoTime);
+        putUtf8(buf, frame);
+        buf.putInt(start, length);
+    }
+
+    /**
+     * The number of records skipped because they were empty or larger than a segment.
+     */
+    public synchronized long getSkippedRecords() {
+        return this.skippedRecords;
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Flushes the current segment to disk.
+     */
+    public synchronized void flush() {
+        if (!this.closed) this.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) return;
+        this.closed = true;
+        if (this.channel.isOpen()) {
+            this.buffer.force();
+            this.channel.close();
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (this.channel != null) {
+            this.buffer.force();
+            this.channel.close();
+        }
+        this.segment++;
+        Path file = this.directory.resolve(String.format("session-%d-%04d.journal", this.sessionStart, this.segment));
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentBytes);
+        this.buffer.putInt(MAGIC);
+        this.buffer.putInt(VERSION);
+        this.buffer.putLong(System.currentTimeMillis());
+        this.buffer.putLong(System.nanoTime());
+    }
+
+    private static int utf8Length(CharSequence s) {
+        int length = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void putUtf8(MappedByteBuffer buf, CharSequence s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf.put((byte) c);
+            } else if (c < 0x800) {
+                buf.put((byte) (0xC0 | (c >> 6)));
+                buf.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf.put((byte) (0xF0 | (cp >> 18)));
+                buf.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buf.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buf.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // A lone surrogate is not valid UTF-8, replace it like String.getBytes does
+                buf.put((byte) '?');
+            } else {
+                buf.put((byte) (0xE0 | (c >> 12)));
+                buf.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buf.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package be.thebeehive.htf.library.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads the records of a {@link SessionJournal} back, one segment after the other.
+ * <p>
+ * Usage:
+ * <pre>
+ *   try (SessionJournalReader reader = new SessionJournalReader(SessionJournalReader.segments(dir))) {
+ *       while (reader.next()) {
+ *           handle(reader.getDirection(), reader.getEpochNanos(), reader.getFrame());
+ *       }
+ *   }
+ * </pre>
+ */
+public class SessionJournalReader implements AutoCloseable {
+
+    private final List<Path> segments;
+    private int segment = -1;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private long epochMillis;
+    private long nanoBase;
+
+    private JournalDirection direction;
+    private long nanoTime;
+    private String frame;
+
+    public SessionJournalReader(List<Path> segments) {
+        this.segments = new ArrayList<>(segments);
+    }
+
+    /**
+     * Lists the segments of all sessions in a directory, in the order they were written.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().matches("session-\\d+-\\d+\\.journal"))
+                    .forEach(segments::add);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false once every segment has been read.
+     * @throws IOException if a segment cannot be read or is not a journal segment.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (this.buffer != null && this.buffer.remaining() >= SessionJournal.RECORD_HEADER_BYTES) {
+                int length = this.buffer.getInt(this.buffer.position());
+                if (length > 0 && length <= this.buffer.remaining() - SessionJournal.RECORD_HEADER_BYTES) {
+                    this.buffer.getInt();
+                    this.direction = JournalDirection.of(this.buffer.get());
+                    this.nanoTime = this.buffer.getLong();
+                    byte[] bytes = new byte[length];
+                    this.buffer.get(bytes);
+                    this.frame = new String(bytes, StandardCharsets.UTF_8);
+                    return true;
+                }
+            }
+            if (!this.openNextSegment()) {
+                return false;
+            }
+        }
+    }
+
+    private boolean openNextSegment() throws IOException {
+        this.closeSegment();
+        if (++this.segment >= this.segments.size()) {
+            return false;
+        }
+
+        Path file = this.segments.get(this.segment);
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.channel.size());
+        if (this.buffer.remaining() < SessionJournal.HEADER_BYTES
+                || this.buffer.getInt() != SessionJournal.MAGIC
+                || this.buffer.getInt() != SessionJournal.VERSION) {
+            throw new IOException("Not a journal segment: " + file);
+        }
+        this.epochMillis = this.buffer.getLong();
+        this.nanoBase = this.buffer.getLong();
+        return true;
+    }
+
+    private void closeSegment() throws IOException {
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+            this.buffer = null;
+        }
+    }
+
+    public JournalDirection getDirection() {
+        return this.direction;
+    }
+
+    /**
+     * The {@link System#nanoTime()} the frame was recorded at. Only comparable within a session.
+     */
+    public long getNanoTime() {
+        return this.nanoTime;
+    }
+
+    /**
+     * The wall-clock time the frame was recorded at, in nanoseconds since the epoch.
+     */
+    public long getEpochNanos() {
+        return this.epochMillis * 1_000_000L + (this.nanoTime - this.nanoBase);
+    }
+
+    public String getFrame() {
+        return this.frame;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closeSegment();
+        this.segment = this.segments.size();
+    }
+}
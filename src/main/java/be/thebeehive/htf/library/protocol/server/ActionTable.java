@@ -0,0 +1,244 @@
+package be.thebeehive.htf.library.protocol.server;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar form of the actions of a round: one primitive array per field, indexed by the
+ * position of the action in {@link GameRoundServerMessage#getActions()}.
+ * <p>
+ * Value deltas are stored in thousandths ({@link #SCALE_DIGITS} fractional digits), missing
+ * values as zero; {@link #pack(BigDecimal)} and {@link #unpack(long)} convert. A table built from
+ * protocol objects rounds values with more digits toward more harm, see {@link #packFloor(BigDecimal)},
+ * and counts them in {@link #getRoundedValues()}. {@link #isPresent(int)}
+ * is false for a missing action or an action without values. The arrays returned by the column
+ * getters may be longer than {@link #size()} and must not be modified; they let a planner scan all
+ * actions linearly.
+ */
+public final class ActionTable {
+
+    public static final int SCALE_DIGITS = 3;
+    public static final long SCALE = 1000L;
+
+    private int size;
+    private boolean[] present;
+    private long[] id;
+    private long[] effectId;
+    private long[] hullStrength;
+    private long[] maxHullStrength;
+    private long[] crewHealth;
+    private long[] maxCrewHealth;
+    private int roundedValues;
+
+    public ActionTable(int capacity) {
+        allocate(Math.max(capacity, 4));
+    }
+
+    /**
+     * Builds the table of a list of actions, e.g. one that was not decoded in columnar form.
+     *
+     * @throws ArithmeticException if a value does not fit in a long once scaled.
+     */
+    public static ActionTable of(List<GameRoundServerMessage.Action> actions) {
+        ActionTable table = new ActionTable(actions != null ? actions.size() : 0);
+        if (actions != null) {
+            for (GameRoundServerMessage.Action action : actions) {
+                table.add(action);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Appends an action, which may be null. Values with more than {@link #SCALE_DIGITS} fractional
+     * digits are rounded by {@link #packFloor(BigDecimal)}.
+     *
+     * @throws ArithmeticException if a value does not fit in a long once scaled.
+     */
+    public void add(GameRoundServerMessage.Action action) {
+        GameRoundServerMessage.Values values = action != null ? action.getValues() : null;
+        if (values == null) {
+            add(action != null ? action.getId() : -1L, action != null ? action.getEffectId() : -1L, false, 0L, 0L, 0L, 0L);
+            return;
+        }
+        roundedValues += countInexact(values);
+        add(action.getId(), action.getEffectId(), true,
+                packFloor(values.getHullStrength()), packFloor(values.getMaxHullStrength()),
+                packFloor(values.getCrewHealth()), packFloor(values.getMaxCrewHealth()));
+    }
+
+    /**
+     * Appends an action from its packed values; a missing action has id and effectId -1 and no values.
+     */
+    public void add(long id, long effectId, boolean present, long hullStrength, long maxHullStrength,
+                    long crewHealth, long maxCrewHealth) {
+        if (size == this.id.length) {
+            allocate(size * 2);
+        }
+        int i = size;
+        this.present[i] = present;
+        this.id[i] = id;
+        this.effectId[i] = effectId;
+        this.hullStrength[i] = hullStrength;
+        this.maxHullStrength[i] = maxHullStrength;
+        this.crewHealth[i] = crewHealth;
+        this.maxCrewHealth[i] = maxCrewHealth;
+        size++;
+    }
+
+    /**
+     * The actions as protocol objects, for a round that was only decoded in columnar form. They are
+     * not exactly the decoded ones: a missing value comes back as zero, every value with the
+     * smallest scale that holds it, and an action with id and effectId -1 and no values as null,
+     * like a missing action.
+     */
+    public List<GameRoundServerMessage.Action> toActions() {
+        List<GameRoundServerMessage.Action> actions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (!present[i] && id[i] == -1L && effectId[i] == -1L) {
+                actions.add(null);
+                continue;
+            }
+            GameRoundServerMessage.Action action = new GameRoundServerMessage.Action();
+            action.setId(id[i]);
+            action.setEffectId(effectId[i]);
+            if (present[i]) {
+                action.setValues(values(hullStrength[i], maxHullStrength[i], crewHealth[i], maxCrewHealth[i]));
+            }
+            actions.add(action);
+        }
+        return actions;
+    }
+
+    /**
+     * Packs a decimal value into thousandths.
+     *
+     * @param value the value to pack, null is treated as zero.
+     * @return the value scaled by 10^{@link #SCALE_DIGITS}.
+     * @throws ArithmeticException if the value has more than {@link #SCALE_DIGITS} fractional digits
+     *                             or does not fit in a long once scaled.
+     */
+    public static long pack(BigDecimal value) {
+        return value != null ? value.movePointRight(SCALE_DIGITS).longValueExact() : 0L;
+    }
+
+    /**
+     * Packs a decimal value into thousandths, rounding toward negative infinity when it has more than
+     * {@link #SCALE_DIGITS} fractional digits. Every value is a health, a maximum or a change of one,
+     * so the rounded value is always the slightly more harmful one.
+     *
+     * @param value the value to pack, null is treated as zero.
+     * @return the value scaled by 10^{@link #SCALE_DIGITS}, rounded down.
+     * @throws ArithmeticException if the value does not fit in a long once scaled.
+     */
+    public static long packFloor(BigDecimal value) {
+        return value != null ? value.setScale(SCALE_DIGITS, RoundingMode.FLOOR).movePointRight(SCALE_DIGITS).longValueExact() : 0L;
+    }
+
+    /**
+     * Whether a value can be packed without rounding.
+     *
+     * @param value the value, null counts as zero.
+     * @return true if the value has at most {@link #SCALE_DIGITS} significant fractional digits.
+     */
+    public static boolean isExact(BigDecimal value) {
+        return value == null || value.scale() <= SCALE_DIGITS || value.stripTrailingZeros().scale() <= SCALE_DIGITS;
+    }
+
+    /**
+     * Counts the values that {@link #packFloor(BigDecimal)} has to round.
+     *
+     * @param values the values, may be null.
+     * @return the number of inexact values, 0 to 4.
+     */
+    public static int countInexact(GameRoundServerMessage.Values values) {
+        if (values == null) return 0;
+        return (isExact(values.getHullStrength()) ? 0 : 1) + (isExact(values.getMaxHullStrength()) ? 0 : 1)
+                + (isExact(values.getCrewHealth()) ? 0 : 1) + (isExact(values.getMaxCrewHealth()) ? 0 : 1);
+    }
+
+    /**
+     * Packs a whole number into thousandths.
+     *
+     * @throws ArithmeticException if the value does not fit in a long once scaled.
+     */
+    public static long pack(long value) {
+        return Math.multiplyExact(value, SCALE);
+    }
+
+    /**
+     * Converts a packed value back to a BigDecimal without losing precision.
+     *
+     * @param packed the packed value.
+     * @return the value as a BigDecimal with the smallest scale that represents it exactly.
+     */
+    public static BigDecimal unpack(long packed) {
+        BigDecimal value = BigDecimal.valueOf(packed, SCALE_DIGITS).stripTrailingZeros();
+        return value.scale() < 0 ? value.setScale(0) : value;
+    }
+
+    static GameRoundServerMessage.Values values(long hullStrength, long maxHullStrength, long crewHealth, long maxCrewHealth) {
+        GameRoundServerMessage.Values values = new GameRoundServerMessage.Values();
+        values.setHullStrength(unpack(hullStrength));
+        values.setMaxHullStrength(unpack(maxHullStrength));
+        values.setCrewHealth(unpack(crewHealth));
+        values.setMaxCrewHealth(unpack(maxCrewHealth));
+        return values;
+    }
+
+    private void allocate(int capacity) {
+        present = present == null ? new boolean[capacity] : Arrays.copyOf(present, capacity);
+        id = id == null ? new long[capacity] : Arrays.copyOf(id, capacity);
+        effectId = effectId == null ? new long[capacity] : Arrays.copyOf(effectId, capacity);
+        hullStrength = hullStrength == null ? new long[capacity] : Arrays.copyOf(hullStrength, capacity);
+        maxHullStrength = maxHullStrength == null ? new long[capacity] : Arrays.copyOf(maxHullStrength, capacity);
+        crewHealth = crewHealth == null ? new long[capacity] : Arrays.copyOf(crewHealth, capacity);
+        maxCrewHealth = maxCrewHealth == null ? new long[capacity] : Arrays.copyOf(maxCrewHealth, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The number of values that were rounded when actions were added as protocol objects.
+     */
+    public int getRoundedValues() {
+        return roundedValues;
+    }
+
+    public boolean isPresent(int index) {
+        return present[index];
+    }
+
+    public boolean[] getPresent() {
+        return present;
+    }
+
+    public long[] getId() {
+        return id;
+    }
+
+    public long[] getEffectId() {
+        return effectId;
+    }
+
+    public long[] getHullStrength() {
+        return hullStrength;
+    }
+
+    public long[] getMaxHullStrength() {
+        return maxHullStrength;
+    }
+
+    public long[] getCrewHealth() {
+        return crewHealth;
+    }
+
+    public long[] getMaxCrewHealth() {
+        return maxCrewHealth;
+    }
+}
@@ -0,0 +1,162 @@
+package be.thebeehive.htf.library.protocol.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar form of the effects of a round: one primitive array per field, indexed by the
+ * position of the effect in {@link GameRoundServerMessage#getEffects()}.
+ * <p>
+ * Value deltas are stored like in the {@link ActionTable}. {@link #isPresent(int)} is false for
+ * a missing effect or an effect without values. The arrays returned by the column getters may be
+ * longer than {@link #size()} and must not be modified.
+ */
+public final class EffectTable {
+
+    private int size;
+    private boolean[] present;
+    private long[] id;
+    private int[] step;
+    private long[] hullStrength;
+    private long[] maxHullStrength;
+    private long[] crewHealth;
+    private long[] maxCrewHealth;
+    private int roundedValues;
+
+    public EffectTable(int capacity) {
+        allocate(Math.max(capacity, 4));
+    }
+
+    /**
+     * Builds the table of a list of effects, e.g. one that was not decoded in columnar form.
+     *
+     * @throws ArithmeticException if a value does not fit in a long once scaled.
+     */
+    public static EffectTable of(List<GameRoundServerMessage.Effect> effects) {
+        EffectTable table = new EffectTable(effects != null ? effects.size() : 0);
+        if (effects != null) {
+            for (GameRoundServerMessage.Effect effect : effects) {
+                table.add(effect);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Appends an effect, which may be null. Values with more than {@link ActionTable#SCALE_DIGITS}
+     * fractional digits are rounded by {@link ActionTable#packFloor(java.math.BigDecimal)}.
+     *
+     * @throws ArithmeticException if a value does not fit in a long once scaled.
+     */
+    public void add(GameRoundServerMessage.Effect effect) {
+        GameRoundServerMessage.Values values = effect != null ? effect.getValues() : null;
+        if (values == null) {
+            add(effect != null ? effect.getId() : -1L, effect != null ? effect.getStep() : Integer.MAX_VALUE, false, 0L, 0L, 0L, 0L);
+            return;
+        }
+        roundedValues += ActionTable.countInexact(values);
+        add(effect.getId(), effect.getStep(), true,
+                ActionTable.packFloor(values.getHullStrength()), ActionTable.packFloor(values.getMaxHullStrength()),
+                ActionTable.packFloor(values.getCrewHealth()), ActionTable.packFloor(values.getMaxCrewHealth()));
+    }
+
+    /**
+     * Appends an effect from its packed values; a missing effect has id -1, step
+     * {@link Integer#MAX_VALUE} and no values.
+     */
+    public void add(long id, int step, boolean present, long hullStrength, long maxHullStrength,
+                    long crewHealth, long maxCrewHealth) {
+        if (size == this.id.length) {
+            allocate(size * 2);
+        }
+        int i = size;
+        this.present[i] = present;
+        this.id[i] = id;
+        this.step[i] = step;
+        this.hullStrength[i] = hullStrength;
+        this.maxHullStrength[i] = maxHullStrength;
+        this.crewHealth[i] = crewHealth;
+        this.maxCrewHealth[i] = maxCrewHealth;
+        size++;
+    }
+
+    /**
+     * The effects as protocol objects, for a round that was only decoded in columnar form. They are
+     * not exactly the decoded ones, see {@link ActionTable#toActions()}; an effect with id -1, step
+     * {@link Integer#MAX_VALUE} and no values comes back as null, like a missing effect.
+     */
+    public List<GameRoundServerMessage.Effect> toEffects() {
+        List<GameRoundServerMessage.Effect> effects = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (!present[i] && id[i] == -1L && step[i] == Integer.MAX_VALUE) {
+                effects.add(null);
+                continue;
+            }
+            GameRoundServerMessage.Effect effect = new GameRoundServerMessage.Effect();
+            effect.setId(id[i]);
+            effect.setStep(step[i]);
+            if (present[i]) {
+                effect.setValues(ActionTable.values(hullStrength[i], maxHullStrength[i], crewHealth[i], maxCrewHealth[i]));
+            }
+            effects.add(effect);
+        }
+        return effects;
+    }
+
+    private void allocate(int capacity) {
+        present = present == null ? new boolean[capacity] : Arrays.copyOf(present, capacity);
+        id = id == null ? new long[capacity] : Arrays.copyOf(id, capacity);
+        step = step == null ? new int[capacity] : Arrays.copyOf(step, capacity);
+        hullStrength = hullStrength == null ? new long[capacity] : Arrays.copyOf(hullStrength, capacity);
+        maxHullStrength = maxHullStrength == null ? new long[capacity] : Arrays.copyOf(maxHullStrength, capacity);
+        crewHealth = crewHealth == null ? new long[capacity] : Arrays.copyOf(crewHealth, capacity);
+        maxCrewHealth = maxCrewHealth == null ? new long[capacity] : Arrays.copyOf(maxCrewHealth, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The number of values that were rounded when effects were added as protocol objects.
+     */
+    public int getRoundedValues() {
+        return roundedValues;
+    }
+
+    public boolean isPresent(int index) {
+        return present[index];
+    }
+
+    public boolean[] getPresent() {
+        return present;
+    }
+
+    public long[] getId() {
+        return id;
+    }
+
+    /**
+     * The step of every effect; {@link Integer#MAX_VALUE} for a missing effect.
+     */
+    public int[] getStep() {
+        return step;
+    }
+
+    public long[] getHullStrength() {
+        return hullStrength;
+    }
+
+    public long[] getMaxHullStrength() {
+        return maxHullStrength;
+    }
+
+    public long[] getCrewHealth() {
+        return crewHealth;
+    }
+
+    public long[] getMaxCrewHealth() {
+        return maxCrewHealth;
+    }
+}
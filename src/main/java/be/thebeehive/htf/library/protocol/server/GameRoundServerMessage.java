@@ -1,5 +1,7 @@
 package be.thebeehive.htf.library.protocol.server;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
@@ -15,11 +17,18 @@ public class GameRoundServerMessage extends ServerMessage {
     private long round;
     private UUID roundId;
     private Checkpoint nextCheckpoint;
-    private List<Effect> effects;
-    private List<Action> actions;
+    private volatile List<Effect> effects;
+    private volatile List<Action> actions;
     private Submarine ourSubmarine;
     private List<Submarine> competingSubmarines;
 
+    // Optional columnar form of the actions and effects, never serialized; a round decoded in
+    // columnar form only gets its lists when they are first asked for. The lists are volatile so a
+    // message handed to another thread publishes them safely; two threads asking at the same time
+    // may both build equal lists, and one of them is kept
+    private ActionTable actionTable;
+    private EffectTable effectTable;
+
     public GameRoundServerMessage() {
 
     }
@@ -80,12 +89,19 @@ public class GameRoundServerMessage extends ServerMessage {
     }
 
     /**
-     * Retrieves the list of effects that will occur this round.
+     * Retrieves the list of effects that will occur this round. For a round decoded in columnar
+     * form the list is built from the {@link #getEffectTable()} on first access, with the
+     * differences listed at {@link EffectTable#toEffects()}.
      *
      * @return a list of {@link Effect} objects.
      */
     public List<Effect> getEffects() {
-        return effects;
+        List<Effect> result = effects;
+        if (result == null && effectTable != null) {
+            result = effectTable.toEffects();
+            effects = result;
+        }
+        return result;
     }
 
     /**
@@ -98,12 +114,19 @@ public class GameRoundServerMessage extends ServerMessage {
     }
 
     /**
-     * Retrieves the list of actions that are available this round.
+     * Retrieves the list of actions that are available this round. For a round decoded in columnar
+     * form the list is built from the {@link #getActionTable()} on first access, with the
+     * differences listed at {@link ActionTable#toActions()}.
      *
      * @return a list of {@link Action} objects.
      */
     public List<Action> getActions() {
-        return actions;
+        List<Action> result = actions;
+        if (result == null && actionTable != null) {
+            result = actionTable.toActions();
+            actions = result;
+        }
+        return result;
     }
 
     /**
@@ -151,6 +174,46 @@ public class GameRoundServerMessage extends ServerMessage {
         this.competingSubmarines = competingSubmarines;
     }
 
+    /**
+     * Retrieves the actions in columnar form, when the decoder produced it.
+     *
+     * @return the {@link ActionTable}, or null if the round was not decoded in columnar form.
+     */
+    @JsonIgnore
+    public ActionTable getActionTable() {
+        return actionTable;
+    }
+
+    /**
+     * Sets the actions in columnar form; it must describe the same actions as {@link #getActions()}.
+     *
+     * @param actionTable the {@link ActionTable} to be set.
+     */
+    @JsonIgnore
+    public void setActionTable(ActionTable actionTable) {
+        this.actionTable = actionTable;
+    }
+
+    /**
+     * Retrieves the effects in columnar form, when the decoder produced it.
+     *
+     * @return the {@link EffectTable}, or null if the round was not decoded in columnar form.
+     */
+    @JsonIgnore
+    public EffectTable getEffectTable() {
+        return effectTable;
+    }
+
+    /**
+     * Sets the effects in columnar form; it must describe the same effects as {@link #getEffects()}.
+     *
+     * @param effectTable the {@link EffectTable} to be set.
+     */
+    @JsonIgnore
+    public void setEffectTable(EffectTable effectTable) {
+        this.effectTable = effectTable;
+    }
+
     /**
      * Represents a checkpoint within a game round.
      * A checkpoint is characterized by a specific round and the values that will be
@@ -0,0 +1,592 @@
+package be.thebeehive.htf.library.protocol.server;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hand-written decoder for {@link ServerMessage}s built directly on the Jackson token stream.
+ * <p>
+ * The message type is resolved from the {@code _type} property in a single pass. Only when
+ * {@code _type} is not the first property are the preceding properties buffered, and replayed
+ * once the type is known. Unknown properties are skipped.
+ * <p>
+ * In columnar mode the actions and effects of a round are read straight into an {@link ActionTable}
+ * and an {@link EffectTable}, without protocol objects; the message builds its lists from the
+ * tables only when they are asked for. A round whose values cannot be packed is decoded again
+ * into lists, without tables.
+ */
+public class ServerMessageDecoder {
+
+    private static final String TYPE_PROPERTY = "_type";
+
+    private final JsonFactory jsonFactory;
+    private volatile boolean columnar;
+
+    public ServerMessageDecoder() {
+        this(new JsonFactory());
+    }
+
+    public ServerMessageDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Enables or disables decoding the actions and effects of every round into an
+     * {@link ActionTable} and {@link EffectTable} instead of lists.
+     */
+    public void setColumnar(boolean columnar) {
+        this.columnar = columnar;
+    }
+
+    public boolean isColumnar() {
+        return columnar;
+    }
+
+    /**
+     * Decodes a single server message.
+     *
+     * @param json the raw JSON text of the message.
+     * @return the decoded {@link ServerMessage} subtype.
+     * @throws IOException if the message is malformed or has an unknown {@code _type}.
+     */
+    public ServerMessage decode(String json) throws IOException {
+        if (this.columnar) {
+            try {
+                return decode(json, true);
+            } catch (ArithmeticException ex) {
+                // A value that cannot be packed: the lists keep it exactly
+            }
+        }
+        return decode(json, false);
+    }
+
+    private ServerMessage decode(String json, boolean columnar) throws IOException {
+        try (JsonParser parser = this.jsonFactory.createParser(json)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+            TokenBuffer buffer = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if (TYPE_PROPERTY.equals(parser.currentName())) {
+                    parser.nextToken();
+                    String type = parser.getValueAsString();
+
+                    if (buffer == null) {
+                        return readMessage(type, parser, columnar);
+                    }
+
+                    // _type arrived late: buffer the rest of the object and replay it as a whole
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        buffer.copyCurrentStructure(parser);
+                    }
+                    buffer.writeEndObject();
+
+                    try (JsonParser replay = buffer.asParser()) {
+                        replay.nextToken();
+                        return readMessage(type, replay, columnar);
+                    }
+                }
+
+                if (buffer == null) {
+                    buffer = new TokenBuffer(parser);
+                    buffer.writeStartObject();
+                }
+                buffer.copyCurrentStructure(parser);
+            }
+
+            throw new JsonParseException(parser, "Missing '" + TYPE_PROPERTY + "' property");
+        }
+    }
+
+    private ServerMessage readMessage(String type, JsonParser p, boolean columnar) throws IOException {
+        if (type == null) {
+            throw new JsonParseException(p, "Missing value for '" + TYPE_PROPERTY + "' property");
+        }
+
+        switch (type) {
+            case "GameRoundServerMessage":
+                return readGameRound(p, columnar);
+            case "GameEndedServerMessage":
+                return readGameEnded(p);
+            case "ErrorServerMessage": {
+                ErrorServerMessage msg = new ErrorServerMessage();
+                msg.setMsg(readMsg(p));
+                return msg;
+            }
+            case "WarningServerMessage": {
+                WarningServerMessage msg = new WarningServerMessage();
+                msg.setMsg(readMsg(p));
+                return msg;
+            }
+            default:
+                throw new JsonParseException(p, "Unknown " + TYPE_PROPERTY + ": " + type);
+        }
+    }
+
+    private GameRoundServerMessage readGameRound(JsonParser p, boolean columnar) throws IOException {
+        GameRoundServerMessage msg = new GameRoundServerMessage();
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            switch (name) {
+                case "round":
+                    msg.setRound(p.getValueAsLong());
+                    break;
+                case "roundId":
+                    msg.setRoundId(readUuid(p));
+                    break;
+                case "nextCheckpoint":
+                    msg.setNextCheckpoint(readCheckpoint(p));
+                    break;
+                case "effects":
+                    if (columnar) {
+                        msg.setEffectTable(readEffectTable(p));
+                    } else {
+                        msg.setEffects(readEffects(p));
+                    }
+                    break;
+                case "actions":
+                    if (columnar) {
+                        msg.setActionTable(readActionTable(p));
+                    } else {
+                        msg.setActions(readActions(p));
+                    }
+                    break;
+                case "ourSubmarine":
+                    msg.setOurSubmarine(readSubmarine(p));
+                    break;
+                case "competingSubmarines":
+                    msg.setCompetingSubmarines(readSubmarines(p));
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        return msg;
+    }
+
+    private GameEndedServerMessage readGameEnded(JsonParser p) throws IOException {
+        GameEndedServerMessage msg = new GameEndedServerMessage();
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            switch (name) {
+                case "round":
+                    msg.setRound(p.getValueAsLong());
+                    break;
+                case "leaderboard":
+                    msg.setLeaderboard(readLeaderboard(p));
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        return msg;
+    }
+
+    private String readMsg(JsonParser p) throws IOException {
+        String msg = null;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            if ("msg".equals(name)) {
+                msg = p.getValueAsString();
+            } else {
+                p.skipChildren();
+            }
+        }
+
+        return msg;
+    }
+
+    private GameRoundServerMessage.Checkpoint readCheckpoint(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+        GameRoundServerMessage.Checkpoint checkpoint = new GameRoundServerMessage.Checkpoint();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            switch (name) {
+                case "round":
+                    checkpoint.setRound(p.getValueAsLong());
+                    break;
+                case "values":
+                    checkpoint.setValues(readValues(p));
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        return checkpoint;
+    }
+
+    private List<GameRoundServerMessage.Effect> readEffects(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_ARRAY);
+
+        List<GameRoundServerMessage.Effect> effects = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            effects.add(readEffect(p));
+        }
+
+        return effects;
+    }
+
+    /**
+     * Reads the effects straight into a table.
+     *
+     * @throws ArithmeticException if a value cannot be packed.
+     */
+    private EffectTable readEffectTable(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_ARRAY);
+
+        EffectTable table = new EffectTable(16);
+        long[] values = new long[4];
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() == JsonToken.VALUE_NULL) {
+                table.add(-1L, Integer.MAX_VALUE, false, 0L, 0L, 0L, 0L);
+                continue;
+            }
+            expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+            long id = 0L;
+            int step = 0;
+            boolean present = false;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+
+                switch (name) {
+                    case "id":
+                        id = p.getValueAsLong();
+                        break;
+                    case "step":
+                        step = p.getValueAsInt();
+                        break;
+                    case "values":
+                        present = readPackedValues(p, values);
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            if (present) {
+                table.add(id, step, true, values[0], values[1], values[2], values[3]);
+            } else {
+                table.add(id, step, false, 0L, 0L, 0L, 0L);
+            }
+        }
+
+        return table;
+    }
+
+    private GameRoundServerMessage.Effect readEffect(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+        GameRoundServerMessage.Effect effect = new GameRoundServerMessage.Effect();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            switch (name) {
+                case "id":
+                    effect.setId(p.getValueAsLong());
+                    break;
+                case "step":
+                    effect.setStep(p.getValueAsInt());
+                    break;
+                case "values":
+                    effect.setValues(readValues(p));
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        return effect;
+    }
+
+    private List<GameRoundServerMessage.Action> readActions(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_ARRAY);
+
+        List<GameRoundServerMessage.Action> actions = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            actions.add(readAction(p));
+        }
+
+        return actions;
+    }
+
+    /**
+     * Reads the actions straight into a table.
+     *
+     * @throws ArithmeticException if a value cannot be packed.
+     */
+    private ActionTable readActionTable(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_ARRAY);
+
+        ActionTable table = new ActionTable(32);
+        long[] values = new long[4];
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() == JsonToken.VALUE_NULL) {
+                table.add(-1L, -1L, false, 0L, 0L, 0L, 0L);
+                continue;
+            }
+            expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+            long id = 0L;
+            long effectId = 0L;
+            boolean present = false;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+
+                switch (name) {
+                    case "id":
+                        id = p.getValueAsLong();
+                        break;
+                    case "effectId":
+                        effectId = p.getValueAsLong();
+                        break;
+                    case "values":
+                        present = readPackedValues(p, values);
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            if (present) {
+                table.add(id, effectId, true, values[0], values[1], values[2], values[3]);
+            } else {
+                table.add(id, effectId, false, 0L, 0L, 0L, 0L);
+            }
+        }
+
+        return table;
+    }
+
+    private GameRoundServerMessage.Action readAction(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+        GameRoundServerMessage.Action action = new GameRoundServerMessage.Action();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            switch (name) {
+                case "id":
+                    action.setId(p.getValueAsLong());
+                    break;
+                case "effectId":
+                    action.setEffectId(p.getValueAsLong());
+                    break;
+                case "values":
+                    action.setValues(readValues(p));
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        return action;
+    }
+
+    private List<GameRoundServerMessage.Submarine> readSubmarines(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_ARRAY);
+
+        List<GameRoundServerMessage.Submarine> submarines = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            submarines.add(readSubmarine(p));
+        }
+
+        return submarines;
+    }
+
+    private GameRoundServerMessage.Submarine readSubmarine(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+        GameRoundServerMessage.Submarine submarine = new GameRoundServerMessage.Submarine();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            switch (name) {
+                case "name":
+                    submarine.setName(p.getValueAsString());
+                    break;
+                case "values":
+                    submarine.setValues(readValues(p));
+                    break;
+                case "alive":
+                    submarine.setAlive(p.getValueAsBoolean());
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        return submarine;
+    }
+
+    private List<GameEndedServerMessage.LeaderboardTeam> readLeaderboard(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_ARRAY);
+
+        List<GameEndedServerMessage.LeaderboardTeam> leaderboard = new ArrayList<>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() == JsonToken.VALUE_NULL) {
+                leaderboard.add(null);
+                continue;
+            }
+            expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+            GameEndedServerMessage.LeaderboardTeam team = new GameEndedServerMessage.LeaderboardTeam();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+
+                switch (name) {
+                    case "name":
+                        team.setName(p.getValueAsString());
+                        break;
+                    case "lastRound":
+                        team.setLastRound(p.getValueAsLong());
+                        break;
+                    case "points":
+                        team.setPoints(readDecimal(p));
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            leaderboard.add(team);
+        }
+
+        return leaderboard;
+    }
+
+    private GameRoundServerMessage.Values readValues(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+        GameRoundServerMessage.Values values = new GameRoundServerMessage.Values();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            switch (name) {
+                case "hullStrength":
+                    values.setHullStrength(readDecimal(p));
+                    break;
+                case "maxHullStrength":
+                    values.setMaxHullStrength(readDecimal(p));
+                    break;
+                case "crewHealth":
+                    values.setCrewHealth(readDecimal(p));
+                    break;
+                case "maxCrewHealth":
+                    values.setMaxCrewHealth(readDecimal(p));
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Reads packed hull, max hull, crew and max crew into {@code target}; missing values are zero.
+     *
+     * @return false if the values are null.
+     * @throws ArithmeticException if a value cannot be packed.
+     */
+    private boolean readPackedValues(JsonParser p, long[] target) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return false;
+        expect(p, p.currentToken(), JsonToken.START_OBJECT);
+
+        target[0] = 0L;
+        target[1] = 0L;
+        target[2] = 0L;
+        target[3] = 0L;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+
+            switch (name) {
+                case "hullStrength":
+                    target[0] = readPacked(p);
+                    break;
+                case "maxHullStrength":
+                    target[1] = readPacked(p);
+                    break;
+                case "crewHealth":
+                    target[2] = readPacked(p);
+                    break;
+                case "maxCrewHealth":
+                    target[3] = readPacked(p);
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+
+        return true;
+    }
+
+    private long readPacked(JsonParser p) throws IOException {
+        // Whole numbers are packed without a BigDecimal
+        if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            NumberType type = p.getNumberType();
+            if (type == NumberType.INT || type == NumberType.LONG) {
+                return ActionTable.pack(p.getLongValue());
+            }
+        }
+        return ActionTable.pack(readDecimal(p));
+    }
+
+    private BigDecimal readDecimal(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) return null;
+        if (token == JsonToken.VALUE_STRING) return new BigDecimal(p.getText().trim());
+        return p.getDecimalValue();
+    }
+
+    private UUID readUuid(JsonParser p) throws IOException {
+        String value = p.getValueAsString();
+        return value != null ? UUID.fromString(value) : null;
+    }
+
+    private void expect(JsonParser p, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(p, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package be.thebeehive.htf.library.replay;
+
+import be.thebeehive.htf.library.EnvironmentType;
+import be.thebeehive.htf.library.HtfClient;
+import be.thebeehive.htf.library.HtfClientListener;
+import be.thebeehive.htf.library.protocol.client.SelectActionsClientMessage;
+
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in for the {@link HtfClient} that never connects: every answer a listener
+ * sends is captured instead, together with the time it was sent. Raw text messages are not
+ * answers; they are ignored and counted.
+ */
+public class ReplayClient extends HtfClient {
+
+    private static final String NO_SERVER = "ws://localhost:0";
+
+    private final Map<UUID, Answer> answers = new ConcurrentHashMap<>();
+    private final AtomicLong duplicateAnswers = new AtomicLong();
+    private final AtomicLong ignoredMessages = new AtomicLong();
+    private final Object lock = new Object();
+
+    public ReplayClient(HtfClientListener listener) throws URISyntaxException {
+        super(NO_SERVER, "replay", EnvironmentType.SIMULATION, listener);
+    }
+
+    @Override
+    public void send(SelectActionsClientMessage msg) {
+        Answer answer = new Answer(msg, System.nanoTime());
+        if (this.answers.putIfAbsent(msg.getRoundId(), answer) != null) {
+            this.duplicateAnswers.incrementAndGet();
+            return;
+        }
+        synchronized (this.lock) {
+            this.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void send(String text) {
+        this.ignoredMessages.incrementAndGet();
+    }
+
+    /**
+     * Waits until the round has been answered.
+     *
+     * @param roundId       the round.
+     * @param timeoutMillis how long to wait at most.
+     * @return the answer, or null if the round was not answered in time.
+     */
+    public Answer awaitAnswer(UUID roundId, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (this.lock) {
+            Answer answer;
+            while ((answer = this.answers.get(roundId)) == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return null;
+                TimeUnit.NANOSECONDS.timedWait(this.lock, remaining);
+            }
+            return answer;
+        }
+    }
+
+    /**
+     * The answer captured for a round, or null.
+     */
+    public Answer getAnswer(UUID roundId) {
+        return this.answers.get(roundId);
+    }
+
+    /**
+     * The number of answers sent for a round that had already been answered.
+     */
+    public long getDuplicateAnswers() {
+        return this.duplicateAnswers.get();
+    }
+
+    /**
+     * The number of raw text messages sent, which are ignored.
+     */
+    public long getIgnoredMessages() {
+        return this.ignoredMessages.get();
+    }
+
+    /**
+     * A captured message and the {@link System#nanoTime()} it was sent at.
+     */
+    public static final class Answer {
+
+        private final SelectActionsClientMessage message;
+        private final long sentNanos;
+
+        Answer(SelectActionsClientMessage message, long sentNanos) {
+            this.message = message;
+            this.sentNanos = sentNanos;
+        }
+
+        public SelectActionsClientMessage getMessage() {
+            return message;
+        }
+
+        public long getSentNanos() {
+            return sentNanos;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package be.thebeehive.htf.library.replay;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a {@link ReplayRunner} run: every decision, the throughput and the distribution
+ * of the time between handing a round to the listener and its answer.
+ */
+public class ReplayReport {
+
+    private final int messages;
+    private final int skippedFrames;
+    private final int failures;
+    private final long duplicateAnswers;
+    private final long ignoredMessages;
+    private final long elapsedNanos;
+    private final List<Decision> decisions;
+    private final long[] sortedLatencies;
+    private final int unanswered;
+    private final int compared;
+    private final int changed;
+
+    ReplayReport(int messages, int skippedFrames, int failures, long duplicateAnswers, long ignoredMessages,
+                 long elapsedNanos, List<Decision> decisions) {
+        this.messages = messages;
+        this.skippedFrames = skippedFrames;
+        this.failures = failures;
+        this.duplicateAnswers = duplicateAnswers;
+        this.ignoredMessages = ignoredMessages;
+        this.elapsedNanos = elapsedNanos;
+        this.decisions = Collections.unmodifiableList(decisions);
+
+        long[] latencies = new long[decisions.size()];
+        int answered = 0;
+        int compared = 0;
+        int changed = 0;
+        for (Decision decision : decisions) {
+            if (decision.isAnswered()) {
+                latencies[answered++] = decision.getLatencyNanos();
+            }
+            if (decision.isAnswered() && decision.getRecordedActionIds() != null) {
+                compared++;
+                if (!decision.getActionIds().equals(decision.getRecordedActionIds())) changed++;
+            }
+        }
+        this.sortedLatencies = Arrays.copyOf(latencies, answered);
+        Arrays.sort(this.sortedLatencies);
+        this.unanswered = decisions.size() - answered;
+        this.compared = compared;
+        this.changed = changed;
+    }
+
+    /**
+     * The number of server messages replayed, rounds included.
+     */
+    public int getMessages() {
+        return messages;
+    }
+
+    /**
+     * The number of journal frames, server messages or recorded answers, that could not be read.
+     */
+    public int getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    public int getRounds() {
+        return decisions.size();
+    }
+
+    /**
+     * The number of rounds not answered within the answer timeout.
+     */
+    public int getUnanswered() {
+        return unanswered;
+    }
+
+    /**
+     * The number of messages for which the listener threw.
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * The number of answers sent for a round that had already been answered.
+     */
+    public long getDuplicateAnswers() {
+        return duplicateAnswers;
+    }
+
+    /**
+     * The number of raw text messages the listener sent instead of answers.
+     */
+    public long getIgnoredMessages() {
+        return ignoredMessages;
+    }
+
+    /**
+     * The number of answered rounds that also have an answer in the journal.
+     */
+    public int getComparedDecisions() {
+        return compared;
+    }
+
+    /**
+     * The number of compared rounds for which the listener chose other actions than recorded.
+     */
+    public int getChangedDecisions() {
+        return changed;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRoundsPerSecond() {
+        return elapsedNanos > 0 ? decisions.size() * 1e9 / elapsedNanos : 0d;
+    }
+
+    /**
+     * The latency below which the given fraction of the answered rounds was answered.
+     *
+     * @param fraction between 0 and 1, e.g. 0.99 for the 99th percentile.
+     * @return the latency in nanoseconds, or 0 if no round was answered.
+     */
+    public long getLatencyPercentile(double fraction) {
+        if (sortedLatencies.length == 0) return 0L;
+        int index = (int) Math.ceil(fraction * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+    }
+
+    public List<Decision> getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * Prints a summary of this report.
+     */
+    public void print(PrintStream out) {
+        out.printf("Replayed %d messages, %d rounds in %d ms: %.1f rounds/sec%n",
+                messages, getRounds(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getRoundsPerSecond());
+        out.printf("Latency us: p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+                micros(getLatencyPercentile(0.50)),
+                micros(getLatencyPercentile(0.90)),
+                micros(getLatencyPercentile(0.99)),
+                micros(getLatencyPercentile(0.999)),
+                micros(getLatencyPercentile(1.0)));
+        out.printf("Unanswered: %d | Duplicate answers: %d | Ignored messages: %d | Listener failures: %d | Skipped frames: %d%n",
+                unanswered, duplicateAnswers, ignoredMessages, failures, skippedFrames);
+        out.printf("Decisions changed vs. journal: %d of %d%n", changed, compared);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * What the listener answered for a single round.
+     */
+    public static final class Decision {
+
+        private final long round;
+        private final UUID roundId;
+        private final List<Long> actionIds;
+        private final List<Long> recordedActionIds;
+        private final long latencyNanos;
+
+        Decision(long round, UUID roundId, List<Long> actionIds, List<Long> recordedActionIds, long latencyNanos) {
+            this.round = round;
+            this.roundId = roundId;
+            this.actionIds = actionIds;
+            this.recordedActionIds = recordedActionIds;
+            this.latencyNanos = latencyNanos;
+        }
+
+        public long getRound() {
+            return round;
+        }
+
+        public UUID getRoundId() {
+            return roundId;
+        }
+
+        /**
+         * The actions chosen during the replay, or null if the round was not answered.
+         */
+        public List<Long> getActionIds() {
+            return actionIds;
+        }
+
+        /**
+         * The actions answered in the recorded session, or null if the journal has no answer.
+         */
+        public List<Long> getRecordedActionIds() {
+            return recordedActionIds;
+        }
+
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public boolean isAnswered() {
+            return actionIds != null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package be.thebeehive.htf.library.replay;
+
+import be.thebeehive.htf.library.HtfClientListener;
+import be.thebeehive.htf.library.journal.JournalDirection;
+import be.thebeehive.htf.library.journal.SessionJournalReader;
+import be.thebeehive.htf.library.protocol.client.SelectActionsClientMessage;
+import be.thebeehive.htf.library.protocol.server.ErrorServerMessage;
+import be.thebeehive.htf.library.protocol.server.GameEndedServerMessage;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessage;
+import be.thebeehive.htf.library.protocol.server.WarningServerMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Replays a recorded {@link be.thebeehive.htf.library.journal.SessionJournal} into any
+ * {@link HtfClientListener}, as fast as the listener allows and without a socket.
+ * <p>
+ * The journal is read and decoded up front, so only the listener is measured. Frames that cannot
+ * be read, in either direction, are skipped and counted in {@link ReplayReport#getSkippedFrames()}. The server
+ * messages are then handed to the listener in the recorded order, with a {@link ReplayClient}
+ * capturing the answers. After each round the runner waits for its answer before the next
+ * message, so listeners that answer from another thread are measured the same way.
+ * The time between handing a round to the listener and its answer is the round's latency.
+ */
+public class ReplayRunner {
+
+    public static final long DEFAULT_ANSWER_TIMEOUT_MILLIS = 5000;
+
+    private final HtfClientListener listener;
+    private final long answerTimeoutMillis;
+
+    public ReplayRunner(HtfClientListener listener) {
+        this(listener, DEFAULT_ANSWER_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param listener            the listener to replay into.
+     * @param answerTimeoutMillis how long to wait for the answer to a round before moving on.
+     */
+    public ReplayRunner(HtfClientListener listener, long answerTimeoutMillis) {
+        this.listener = listener;
+        this.answerTimeoutMillis = answerTimeoutMillis;
+    }
+
+    /**
+     * Replays every session journaled in a directory.
+     */
+    public ReplayReport run(Path directory) throws IOException, InterruptedException {
+        return this.run(SessionJournalReader.segments(directory));
+    }
+
+    /**
+     * Replays the given journal segments, in order.
+     */
+    public ReplayReport run(List<Path> segments) throws IOException, InterruptedException {
+        ReplayClient client;
+        try {
+            client = new ReplayClient(this.listener);
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        List<ServerMessage> messages = new ArrayList<>();
+        Map<UUID, List<Long>> recorded = new HashMap<>();
+        int skipped = this.load(segments, client, messages, recorded);
+
+        List<ReplayReport.Decision> decisions = new ArrayList<>();
+        int failures = 0;
+        long start = System.nanoTime();
+
+        for (ServerMessage msg : messages) {
+            long dispatched = System.nanoTime();
+            try {
+                this.dispatch(client, msg);
+            } catch (Exception ex) {
+                failures++;
+                System.err.println("Listener failed during replay ...\n" + ex);
+            }
+
+            if (msg instanceof GameRoundServerMessage) {
+                GameRoundServerMessage round = (GameRoundServerMessage) msg;
+                ReplayClient.Answer answer = client.awaitAnswer(round.getRoundId(), this.answerTimeoutMillis);
+                decisions.add(new ReplayReport.Decision(
+                        round.getRound(),
+                        round.getRoundId(),
+                        answer != null ? answer.getMessage().getActionIds() : null,
+                        recorded.get(round.getRoundId()),
+                        answer != null ? answer.getSentNanos() - dispatched : 0L
+                ));
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        return new ReplayReport(messages.size(), skipped, failures, client.getDuplicateAnswers(),
+                client.getIgnoredMessages(), elapsed, decisions);
+    }
+
+    /**
+     * Reads the server messages and the recorded answers of the journal.
+     *
+     * @return the number of frames skipped because they could not be read.
+     */
+    private int load(List<Path> segments, ReplayClient client,
+                     List<ServerMessage> messages, Map<UUID, List<Long>> recorded) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        int skipped = 0;
+        try (SessionJournalReader reader = new SessionJournalReader(segments)) {
+            while (reader.next()) {
+                if (reader.getDirection() == JournalDirection.INBOUND) {
+                    try {
+                        messages.add(client.decode(reader.getFrame()));
+                    } catch (IOException ex) {
+                        skipped++;
+                        System.err.println("Skipping undecodable frame ...\n" + ex);
+                    }
+                } else if (reader.getDirection() == JournalDirection.OUTBOUND) {
+                    try {
+                        SelectActionsClientMessage answer = objectMapper.readValue(reader.getFrame(), SelectActionsClientMessage.class);
+                        recorded.putIfAbsent(answer.getRoundId(), answer.getActionIds());
+                    } catch (IOException ex) {
+                        skipped++;
+                        System.err.println("Skipping unreadable answer ...\n" + ex);
+                    }
+                }
+            }
+        }
+        return skipped;
+    }
+
+    private void dispatch(ReplayClient client, ServerMessage msg) throws Exception {
+        if (msg instanceof ErrorServerMessage) {
+            this.listener.onErrorServerMessage(client, (ErrorServerMessage) msg);
+        } else if (msg instanceof GameEndedServerMessage) {
+            this.listener.onGameEndedServerMessage(client, (GameEndedServerMessage) msg);
+        } else if (msg instanceof GameRoundServerMessage) {
+            this.listener.onGameRoundServerMessage(client, (GameRoundServerMessage) msg);
+        } else if (msg instanceof WarningServerMessage) {
+            this.listener.onWarningServerMessage(client, (WarningServerMessage) msg);
+        }
+    }
+}
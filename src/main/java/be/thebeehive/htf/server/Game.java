@@ -0,0 +1,445 @@
+package be.thebeehive.htf.server;
+
+import be.thebeehive.htf.client.ClientUtils;
+import be.thebeehive.htf.library.protocol.server.GameEndedServerMessage;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Action;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Checkpoint;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Effect;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Submarine;
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage.Values;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * The rules of a single game, shared by the local servers and the headless simulator.
+ * <p>
+ * A game is fully determined by its seed and the answers of its players. Every round all
+ * submarines get the same effects and actions. A submarine's round is played step by step: at
+ * step {@code s} its {@code s}-th chosen action is applied first, removing every effect whose id
+ * equals the action's effectId that has not hit yet, then the remaining effects of step {@code s}
+ * hit. Values are combined with {@link ClientUtils#sumValues}, and a submarine dies as soon as
+ * {@link ClientUtils#isDead} holds. Every checkpoint adds its values to the submarines that are
+ * still alive.
+ * <p>
+ * Besides the players every game has built-in bots, which are part of the competing submarines
+ * and of the leaderboard. Instances are not thread-safe.
+ */
+public class Game {
+
+    public static final int MAX_STEPS = 4;
+
+    private static final String BOT_PREFIX = "Bot ";
+
+    private final GameSettings settings;
+    private final Random random;
+    private final Sub[] subs;
+    private final int players;
+
+    private long round;
+    private UUID roundId;
+    private long nextId = 1;
+    private List<Effect> effects = Collections.emptyList();
+    private List<Action> actions = Collections.emptyList();
+    private final Map<Long, Integer> actionIndex = new HashMap<>();
+    private Checkpoint checkpoint;
+    // Answers are accepted from nextRound() until the round is resolved
+    private boolean roundOpen;
+
+    private boolean[] removed = new boolean[0];
+
+    /**
+     * @param settings    the rules.
+     * @param seed        the seed this game is generated from.
+     * @param playerNames the names of the players; the bots are added after them.
+     */
+    public Game(GameSettings settings, long seed, List<String> playerNames) {
+        this.settings = settings;
+        this.random = new Random(seed);
+        this.players = playerNames.size();
+        this.subs = new Sub[this.players + settings.getBots()];
+        for (int i = 0; i < this.subs.length; i++) {
+            String name = i < this.players ? playerNames.get(i) : BOT_PREFIX + (i - this.players + 1);
+            this.subs[i] = new Sub(name, values(settings.getStartHull(), settings.getStartHull(),
+                    settings.getStartCrew(), settings.getStartCrew()));
+            if (i >= this.players) {
+                // Every bot has its own temper, so they do not all play the same game
+                this.subs[i].crewWeight = 25 + this.random.nextInt(200);
+                this.subs[i].maxActions = 1 + this.random.nextInt(MAX_STEPS);
+            }
+        }
+        this.checkpoint = nextCheckpoint(settings.getCheckpointInterval());
+    }
+
+    /**
+     * Generates the next round. Players that were alive can answer it until {@link #resolveRound()}.
+     */
+    public void nextRound() {
+        this.round++;
+        this.roundOpen = true;
+        this.roundId = new UUID(this.random.nextLong(), this.random.nextLong());
+
+        double difficulty = 1d + (double) (this.round - 1) / this.settings.getDifficultyRounds();
+        int effectCount = between(this.settings.getMinEffects(), this.settings.getMaxEffects());
+        List<Effect> effects = new ArrayList<>(effectCount);
+        for (int i = 0; i < effectCount; i++) {
+            Effect effect = new Effect();
+            effect.setId(this.nextId++);
+            effect.setStep(1 + this.random.nextInt(MAX_STEPS));
+            effect.setValues(effectValues(difficulty));
+            effects.add(effect);
+        }
+
+        int actionCount = between(this.settings.getMinActions(), this.settings.getMaxActions());
+        List<Action> actions = new ArrayList<>(actionCount);
+        this.actionIndex.clear();
+        for (int i = 0; i < actionCount; i++) {
+            Action action = new Action();
+            action.setId(this.nextId++);
+            if (!effects.isEmpty() && this.random.nextInt(5) < 2) {
+                action.setEffectId(effects.get(this.random.nextInt(effects.size())).getId());
+                action.setValues(values(-this.random.nextInt(3_000), 0, -this.random.nextInt(30), 0));
+            } else {
+                action.setEffectId(-1);
+                action.setValues(actionValues());
+            }
+            actions.add(action);
+            this.actionIndex.put(action.getId(), i);
+        }
+
+        this.effects = Collections.unmodifiableList(effects);
+        this.actions = Collections.unmodifiableList(actions);
+        if (this.removed.length < effectCount) {
+            this.removed = new boolean[effectCount];
+        }
+        for (Sub sub : this.subs) {
+            sub.chosenCount = 0;
+            sub.answered = false;
+        }
+    }
+
+    /**
+     * The current round as the given player sees it.
+     */
+    public GameRoundServerMessage roundMessage(int player) {
+        GameRoundServerMessage msg = new GameRoundServerMessage();
+        msg.setRound(this.round);
+        msg.setRoundId(this.roundId);
+        msg.setNextCheckpoint(this.checkpoint);
+        msg.setEffects(this.effects);
+        msg.setActions(this.actions);
+        msg.setOurSubmarine(this.subs[player].toSubmarine());
+
+        List<Submarine> competing = new ArrayList<>(this.subs.length - 1);
+        for (int i = 0; i < this.subs.length; i++) {
+            if (i != player) competing.add(this.subs[i].toSubmarine());
+        }
+        msg.setCompetingSubmarines(competing);
+        return msg;
+    }
+
+    /**
+     * Registers a player's answer for the current round. Answers arriving after the round was
+     * resolved are rejected.
+     *
+     * @return a warning for the player, or null if the answer was accepted as is.
+     */
+    public String submit(int player, UUID roundId, List<Long> actionIds) {
+        Sub sub = this.subs[player];
+        if (!this.roundId.equals(roundId)) {
+            return "Round " + this.round + " | Ignored answer for round " + roundId + ", not the current round";
+        }
+        if (!this.roundOpen) {
+            return "Round " + this.round + " | Ignored answer, this round was already played";
+        }
+        if (sub.answered) {
+            return "Round " + this.round + " | Ignored answer, this round was already answered";
+        }
+        sub.answered = true;
+        if (!sub.alive || actionIds == null) {
+            return null;
+        }
+
+        String warning = null;
+        for (Long actionId : actionIds) {
+            Integer index = actionId != null ? this.actionIndex.get(actionId) : null;
+            if (index == null) {
+                warning = "Round " + this.round + " | Ignored unknown action " + actionId;
+            } else if (sub.hasChosen(index)) {
+                warning = "Round " + this.round + " | Ignored duplicate action " + actionId;
+            } else if (sub.chosenCount == MAX_STEPS) {
+                warning = "Round " + this.round + " | Ignored actions beyond the first " + MAX_STEPS;
+            } else {
+                sub.chosen[sub.chosenCount++] = index;
+            }
+        }
+        return warning;
+    }
+
+    /**
+     * Whether the player already answered the current round.
+     */
+    public boolean hasAnswered(int player) {
+        return this.subs[player].answered;
+    }
+
+    /**
+     * Whether every player that is still alive answered the current round.
+     */
+    public boolean allAnswered() {
+        for (int i = 0; i < this.players; i++) {
+            if (this.subs[i].alive && !this.subs[i].answered) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Plays the current round for every submarine: the players with the actions they submitted,
+     * or none, and the bots with their own choice.
+     */
+    public void resolveRound() {
+        this.roundOpen = false;
+        for (int i = this.players; i < this.subs.length; i++) {
+            if (this.subs[i].alive) chooseForBot(this.subs[i]);
+        }
+
+        for (Sub sub : this.subs) {
+            if (!sub.alive) continue;
+            play(sub);
+            if (!sub.alive) continue;
+
+            sub.lastRound = this.round;
+            sub.points += 1;
+        }
+
+        if (this.round == this.checkpoint.getRound()) {
+            for (Sub sub : this.subs) {
+                if (!sub.alive) continue;
+                sub.values = ClientUtils.sumValues(sub.values, this.checkpoint.getValues());
+                sub.points += this.settings.getCheckpointPoints();
+            }
+            this.checkpoint = nextCheckpoint(this.round + this.settings.getCheckpointInterval());
+        }
+    }
+
+    private void play(Sub sub) {
+        Arrays.fill(this.removed, false);
+        for (int step = 1; step <= MAX_STEPS; step++) {
+            if (step <= sub.chosenCount) {
+                Action action = this.actions.get(sub.chosen[step - 1]);
+                if (apply(sub, action.getValues())) return;
+                for (int e = 0; e < this.effects.size(); e++) {
+                    Effect effect = this.effects.get(e);
+                    if (effect.getId() == action.getEffectId() && effect.getStep() >= step) this.removed[e] = true;
+                }
+            }
+            for (int e = 0; e < this.effects.size(); e++) {
+                Effect effect = this.effects.get(e);
+                if (effect.getStep() == step && !this.removed[e]) {
+                    if (apply(sub, effect.getValues())) return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the submarine died.
+     */
+    private boolean apply(Sub sub, Values delta) {
+        sub.values = ClientUtils.sumValues(sub.values, delta);
+        if (ClientUtils.isDead(sub.values)) {
+            sub.alive = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Bots take the actions that add the most, counting the effects an action removes,
+     * valuing crew by their own weight and taking at most their own number of actions.
+     */
+    private void chooseForBot(Sub bot) {
+        double[] scores = new double[this.actions.size()];
+        Integer[] order = new Integer[scores.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            scores[i] = botScore(this.actions.get(i), bot.crewWeight);
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> -scores[i]));
+
+        for (int i : order) {
+            if (bot.chosenCount == bot.maxActions || scores[i] <= 0d) break;
+            bot.chosen[bot.chosenCount++] = i;
+        }
+    }
+
+    private double botScore(Action action, double crewWeight) {
+        double score = worth(action.getValues(), crewWeight);
+        for (Effect effect : this.effects) {
+            if (effect.getId() == action.getEffectId()) score -= worth(effect.getValues(), crewWeight);
+        }
+        return score;
+    }
+
+    private static double worth(Values values, double crewWeight) {
+        return values.getHullStrength().doubleValue() + crewWeight * values.getCrewHealth().doubleValue();
+    }
+
+    public boolean isOver() {
+        if (this.round >= this.settings.getMaxRounds()) return true;
+        for (int i = 0; i < this.players; i++) {
+            if (this.subs[i].alive) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The leaderboard of this game, best first.
+     */
+    public GameEndedServerMessage endMessage() {
+        Sub[] ranked = this.subs.clone();
+        Arrays.sort(ranked, Comparator.comparingLong((Sub sub) -> -sub.points).thenComparing(sub -> sub.name));
+
+        List<GameEndedServerMessage.LeaderboardTeam> leaderboard = new ArrayList<>(ranked.length);
+        for (Sub sub : ranked) {
+            GameEndedServerMessage.LeaderboardTeam team = new GameEndedServerMessage.LeaderboardTeam();
+            team.setName(sub.name);
+            team.setLastRound(sub.lastRound);
+            team.setPoints(BigDecimal.valueOf(sub.points));
+            leaderboard.add(team);
+        }
+
+        GameEndedServerMessage msg = new GameEndedServerMessage();
+        msg.setRound(this.round);
+        msg.setLeaderboard(leaderboard);
+        return msg;
+    }
+
+    public long getRound() {
+        return round;
+    }
+
+    public UUID getRoundId() {
+        return roundId;
+    }
+
+    /**
+     * Whether the current round still accepts answers, i.e. it has not been resolved yet.
+     */
+    public boolean isRoundOpen() {
+        return roundOpen;
+    }
+
+    public int getPlayerCount() {
+        return players;
+    }
+
+    public String getPlayerName(int player) {
+        return this.subs[player].name;
+    }
+
+    public boolean isAlive(int player) {
+        return this.subs[player].alive;
+    }
+
+    /**
+     * The points the player scored so far: one per survived round plus the checkpoint bonuses.
+     */
+    public long getPoints(int player) {
+        return this.subs[player].points;
+    }
+
+    private Checkpoint nextCheckpoint(long round) {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.setRound(round);
+        checkpoint.setValues(values(
+                10_000 + this.random.nextInt(30_000),
+                this.random.nextInt(10_000),
+                50 + this.random.nextInt(200),
+                this.random.nextInt(100)
+        ));
+        return checkpoint;
+    }
+
+    private Values effectValues(double difficulty) {
+        if (this.random.nextInt(10) < 3) {
+            return values(this.random.nextInt(8_000), 0, this.random.nextInt(60), 0);
+        }
+        long hull = -(long) ((2_000 + this.random.nextInt(13_000)) * difficulty);
+        long crew = this.random.nextInt(3) == 0 ? 0 : -(long) ((10 + this.random.nextInt(140)) * difficulty);
+        return values(hull, 0, crew, 0);
+    }
+
+    private Values actionValues() {
+        long maxHull = this.random.nextInt(3) == 0 ? this.random.nextInt(10_000) - 5_000 : 0;
+        long maxCrew = this.random.nextInt(3) == 0 ? this.random.nextInt(100) - 50 : 0;
+        return values(
+                this.random.nextInt(25_000) - 10_000,
+                maxHull,
+                this.random.nextInt(220) - 100,
+                maxCrew
+        );
+    }
+
+    private int between(int min, int max) {
+        return min + this.random.nextInt(Math.max(1, max - min + 1));
+    }
+
+    private static Values values(long hull, long maxHull, long crew, long maxCrew) {
+        Values values = new Values();
+        values.setHullStrength(BigDecimal.valueOf(hull));
+        values.setMaxHullStrength(BigDecimal.valueOf(maxHull));
+        values.setCrewHealth(BigDecimal.valueOf(crew));
+        values.setMaxCrewHealth(BigDecimal.valueOf(maxCrew));
+        return values;
+    }
+
+    /**
+     * A submarine taking part in the game.
+     */
+    private static final class Sub {
+
+        final String name;
+        Values values;
+        boolean alive = true;
+        long lastRound;
+        long points;
+
+        final int[] chosen = new int[MAX_STEPS];
+        int chosenCount;
+        boolean answered;
+
+        // Only used for bots
+        double crewWeight;
+        int maxActions;
+
+        Sub(String name, Values values) {
+            this.name = name;
+            this.values = values;
+        }
+
+        boolean hasChosen(int index) {
+            for (int i = 0; i < chosenCount; i++) {
+                if (chosen[i] == index) return true;
+            }
+            return false;
+        }
+
+        Submarine toSubmarine() {
+            Submarine submarine = new Submarine();
+            submarine.setName(name);
+            submarine.setValues(values);
+            submarine.setAlive(alive);
+            return submarine;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package be.thebeehive.htf.server;
+
+import be.thebeehive.htf.library.protocol.client.ClientMessage;
+import be.thebeehive.htf.library.protocol.client.SelectActionsClientMessage;
+import be.thebeehive.htf.library.protocol.server.ErrorServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessage;
+import be.thebeehive.htf.library.protocol.server.WarningServerMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.java_websocket.WebSocket;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs {@link Game}s for a fixed group of websocket connections on its own round clock.
+ * <p>
+ * Every round is sent to all connected players. It is resolved once every living player
+ * answered, or when the round timeout passes; late players get a {@link WarningServerMessage}
+ * after {@link GameSettings#getWarningAfterMillis()} and an {@link ErrorServerMessage} when the
+ * round is played without their actions. A round is resolved exactly once: answers and
+ * disconnects arriving after that are ignored. The next round starts
+ * {@link GameSettings#getRoundIntervalMillis()} later. Players that disconnect keep playing
+ * without actions. After a game ended the next one starts, unless configured otherwise or every
+ * player left.
+ * <p>
+ * All state is only touched on the room's clock thread: messages received on other threads
+ * are handed over with {@link #receive}, and the clock executor must be single-threaded.
+ */
+class GameRoom {
+
+    /**
+     * Receives what happens in a room, e.g. to keep statistics. Called on the clock thread.
+     */
+    interface Listener {
+
+        default void onGameStarted(GameRoom room) {
+        }
+
+        default void onAnswer(GameRoom room, long latencyNanos) {
+        }
+
+        default void onRoundPlayed(GameRoom room, int timedOutPlayers) {
+        }
+
+        default void onGameEnded(GameRoom room) {
+        }
+    }
+
+    private final GameSettings settings;
+    private final LongSupplier seeds;
+    private final ScheduledExecutorService clock;
+    private final ObjectMapper objectMapper;
+    private final Listener listener;
+
+    private final List<WebSocket> conns;
+    private final List<String> names;
+
+    private Game game;
+    private long roundSentNanos;
+    private ScheduledFuture<?> warning;
+    private ScheduledFuture<?> timeout;
+    private boolean stopped;
+
+    /**
+     * @param settings     the rules.
+     * @param seeds        supplies the seed of every game started in this room.
+     * @param clock        the single-threaded executor this room runs on.
+     * @param objectMapper encodes and decodes the protocol messages.
+     * @param listener     receives what happens in the room.
+     * @param conns        the players' connections.
+     * @param names        the players' names, in the same order.
+     */
+    GameRoom(GameSettings settings, LongSupplier seeds, ScheduledExecutorService clock, ObjectMapper objectMapper,
+             Listener listener, List<WebSocket> conns, List<String> names) {
+        this.settings = settings;
+        this.seeds = seeds;
+        this.clock = clock;
+        this.objectMapper = objectMapper;
+        this.listener = listener;
+        this.conns = new ArrayList<>(conns);
+        this.names = new ArrayList<>(names);
+    }
+
+    /**
+     * Starts the first game.
+     */
+    void start() {
+        this.clock.execute(this::startGame);
+    }
+
+    /**
+     * Handles a message received from a player, on any thread.
+     */
+    void receive(int player, String message) {
+        long receivedNanos = System.nanoTime();
+        this.clock.execute(() -> this.handle(player, message, receivedNanos));
+    }
+
+    /**
+     * Handles a player that disconnected, on any thread.
+     */
+    void leave(int player) {
+        this.clock.execute(() -> {
+            this.conns.set(player, null);
+            if (this.isEmpty()) {
+                this.stopped = true;
+                this.cancelTimers();
+            } else if (this.game != null && this.game.isRoundOpen() && !this.game.hasAnswered(player)) {
+                this.game.submit(player, this.game.getRoundId(), Collections.<Long>emptyList());
+                this.finishIfAnswered();
+            }
+        });
+    }
+
+    Game getGame() {
+        return this.game;
+    }
+
+    List<String> getNames() {
+        return Collections.unmodifiableList(this.names);
+    }
+
+    private void startGame() {
+        if (this.stopped) return;
+        this.game = new Game(this.settings, this.seeds.getAsLong(), this.names);
+        this.listener.onGameStarted(this);
+        this.nextRound();
+    }
+
+    private void nextRound() {
+        if (this.stopped) return;
+        this.game.nextRound();
+        this.roundSentNanos = System.nanoTime();
+        for (int player = 0; player < this.conns.size(); player++) {
+            if (this.conns.get(player) != null) {
+                this.send(player, this.game.roundMessage(player));
+            } else {
+                this.game.submit(player, this.game.getRoundId(), Collections.<Long>emptyList());
+            }
+        }
+
+        long round = this.game.getRound();
+        if (this.settings.getWarningAfterMillis() < this.settings.getRoundTimeoutMillis()) {
+            this.warning = this.clock.schedule(() -> this.warnLate(round),
+                    this.settings.getWarningAfterMillis(), TimeUnit.MILLISECONDS);
+        }
+        this.timeout = this.clock.schedule(() -> this.timeOut(round),
+                this.settings.getRoundTimeoutMillis(), TimeUnit.MILLISECONDS);
+        this.finishIfAnswered();
+    }
+
+    private void handle(int player, String message, long receivedNanos) {
+        if (this.stopped || this.game == null) return;
+
+        ClientMessage msg;
+        try {
+            msg = this.objectMapper.readValue(message, ClientMessage.class);
+        } catch (IOException ex) {
+            this.send(player, error("Could not read message: " + ex.getMessage()));
+            return;
+        }
+        if (!(msg instanceof SelectActionsClientMessage)) return;
+
+        SelectActionsClientMessage answer = (SelectActionsClientMessage) msg;
+        boolean current = this.game.isRoundOpen() && this.game.getRoundId().equals(answer.getRoundId())
+                && !this.game.hasAnswered(player);
+        String problem = this.game.submit(player, answer.getRoundId(), answer.getActionIds());
+        if (current) {
+            this.listener.onAnswer(this, receivedNanos - this.roundSentNanos);
+        }
+        if (problem != null) {
+            this.send(player, warning(problem));
+        }
+        this.finishIfAnswered();
+    }
+
+    private void warnLate(long round) {
+        if (this.stopped || this.game.getRound() != round || !this.game.isRoundOpen()) return;
+        for (int player = 0; player < this.conns.size(); player++) {
+            if (this.game.isAlive(player) && !this.game.hasAnswered(player)) {
+                this.send(player, warning("Round " + round + " | No answer after "
+                        + this.settings.getWarningAfterMillis() + " ms"));
+            }
+        }
+    }
+
+    private void timeOut(long round) {
+        if (this.stopped || this.game.getRound() != round || !this.game.isRoundOpen() || this.game.allAnswered()) return;
+
+        int late = 0;
+        for (int player = 0; player < this.conns.size(); player++) {
+            if (this.game.isAlive(player) && !this.game.hasAnswered(player)) {
+                late++;
+                this.send(player, error("Round " + round + " | No answer within "
+                        + this.settings.getRoundTimeoutMillis() + " ms, playing the round without actions"));
+            }
+        }
+        this.finishRound(late);
+    }
+
+    private void finishIfAnswered() {
+        // A round that already resolved is closed until the next one starts, late answers must not resolve it again
+        if (this.game.isRoundOpen() && this.game.allAnswered()) {
+            this.finishRound(0);
+        }
+    }
+
+    private void finishRound(int timedOutPlayers) {
+        this.cancelTimers();
+        this.game.resolveRound();
+        this.listener.onRoundPlayed(this, timedOutPlayers);
+
+        if (!this.game.isOver()) {
+            this.schedule(this::nextRound);
+            return;
+        }
+
+        ServerMessage ended = this.game.endMessage();
+        for (int player = 0; player < this.conns.size(); player++) {
+            this.send(player, ended);
+        }
+        this.listener.onGameEnded(this);
+        if (this.settings.isRestartGames()) {
+            this.schedule(this::startGame);
+        } else {
+            this.stopped = true;
+        }
+    }
+
+    private void schedule(Runnable task) {
+        if (this.settings.getRoundIntervalMillis() > 0) {
+            this.clock.schedule(task, this.settings.getRoundIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            // Through the executor, so a long game never grows the stack
+            this.clock.execute(task);
+        }
+    }
+
+    private void cancelTimers() {
+        if (this.warning != null) this.warning.cancel(false);
+        if (this.timeout != null) this.timeout.cancel(false);
+        this.warning = null;
+        this.timeout = null;
+    }
+
+    private boolean isEmpty() {
+        for (WebSocket conn : this.conns) {
+            if (conn != null) return false;
+        }
+        return true;
+    }
+
+    private void send(int player, ServerMessage msg) {
+        WebSocket conn = this.conns.get(player);
+        if (conn == null || !conn.isOpen()) return;
+        try {
+            conn.send(this.objectMapper.writeValueAsString(msg));
+        } catch (JsonProcessingException ex) {
+            System.err.println("Failed to encode message ...\n" + ex);
+        }
+    }
+
+    private static WarningServerMessage warning(String text) {
+        WarningServerMessage msg = new WarningServerMessage();
+        msg.setMsg(text);
+        return msg;
+    }
+
+    private static ErrorServerMessage error(String text) {
+        ErrorServerMessage msg = new ErrorServerMessage();
+        msg.setMsg(text);
+        return msg;
+    }
+}
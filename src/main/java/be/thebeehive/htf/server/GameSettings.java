@@ -0,0 +1,205 @@
+package be.thebeehive.htf.server;
+
+/**
+ * Settings of the games run by the local servers and the {@link Game} engine.
+ * All sizes are per round, all values are in game units (the same units the protocol uses).
+ */
+public class GameSettings {
+
+    private long seed = 1L;
+    private int maxRounds = 200;
+    private int bots = 3;
+
+    private int minEffects = 3;
+    private int maxEffects = 8;
+    private int minActions = 8;
+    private int maxActions = 20;
+
+    private long startHull = 150_000;
+    private long startCrew = 1_000;
+
+    private int checkpointInterval = 10;
+    private int checkpointPoints = 10;
+
+    // Damage grows by 100% every this many rounds
+    private int difficultyRounds = 50;
+
+    private long roundIntervalMillis = 0;
+    private long roundTimeoutMillis = 1_000;
+    private long warningAfterMillis = 500;
+    private boolean restartGames = true;
+
+    public GameSettings() {
+
+    }
+
+    /**
+     * The seed of the first game; every next game on the same server uses the next seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public GameSettings setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * The game ends after this many rounds, or earlier when every player is dead.
+     */
+    public int getMaxRounds() {
+        return maxRounds;
+    }
+
+    public GameSettings setMaxRounds(int maxRounds) {
+        this.maxRounds = maxRounds;
+        return this;
+    }
+
+    /**
+     * The number of built-in competing submarines in every game.
+     */
+    public int getBots() {
+        return bots;
+    }
+
+    public GameSettings setBots(int bots) {
+        this.bots = bots;
+        return this;
+    }
+
+    public int getMinEffects() {
+        return minEffects;
+    }
+
+    public int getMaxEffects() {
+        return maxEffects;
+    }
+
+    public GameSettings setEffects(int minEffects, int maxEffects) {
+        this.minEffects = minEffects;
+        this.maxEffects = maxEffects;
+        return this;
+    }
+
+    public int getMinActions() {
+        return minActions;
+    }
+
+    public int getMaxActions() {
+        return maxActions;
+    }
+
+    public GameSettings setActions(int minActions, int maxActions) {
+        this.minActions = minActions;
+        this.maxActions = maxActions;
+        return this;
+    }
+
+    /**
+     * The hull strength every submarine starts with, which is also its starting maximum.
+     */
+    public long getStartHull() {
+        return startHull;
+    }
+
+    public GameSettings setStartHull(long startHull) {
+        this.startHull = startHull;
+        return this;
+    }
+
+    /**
+     * The crew health every submarine starts with, which is also its starting maximum.
+     */
+    public long getStartCrew() {
+        return startCrew;
+    }
+
+    public GameSettings setStartCrew(long startCrew) {
+        this.startCrew = startCrew;
+        return this;
+    }
+
+    /**
+     * Every this many rounds the submarines that are still alive reach a checkpoint.
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public GameSettings setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+        return this;
+    }
+
+    /**
+     * The bonus points for reaching a checkpoint alive; every survived round is worth one point.
+     */
+    public int getCheckpointPoints() {
+        return checkpointPoints;
+    }
+
+    public GameSettings setCheckpointPoints(int checkpointPoints) {
+        this.checkpointPoints = checkpointPoints;
+        return this;
+    }
+
+    public int getDifficultyRounds() {
+        return difficultyRounds;
+    }
+
+    public GameSettings setDifficultyRounds(int difficultyRounds) {
+        this.difficultyRounds = difficultyRounds;
+        return this;
+    }
+
+    /**
+     * The pause between the end of a round and the start of the next one.
+     */
+    public long getRoundIntervalMillis() {
+        return roundIntervalMillis;
+    }
+
+    public GameSettings setRoundIntervalMillis(long roundIntervalMillis) {
+        this.roundIntervalMillis = roundIntervalMillis;
+        return this;
+    }
+
+    /**
+     * How long a client gets to answer a round. After that an ErrorServerMessage is sent and the
+     * round is played without the client's actions. A round ends early once every client answered.
+     */
+    public long getRoundTimeoutMillis() {
+        return roundTimeoutMillis;
+    }
+
+    public GameSettings setRoundTimeoutMillis(long roundTimeoutMillis) {
+        this.roundTimeoutMillis = roundTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * After this long without an answer a WarningServerMessage is sent. Not sent when not below the timeout.
+     */
+    public long getWarningAfterMillis() {
+        return warningAfterMillis;
+    }
+
+    public GameSettings setWarningAfterMillis(long warningAfterMillis) {
+        this.warningAfterMillis = warningAfterMillis;
+        return this;
+    }
+
+    /**
+     * Whether a new game starts for the connected clients after a game ended.
+     */
+    public boolean isRestartGames() {
+        return restartGames;
+    }
+
+    public GameSettings setRestartGames(boolean restartGames) {
+        this.restartGames = restartGames;
+        return this;
+    }
+}
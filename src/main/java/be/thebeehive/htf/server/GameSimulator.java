@@ -0,0 +1,190 @@
+package be.thebeehive.htf.server;
+
+import be.thebeehive.htf.library.HtfClientListener;
+import be.thebeehive.htf.library.protocol.server.ErrorServerMessage;
+import be.thebeehive.htf.library.protocol.server.GameEndedServerMessage;
+import be.thebeehive.htf.library.protocol.server.WarningServerMessage;
+import be.thebeehive.htf.library.replay.ReplayClient;
+
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plays complete {@link Game}s in memory, without websockets or JSON.
+ * <p>
+ * Every player is an {@link HtfClientListener}; the round messages are handed to it directly and
+ * its answer is captured by a {@link ReplayClient}. A listener that answers from another thread
+ * gets up to {@link GameSettings#getRoundTimeoutMillis()}; after that the round is played without
+ * its actions and it gets an {@link ErrorServerMessage}, like on the real server. Every game gets
+ * fresh listeners from the players' factories, so listeners need not be thread-safe, and games are
+ * played in parallel. Game {@code i} of a run uses seed {@code settings.getSeed() + i}, so runs
+ * are reproducible.
+ * <p>
+ * A run also records how long every player takes to handle a round message, which for a
+ * listener that answers on the calling thread is its decision latency.
+ */
+public class GameSimulator {
+
+    private final GameSettings settings;
+    private final List<String> names = new ArrayList<>();
+    private final List<Supplier<? extends HtfClientListener>> players = new ArrayList<>();
+
+    public GameSimulator(GameSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Adds a player to every game.
+     *
+     * @param name    the player's name on the leaderboard.
+     * @param factory creates the player's listener for a single game.
+     */
+    public GameSimulator addPlayer(String name, Supplier<? extends HtfClientListener> factory) {
+        this.names.add(name);
+        this.players.add(factory);
+        return this;
+    }
+
+    /**
+     * Plays games on all cores.
+     */
+    public SimulationResult run(int games) throws InterruptedException {
+        return this.run(games, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Plays games in parallel.
+     *
+     * @param games       the number of games.
+     * @param parallelism the number of games played at the same time.
+     */
+    public SimulationResult run(int games, int parallelism) throws InterruptedException {
+        if (this.players.isEmpty()) {
+            throw new IllegalStateException("No players added");
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "game-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<LatencyHistogram> decisions = new ArrayList<>(this.players.size());
+            for (int player = 0; player < this.players.size(); player++) {
+                decisions.add(new LatencyHistogram());
+            }
+
+            List<Callable<GameEndedServerMessage>> tasks = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                long seed = this.settings.getSeed() + i;
+                tasks.add(() -> this.play(seed, decisions));
+            }
+
+            long start = System.nanoTime();
+            List<Future<GameEndedServerMessage>> futures = pool.invokeAll(tasks);
+            List<GameEndedServerMessage> results = new ArrayList<>(games);
+            for (Future<GameEndedServerMessage> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException("Game failed", ex.getCause());
+                }
+            }
+            return new SimulationResult(this.names, results, decisions, System.nanoTime() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a single game on the calling thread.
+     *
+     * @return the leaderboard of the game.
+     */
+    public GameEndedServerMessage play(long seed) throws Exception {
+        return this.play(seed, null);
+    }
+
+    /**
+     * @param decisions per player, receives the time it took to handle every round message; may be null.
+     */
+    private GameEndedServerMessage play(long seed, List<LatencyHistogram> decisions) throws Exception {
+        Game game = new Game(this.settings, seed, this.names);
+        List<HtfClientListener> listeners = new ArrayList<>(this.players.size());
+        List<ReplayClient> clients = new ArrayList<>(this.players.size());
+        for (Supplier<? extends HtfClientListener> factory : this.players) {
+            HtfClientListener listener = factory.get();
+            listeners.add(listener);
+            clients.add(newClient(listener));
+        }
+
+        while (!game.isOver()) {
+            game.nextRound();
+            for (int player = 0; player < listeners.size(); player++) {
+                long start = System.nanoTime();
+                listeners.get(player).onGameRoundServerMessage(clients.get(player), game.roundMessage(player));
+                if (decisions != null && game.isAlive(player)) {
+                    decisions.get(player).record(System.nanoTime() - start);
+                }
+            }
+
+            for (int player = 0; player < listeners.size(); player++) {
+                ReplayClient client = clients.get(player);
+                // A sunk submarine may not answer at all, do not wait for it
+                long timeout = game.isAlive(player) ? this.settings.getRoundTimeoutMillis() : 0;
+                ReplayClient.Answer answer = client.awaitAnswer(game.getRoundId(), timeout);
+                if (answer == null) {
+                    if (timeout == 0) continue;
+                    listeners.get(player).onErrorServerMessage(client, error("Round " + game.getRound()
+                            + " | No answer within " + this.settings.getRoundTimeoutMillis()
+                            + " ms, playing the round without actions"));
+                    continue;
+                }
+
+                String problem = game.submit(player, game.getRoundId(), answer.getMessage().getActionIds());
+                if (problem != null) {
+                    listeners.get(player).onWarningServerMessage(client, warning(problem));
+                }
+            }
+            game.resolveRound();
+        }
+
+        GameEndedServerMessage ended = game.endMessage();
+        for (int player = 0; player < listeners.size(); player++) {
+            listeners.get(player).onGameEndedServerMessage(clients.get(player), ended);
+        }
+        return ended;
+    }
+
+    public List<String> getPlayerNames() {
+        return Collections.unmodifiableList(this.names);
+    }
+
+    private static ReplayClient newClient(HtfClientListener listener) {
+        try {
+            return new ReplayClient(listener);
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static WarningServerMessage warning(String text) {
+        WarningServerMessage msg = new WarningServerMessage();
+        msg.setMsg(text);
+        return msg;
+    }
+
+    private static ErrorServerMessage error(String text) {
+        ErrorServerMessage msg = new ErrorServerMessage();
+        msg.setMsg(text);
+        return msg;
+    }
+}
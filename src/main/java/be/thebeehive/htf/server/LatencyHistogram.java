@@ -0,0 +1,81 @@
+package be.thebeehive.htf.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, safe to record into from many threads.
+ * <p>
+ * Values are counted in log-linear buckets: eight buckets per power of two, so every
+ * reported percentile is at most 12.5% above the real value.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        this.counts.incrementAndGet(index(Math.max(0L, nanos)));
+    }
+
+    /**
+     * The value below which the given fraction of the recorded values lies.
+     *
+     * @param fraction between 0 and 1, e.g. 0.99 for the 99th percentile.
+     * @return the upper bound of the bucket holding that percentile, or 0 if nothing was recorded.
+     */
+    public long percentile(double fraction) {
+        return this.percentiles(fraction)[0];
+    }
+
+    /**
+     * Several percentiles, all taken from the same moment, so they never contradict one another
+     * while values are being recorded.
+     *
+     * @param fractions each between 0 and 1.
+     * @return the percentiles, in the order of the fractions.
+     */
+    public long[] percentiles(double... fractions) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+
+        long[] result = new long[fractions.length];
+        if (total == 0) return result;
+        for (int f = 0; f < fractions.length; f++) {
+            long rank = Math.max(1L, (long) Math.ceil(fractions[f] * total));
+            long seen = 0;
+            int i = 0;
+            while (i < BUCKETS - 1 && (seen += snapshot[i]) < rank) i++;
+            result[f] = upperBound(i);
+        }
+        return result;
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += this.counts.get(i);
+        }
+        return total;
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = SUB_BUCKETS + (index & (SUB_BUCKETS - 1));
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
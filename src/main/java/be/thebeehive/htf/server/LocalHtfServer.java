@@ -0,0 +1,138 @@
+package be.thebeehive.htf.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embeddable stand-in for the HtfServer, speaking the same websocket protocol.
+ * <p>
+ * Every connection plays its own {@link Game} against the built-in bots, generated from the
+ * {@link GameSettings} seed; the n-th game started on the server uses seed + n. Rounds, timeouts,
+ * warnings and errors are handled by a {@link GameRoom}. After a game ended a new one starts,
+ * unless configured otherwise.
+ * <p>
+ * All games run on a single game thread, so the server is meant for testing one or a few clients;
+ * see {@link SimulationServer} for many concurrent games.
+ */
+public class LocalHtfServer extends WebSocketServer {
+
+    public static final int DEFAULT_PORT = 8887;
+
+    private final GameSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService gameThread;
+
+    private final AtomicLong gamesStarted = new AtomicLong();
+    private final AtomicLong roundsPlayed = new AtomicLong();
+    private final AtomicLong roundsTimedOut = new AtomicLong();
+    private final GameRoom.Listener counters = new GameRoom.Listener() {
+        @Override
+        public void onRoundPlayed(GameRoom room, int timedOutPlayers) {
+            roundsPlayed.incrementAndGet();
+            if (timedOutPlayers > 0) roundsTimedOut.incrementAndGet();
+        }
+    };
+
+    public LocalHtfServer(int port, GameSettings settings) {
+        super(new InetSocketAddress(port));
+        this.settings = settings;
+        this.gameThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "local-htf-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.setReuseAddr(true);
+    }
+
+    /**
+     * Starts a local server. Usage: {@code LocalHtfServer [port] [seed]}.
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameSettings settings = new GameSettings();
+        if (args.length > 1) {
+            settings.setSeed(Long.parseLong(args[1]));
+        }
+
+        LocalHtfServer server = new LocalHtfServer(port, settings);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        server.start();
+    }
+
+    @Override
+    public void onStart() {
+        System.out.println("Local HTF server listening on ws://localhost:" + this.getPort() + "/ws");
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        String name = handshake.hasFieldValue("apiKey") ? handshake.getFieldValue("apiKey") : "player";
+        GameRoom room = new GameRoom(
+                this.settings,
+                () -> this.settings.getSeed() + this.gamesStarted.getAndIncrement(),
+                this.gameThread,
+                this.objectMapper,
+                this.counters,
+                Collections.singletonList(conn),
+                Collections.singletonList(name)
+        );
+        conn.setAttachment(room);
+        room.start();
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        GameRoom room = conn.getAttachment();
+        if (room != null) {
+            room.receive(0, message);
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        GameRoom room = conn.getAttachment();
+        if (room != null) {
+            room.leave(0);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        System.err.println("Exception occurred ...\n" + ex);
+    }
+
+    @Override
+    public void stop(int timeout) throws InterruptedException {
+        super.stop(timeout);
+        this.gameThread.shutdownNow();
+    }
+
+    public long getGamesStarted() {
+        return gamesStarted.get();
+    }
+
+    public long getRoundsPlayed() {
+        return roundsPlayed.get();
+    }
+
+    /**
+     * The number of rounds played without an answer because the client was too late.
+     */
+    public long getRoundsTimedOut() {
+        return roundsTimedOut.get();
+    }
+}
@@ -0,0 +1,136 @@
+package be.thebeehive.htf.server;
+
+import be.thebeehive.htf.library.protocol.server.GameEndedServerMessage;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The leaderboards of a {@link GameSimulator} run, summed up per team.
+ */
+public class SimulationResult {
+
+    private final List<String> players;
+    private final List<GameEndedServerMessage> games;
+    private final long elapsedNanos;
+    private final Map<String, TeamResult> teams = new LinkedHashMap<>();
+
+    SimulationResult(List<String> players, List<GameEndedServerMessage> games,
+                     List<LatencyHistogram> decisions, long elapsedNanos) {
+        this.players = new ArrayList<>(players);
+        this.games = Collections.unmodifiableList(games);
+        this.elapsedNanos = elapsedNanos;
+
+        for (int player = 0; player < players.size(); player++) {
+            TeamResult result = new TeamResult(players.get(player));
+            result.decisionLatency = decisions.get(player);
+            this.teams.put(players.get(player), result);
+        }
+        for (GameEndedServerMessage game : games) {
+            List<GameEndedServerMessage.LeaderboardTeam> leaderboard = game.getLeaderboard();
+            for (int rank = 0; rank < leaderboard.size(); rank++) {
+                GameEndedServerMessage.LeaderboardTeam team = leaderboard.get(rank);
+                TeamResult result = this.teams.computeIfAbsent(team.getName(), TeamResult::new);
+                result.games++;
+                result.points += team.getPoints().doubleValue();
+                result.lastRounds += team.getLastRound();
+                if (rank == 0) result.wins++;
+            }
+        }
+    }
+
+    /**
+     * The leaderboard of every game, in the order of their seeds.
+     */
+    public List<GameEndedServerMessage> getGames() {
+        return games;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos > 0 ? games.size() * 1e9 / elapsedNanos : 0d;
+    }
+
+    /**
+     * The summed results of a team, players and bots alike.
+     *
+     * @return the results, or null if no team with that name played.
+     */
+    public TeamResult getTeam(String name) {
+        return teams.get(name);
+    }
+
+    /**
+     * Prints the number of games, the speed and the results of every team, with the decision
+     * latency of the players.
+     */
+    public void print(PrintStream out) {
+        out.printf("Played %d games in %d ms: %.1f games/sec%n",
+                games.size(), elapsedNanos / 1_000_000, getGamesPerSecond());
+        for (TeamResult team : teams.values()) {
+            out.printf("  %-12s %s | avg points=%.2f | avg last round=%.2f | wins=%d",
+                    team.getName(), players.contains(team.getName()) ? "player" : "bot   ",
+                    team.getAveragePoints(), team.getAverageLastRound(), team.getWins());
+            LatencyHistogram latency = team.getDecisionLatency();
+            if (latency != null && latency.count() > 0) {
+                long[] p = latency.percentiles(0.5, 0.99);
+                out.printf(" | decision p50=%.1f us p99=%.1f us", p[0] / 1e3, p[1] / 1e3);
+            }
+            out.println();
+        }
+    }
+
+    /**
+     * The results of one team over all games.
+     */
+    public static final class TeamResult {
+
+        private final String name;
+        private int games;
+        private double points;
+        private long lastRounds;
+        private int wins;
+        private LatencyHistogram decisionLatency;
+
+        TeamResult(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public double getAveragePoints() {
+            return games > 0 ? points / games : 0d;
+        }
+
+        public double getAverageLastRound() {
+            return games > 0 ? (double) lastRounds / games : 0d;
+        }
+
+        /**
+         * The number of games this team topped the leaderboard, ties resolved by name.
+         */
+        public int getWins() {
+            return wins;
+        }
+
+        /**
+         * How long the player took to handle a round message in which it was alive, or null for a bot.
+         */
+        public LatencyHistogram getDecisionLatency() {
+            return decisionLatency;
+        }
+    }
+}
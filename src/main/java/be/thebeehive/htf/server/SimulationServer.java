@@ -0,0 +1,228 @@
+package be.thebeehive.htf.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulation server hosting thousands of concurrent games for strategy tournaments.
+ * <p>
+ * All websocket sessions are multiplexed on the NIO selector of the {@link WebSocketServer} and
+ * a few decoder threads. Connections wait in a lobby until {@code playersPerGame} players are
+ * there, or the oldest waited {@code lobbyTimeoutMillis}, and then play together in a
+ * {@link GameRoom} against the built-in bots. Every room advances on its own round clock; the
+ * rooms are spread over a small, fixed number of single-threaded clock executors, so no thread is
+ * ever dedicated to a single game. Statistics are kept in {@link SimulationStats} and printed
+ * periodically.
+ */
+public class SimulationServer extends WebSocketServer {
+
+    private final GameSettings settings;
+    private final int playersPerGame;
+    private final long lobbyTimeoutMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService[] clocks;
+    private final ScheduledExecutorService housekeeping;
+    private final SimulationStats stats = new SimulationStats();
+
+    private final AtomicLong nextSeed;
+    private final AtomicInteger nextClock = new AtomicInteger();
+
+    private final List<Seat> lobby = new ArrayList<>();
+    private long lobbySinceNanos;
+
+    /**
+     * @param port               the port to listen on.
+     * @param settings           the rules of every game.
+     * @param playersPerGame     the number of connections playing in the same game.
+     * @param lobbyTimeoutMillis how long the first waiting connection waits for others at most.
+     * @param decoders           the number of threads decoding websocket frames.
+     * @param clockThreads       the number of threads running the games.
+     */
+    public SimulationServer(int port, GameSettings settings, int playersPerGame, long lobbyTimeoutMillis,
+                            int decoders, int clockThreads) {
+        super(new InetSocketAddress(port), decoders);
+        if (playersPerGame < 1) {
+            throw new IllegalArgumentException("playersPerGame must be positive: " + playersPerGame);
+        }
+        this.settings = settings;
+        this.playersPerGame = playersPerGame;
+        this.lobbyTimeoutMillis = lobbyTimeoutMillis;
+        this.nextSeed = new AtomicLong(settings.getSeed());
+
+        this.clocks = new ScheduledExecutorService[clockThreads];
+        for (int i = 0; i < clockThreads; i++) {
+            this.clocks[i] = Executors.newSingleThreadScheduledExecutor(daemonThreads("simulation-clock-" + i));
+        }
+        this.housekeeping = Executors.newSingleThreadScheduledExecutor(daemonThreads("simulation-housekeeping"));
+        this.setReuseAddr(true);
+        this.setTcpNoDelay(true);
+    }
+
+    /**
+     * Starts a simulation server.
+     * Usage: {@code SimulationServer [port] [playersPerGame] [clockThreads] [reportSeconds]}.
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : LocalHtfServer.DEFAULT_PORT;
+        int playersPerGame = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int clockThreads = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, cores / 2);
+        int reportSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        SimulationServer server = new SimulationServer(port, new GameSettings(), playersPerGame, 1_000,
+                Math.max(1, cores / 2), clockThreads);
+        server.reportEvery(reportSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        server.start();
+    }
+
+    /**
+     * Prints the {@link SimulationStats} to stdout at a fixed rate.
+     */
+    public void reportEvery(long period, TimeUnit unit) {
+        this.housekeeping.scheduleAtFixedRate(() -> this.stats.report(System.out), period, period, unit);
+    }
+
+    @Override
+    public void onStart() {
+        System.out.println("Simulation server listening on ws://localhost:" + this.getPort() + "/ws");
+        this.housekeeping.scheduleWithFixedDelay(this::flushLobby,
+                this.lobbyTimeoutMillis, Math.max(1, this.lobbyTimeoutMillis / 4), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        String name = handshake.hasFieldValue("apiKey") ? handshake.getFieldValue("apiKey") : "player";
+        Seat seat = new Seat(conn, name);
+        conn.setAttachment(seat);
+
+        List<Seat> players = null;
+        synchronized (this.lobby) {
+            if (this.lobby.isEmpty()) this.lobbySinceNanos = System.nanoTime();
+            this.lobby.add(seat);
+            if (this.lobby.size() == this.playersPerGame) {
+                players = new ArrayList<>(this.lobby);
+                this.lobby.clear();
+            }
+        }
+        if (players != null) {
+            this.startRoom(players);
+        }
+    }
+
+    private void flushLobby() {
+        List<Seat> players;
+        synchronized (this.lobby) {
+            this.lobby.removeIf(seat -> !seat.conn.isOpen());
+            long waited = System.nanoTime() - this.lobbySinceNanos;
+            if (this.lobby.isEmpty() || waited < TimeUnit.MILLISECONDS.toNanos(this.lobbyTimeoutMillis)) return;
+            players = new ArrayList<>(this.lobby);
+            this.lobby.clear();
+        }
+        this.startRoom(players);
+    }
+
+    private void startRoom(List<Seat> players) {
+        List<WebSocket> conns = new ArrayList<>(players.size());
+        List<String> names = new ArrayList<>(players.size());
+        for (Seat seat : players) {
+            conns.add(seat.conn);
+            names.add(seat.name);
+        }
+
+        ScheduledExecutorService clock = this.clocks[Math.floorMod(this.nextClock.getAndIncrement(), this.clocks.length)];
+        GameRoom room = new GameRoom(this.settings, this.nextSeed::getAndIncrement, clock,
+                this.objectMapper, this.stats, conns, names);
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).join(room, i);
+        }
+        room.start();
+        for (int i = 0; i < players.size(); i++) {
+            // Closed while waiting in the lobby, before onClose could find the room
+            if (!players.get(i).conn.isOpen()) room.leave(i);
+        }
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        Seat seat = conn.getAttachment();
+        GameRoom room = seat != null ? seat.room : null;
+        if (room != null) {
+            room.receive(seat.index, message);
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        Seat seat = conn.getAttachment();
+        GameRoom room = seat != null ? seat.room : null;
+        if (room != null) {
+            room.leave(seat.index);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        System.err.println("Exception occurred ...\n" + ex);
+    }
+
+    @Override
+    public void stop(int timeout) throws InterruptedException {
+        super.stop(timeout);
+        this.housekeeping.shutdownNow();
+        for (ScheduledExecutorService clock : this.clocks) {
+            clock.shutdownNow();
+        }
+    }
+
+    public SimulationStats getStats() {
+        return stats;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A connection and, once it left the lobby, its room and player index.
+     */
+    private static final class Seat {
+
+        final WebSocket conn;
+        final String name;
+        volatile GameRoom room;
+        volatile int index;
+
+        Seat(WebSocket conn, String name) {
+            this.conn = conn;
+            this.name = name;
+        }
+
+        void join(GameRoom room, int index) {
+            this.index = index;
+            this.room = room;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package be.thebeehive.htf.server;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Game, round-rate and answer latency statistics of a {@link SimulationServer}.
+ * Recording is thread-safe and lock-free; the answer latency is the time between sending a
+ * round and receiving its answer on the room's clock thread.
+ */
+public class SimulationStats implements GameRoom.Listener {
+
+    private final AtomicLong gamesStarted = new AtomicLong();
+    private final AtomicLong gamesEnded = new AtomicLong();
+    private final AtomicLong roundsPlayed = new AtomicLong();
+    private final AtomicLong timedOutAnswers = new AtomicLong();
+    private final LatencyHistogram answerLatency = new LatencyHistogram();
+
+    private final long startNanos = System.nanoTime();
+    private long lastReportNanos = startNanos;
+    private long lastReportRounds;
+
+    @Override
+    public void onGameStarted(GameRoom room) {
+        this.gamesStarted.incrementAndGet();
+    }
+
+    @Override
+    public void onAnswer(GameRoom room, long latencyNanos) {
+        this.answerLatency.record(latencyNanos);
+    }
+
+    @Override
+    public void onRoundPlayed(GameRoom room, int timedOutPlayers) {
+        this.roundsPlayed.incrementAndGet();
+        if (timedOutPlayers > 0) this.timedOutAnswers.addAndGet(timedOutPlayers);
+    }
+
+    @Override
+    public void onGameEnded(GameRoom room) {
+        this.gamesEnded.incrementAndGet();
+    }
+
+    public long getGamesStarted() {
+        return gamesStarted.get();
+    }
+
+    public long getGamesEnded() {
+        return gamesEnded.get();
+    }
+
+    public long getActiveGames() {
+        return gamesStarted.get() - gamesEnded.get();
+    }
+
+    public long getRoundsPlayed() {
+        return roundsPlayed.get();
+    }
+
+    /**
+     * The number of answers that did not arrive before the round timeout.
+     */
+    public long getTimedOutAnswers() {
+        return timedOutAnswers.get();
+    }
+
+    public LatencyHistogram getAnswerLatency() {
+        return answerLatency;
+    }
+
+    /**
+     * Prints one line with the totals, the round rate since the previous report and the answer
+     * latency percentiles.
+     */
+    public synchronized void report(PrintStream out) {
+        long now = System.nanoTime();
+        long rounds = this.roundsPlayed.get();
+        double seconds = (now - this.lastReportNanos) / 1e9;
+        double rate = seconds > 0 ? (rounds - this.lastReportRounds) / seconds : 0d;
+        this.lastReportNanos = now;
+        this.lastReportRounds = rounds;
+
+        long[] latency = this.answerLatency.percentiles(0.50, 0.99, 0.999, 1.0);
+        out.printf("[%ds] games active=%d started=%d ended=%d | rounds=%d (%.0f/s) | timed out=%d"
+                        + " | answer us p50=%d p99=%d p99.9=%d max=%d%n",
+                TimeUnit.NANOSECONDS.toSeconds(now - this.startNanos),
+                this.getActiveGames(), this.getGamesStarted(), this.getGamesEnded(),
+                rounds, rate, this.getTimedOutAnswers(),
+                micros(latency[0]), micros(latency[1]), micros(latency[2]), micros(latency[3]));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
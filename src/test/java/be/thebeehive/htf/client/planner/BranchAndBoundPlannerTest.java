@@ -0,0 +1,180 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.client.ClientUtils;
+import be.thebeehive.htf.client.PackedValues;
+import be.thebeehive.htf.server.GameSettings;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the pruning of {@link BranchAndBoundPlanner} never loses the best plan: on small
+ * rounds its plan must be worth as much as the best of every ordered sequence of at most
+ * {@link ActionScorer#MAX_ACTIONS_PER_ROUND} distinct actions, valued the way {@link PlanSearch}
+ * documents.
+ */
+public class BranchAndBoundPlannerTest {
+
+    private static final int GAMES = 40;
+
+    @Test
+    public void planIsAsGoodAsBruteForce() {
+        ActionScorer scorer = new ActionScorer();
+        BranchAndBoundPlanner planner = new BranchAndBoundPlanner(scorer);
+
+        int planned = 0;
+        GameSettings settings = new GameSettings().setMaxRounds(60).setActions(3, 8).setEffects(2, 6);
+        for (PlanningRound round : TestRounds.rounds(settings, GAMES)) {
+            BruteForce bruteForce = new BruteForce(scorer, round);
+            double best = bruteForce.best();
+            double found = bruteForce.value(indices(round, planner.plan(round)));
+
+            assertEquals("Round " + round.getRound() + " of " + round.getActionCount() + " actions",
+                    best, found, tolerance(best));
+            if (found > bruteForce.value(new int[0]) + tolerance(found)) planned++;
+        }
+        assertTrue("No round where acting beats doing nothing", planned > 0);
+    }
+
+    private static double tolerance(double score) {
+        return Math.max(1d, Math.abs(score)) * 1e-9;
+    }
+
+    private static int[] indices(PlanningRound round, List<Long> plan) {
+        long[] ids = round.getActionTable().getId();
+        int[] path = new int[plan.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = -1;
+            for (int a = 0; a < round.getActionCount(); a++) {
+                if (ids[a] == plan.get(i)) path[i] = a;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Values every sequence from scratch, without any pruning.
+     */
+    private static final class BruteForce {
+
+        private final ActionScorer scorer;
+        private final PlanningRound round;
+        private final PackedValues[] actions;
+        private final PackedValues[] effects;
+        private final int[] steps;
+        private final long[] effectIds;
+        private final long[] counters;
+        private final int[] order;
+
+        BruteForce(ActionScorer scorer, PlanningRound round) {
+            this.scorer = scorer;
+            this.round = round;
+            this.actions = round.getActionValues();
+            this.effects = round.getEffectValues();
+            this.steps = round.getEffectTable().getStep();
+            this.effectIds = round.getEffectTable().getId();
+            this.counters = round.getActionTable().getEffectId();
+
+            List<Integer> sorted = new ArrayList<>();
+            for (int e = 0; e < effects.length; e++) {
+                if (effects[e] != null) sorted.add(e);
+            }
+            sorted.sort((a, b) -> steps[a] != steps[b] ? Integer.compare(steps[a], steps[b]) : Integer.compare(a, b));
+            this.order = new int[sorted.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = sorted.get(i);
+            }
+        }
+
+        double best() {
+            return best(new int[ActionScorer.MAX_ACTIONS_PER_ROUND], 0);
+        }
+
+        private double best(int[] path, int length) {
+            int[] sequence = new int[length];
+            System.arraycopy(path, 0, sequence, 0, length);
+            double best = value(sequence);
+            if (Double.isNaN(best) || length == path.length) return best;
+
+            for (int a = 0; a < actions.length; a++) {
+                if (actions[a] == null || contains(path, length, a)) continue;
+                path[length] = a;
+                double score = best(path, length + 1);
+                if (score > best) best = score;
+            }
+            return best;
+        }
+
+        /**
+         * The score of a plan, or NaN if the rules forbid it or an earlier step already killed us.
+         */
+        double value(int[] plan) {
+            PackedValues state = new PackedValues().set(round.getStart());
+            boolean[] removed = new boolean[effects.length];
+
+            double score = hit(state, removed, Integer.MIN_VALUE, 0);
+            for (int depth = 0; depth < plan.length; depth++) {
+                if (plan[depth] < 0 || ClientUtils.isDead(state)) return Double.NaN;
+
+                int step = depth + 1;
+                PackedValues delta = actions[plan[depth]];
+                double actionScore = scorer.scoreAction(delta, state.getHullStrength(), state.getCrewHealth());
+
+                boolean removesHarmful = false;
+                boolean removesLethal = false;
+                for (int e = 0; e < effects.length; e++) {
+                    if (removes(plan[depth], e, step, removed) && ActionScorer.isHarmful(effects[e])) {
+                        removesHarmful = true;
+                        removesLethal |= ActionScorer.effectWouldKill(state, effects[e]);
+                    }
+                }
+                if (!removesHarmful && (actionScore <= 0d
+                        || scorer.survivalGuard(delta, state.getHullStrength(), state.getCrewHealth()) != ActionScorer.GUARD_NONE)) {
+                    return Double.NaN;
+                }
+
+                PackedValues next = ClientUtils.sumValues(state, delta, new PackedValues());
+                if (ClientUtils.isDead(next)) return Double.NaN;
+                if (removesHarmful && !removesLethal && next.getCrewHealth() < scorer.getCrewReserve()) return Double.NaN;
+
+                for (int e = 0; e < effects.length; e++) {
+                    if (removes(plan[depth], e, step, removed)) removed[e] = true;
+                }
+                state = next;
+                score += actionScore + hit(state, removed, step, step);
+            }
+            return score + hit(state, removed, plan.length + 1, Integer.MAX_VALUE);
+        }
+
+        private boolean removes(int action, int effect, int step, boolean[] removed) {
+            return effects[effect] != null && !removed[effect] && steps[effect] >= step
+                    && counters[action] == effectIds[effect];
+        }
+
+        /**
+         * Lets the effects with a step in {@code [from, to]} that were not removed hit, stopping
+         * at death.
+         */
+        private double hit(PackedValues state, boolean[] removed, int from, int to) {
+            double score = 0d;
+            for (int e : order) {
+                if (removed[e] || steps[e] < from || steps[e] > to || ClientUtils.isDead(state)) continue;
+                score += scorer.weightedDamage(effects[e], state.getHullStrength(), state.getCrewHealth());
+                ClientUtils.sumValues(state, effects[e], state);
+                if (ClientUtils.isDead(state)) score += ActionScorer.FORBIDDEN_SCORE;
+            }
+            return score;
+        }
+
+        private static boolean contains(int[] path, int length, int action) {
+            for (int i = 0; i < length; i++) {
+                if (path[i] == action) return true;
+            }
+            return false;
+        }
+    }
+}
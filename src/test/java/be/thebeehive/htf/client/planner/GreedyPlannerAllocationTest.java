@@ -0,0 +1,56 @@
+package be.thebeehive.htf.client.planner;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link GreedyPlanner#plan(PlanningRound, PlannerScratch)} allocates nothing once
+ * the scratch has grown and the planner has been compiled.
+ */
+public class GreedyPlannerAllocationTest {
+
+    private static final int GAMES = 20;
+    private static final int WARM_UP_PASSES = 200;
+    private static final int MEASURED_PASSES = 20;
+
+    @Test
+    public void planDoesNotAllocateAfterWarmUp() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        PlanningRound[] rounds = TestRounds.rounds(GAMES).toArray(new PlanningRound[0]);
+        GreedyPlanner planner = new GreedyPlanner(new ActionScorer(), false);
+        PlannerScratch scratch = new PlannerScratch();
+        long threadId = Thread.currentThread().getId();
+
+        long sink = 0;
+        for (int pass = 0; pass < WARM_UP_PASSES; pass++) {
+            for (int r = 0; r < rounds.length; r++) {
+                sink += planner.plan(rounds[r], scratch);
+            }
+        }
+
+        // What reading the counter itself costs, if anything
+        long first = allocations.getThreadAllocatedBytes(threadId);
+        long overhead = allocations.getThreadAllocatedBytes(threadId) - first;
+
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int pass = 0; pass < MEASURED_PASSES; pass++) {
+            for (int r = 0; r < rounds.length; r++) {
+                sink += planner.plan(rounds[r], scratch);
+            }
+        }
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        assertEquals("Bytes allocated by " + MEASURED_PASSES * rounds.length + " plans (sink " + sink + ")",
+                0L, allocated);
+    }
+}
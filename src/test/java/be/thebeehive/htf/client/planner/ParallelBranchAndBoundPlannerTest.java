@@ -0,0 +1,66 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.server.GameSettings;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link ParallelBranchAndBoundPlanner} returns exactly the plan of the sequential
+ * search, ties included, whatever the split depth, the pool size or the scheduling of a run.
+ */
+public class ParallelBranchAndBoundPlannerTest {
+
+    private static final int GAMES = 6;
+    private static final int RUNS = 3;
+    private static final int[] POOL_SIZES = {1, 2, 4, 8};
+
+    @Test
+    public void sameAsSequentialSearch() {
+        ActionScorer scorer = new ActionScorer();
+        List<PlanningRound> rounds = rounds();
+        List<List<Long>> expected = new ArrayList<>();
+        for (PlanningRound round : rounds) {
+            PlanSearch search = new PlanSearch(new SearchSpace(scorer, round, ActionScorer.MAX_ACTIONS_PER_ROUND));
+            search.search();
+            expected.add(BranchAndBoundPlanner.toActionIds(round, search.getBestPath(), search.getBestLength()));
+        }
+
+        for (int threads : POOL_SIZES) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                for (int splitDepth = 1; splitDepth <= 2; splitDepth++) {
+                    ParallelBranchAndBoundPlanner planner = new ParallelBranchAndBoundPlanner(scorer, pool, splitDepth);
+                    for (int run = 0; run < RUNS; run++) {
+                        for (int r = 0; r < rounds.size(); r++) {
+                            assertEquals("Round " + rounds.get(r).getRound() + ", " + threads + " threads, split depth "
+                                            + splitDepth + ", run " + run,
+                                    expected.get(r), planner.plan(rounds.get(r)));
+                        }
+                    }
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * The rounds of a few simulated games with enough actions to be searched in parallel.
+     */
+    private static List<PlanningRound> rounds() {
+        int threshold = ParallelBranchAndBoundPlanner.SEQUENTIAL_THRESHOLD;
+        GameSettings settings = new GameSettings().setMaxRounds(40).setActions(threshold, 2 * threshold);
+        List<PlanningRound> rounds = new ArrayList<>();
+        for (PlanningRound round : TestRounds.rounds(settings, GAMES)) {
+            if (round.getActionCount() >= threshold) rounds.add(round);
+        }
+        assertTrue("No round with at least " + threshold + " actions", !rounds.isEmpty());
+        return rounds;
+    }
+}
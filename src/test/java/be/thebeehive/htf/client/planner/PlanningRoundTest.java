@@ -0,0 +1,43 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.library.protocol.server.GameRoundServerMessage;
+import be.thebeehive.htf.library.protocol.server.ServerMessageDecoder;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that a round with values the packed form cannot hold exactly is still planned.
+ */
+public class PlanningRoundTest {
+
+    private static final String ROUND = "{\"_type\":\"GameRoundServerMessage\",\"round\":7,"
+            + "\"roundId\":\"5b0c3a4e-8f0e-4a47-9d3c-0f2f4a1c6b11\","
+            + "\"ourSubmarine\":{\"name\":\"player\",\"alive\":true,\"values\":"
+            + "{\"hullStrength\":100.0005,\"maxHullStrength\":200.0005,\"crewHealth\":50.1234,\"maxCrewHealth\":100}},"
+            + "\"effects\":[{\"id\":1,\"step\":1,\"values\":"
+            + "{\"hullStrength\":-150.1234,\"maxHullStrength\":0,\"crewHealth\":0,\"maxCrewHealth\":0}}],"
+            + "\"actions\":[{\"id\":10,\"effectId\":1,\"values\":"
+            + "{\"hullStrength\":-0.0001,\"maxHullStrength\":0,\"crewHealth\":0,\"maxCrewHealth\":0}}]}";
+
+    @Test
+    public void roundWithFourDecimalsIsPlanned() throws Exception {
+        ServerMessageDecoder decoder = new ServerMessageDecoder();
+        decoder.setColumnar(true);
+        GameRoundServerMessage msg = (GameRoundServerMessage) decoder.decode(ROUND);
+
+        PlanningRound round = PlanningRound.of(msg);
+
+        assertEquals(5, round.getRoundedValues());
+        // Rounded toward more harm: less health, more damage
+        assertEquals(100000L, round.getStart().getHullStrength());
+        assertEquals(200000L, round.getStart().getMaxHullStrength());
+        assertEquals(50123L, round.getStart().getCrewHealth());
+        assertEquals(-150124L, round.getEffectValues()[0].getHullStrength());
+        assertEquals(-1L, round.getActionValues()[0].getHullStrength());
+
+        assertEquals(Collections.singletonList(10L), new GreedyPlanner(new ActionScorer()).plan(round));
+    }
+}
@@ -0,0 +1,74 @@
+package be.thebeehive.htf.client.planner;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the rollout estimates only depend on the seed, not on how the rollouts are spread
+ * over the pool.
+ */
+public class RolloutEvaluatorTest {
+
+    private static final long SEED = 42L;
+    private static final int ROLLOUTS = 32;
+    private static final int GAMES = 5;
+
+    @Test
+    public void sameSeedGivesSameEstimatesOnAnyPoolSize() throws Exception {
+        List<PlanningRound> rounds = TestRounds.rounds(GAMES);
+        RoundDistribution distribution = new RoundDistribution();
+        for (PlanningRound round : rounds) {
+            distribution.add(round);
+        }
+        ActionScorer scorer = new ActionScorer();
+
+        ExecutorService single = Executors.newFixedThreadPool(1);
+        ExecutorService several = Executors.newFixedThreadPool(4);
+        try {
+            RolloutEvaluator sequential = new RolloutEvaluator(scorer, single, 1, ROLLOUTS, RolloutEvaluator.DEFAULT_HORIZON, SEED);
+            RolloutEvaluator parallel = new RolloutEvaluator(scorer, several, 4, ROLLOUTS, RolloutEvaluator.DEFAULT_HORIZON, SEED);
+
+            int evaluated = 0;
+            boolean rolledOut = false;
+            for (PlanningRound round : rounds) {
+                List<List<Long>> plans = candidates(scorer, round);
+                if (plans.size() < 2) continue;
+
+                double[] expected = sequential.evaluate(round, distribution, plans);
+                assertArrayEquals("Round " + round.getRound() + " evaluated twice",
+                        expected, sequential.evaluate(round, distribution, plans), 0d);
+                assertArrayEquals("Round " + round.getRound() + " on 1 and 4 threads",
+                        expected, parallel.evaluate(round, distribution, plans), 0d);
+                evaluated++;
+                for (double survived : expected) {
+                    rolledOut |= survived > 1d;
+                }
+            }
+            assertTrue("No round with distinct candidate plans", evaluated > 0);
+            assertTrue("No rollout survived a random round", rolledOut);
+        } finally {
+            single.shutdownNow();
+            several.shutdownNow();
+        }
+    }
+
+    private static List<List<Long>> candidates(ActionScorer scorer, PlanningRound round) {
+        List<List<Long>> plans = new ArrayList<>();
+        for (Planner planner : Arrays.asList(new GreedyPlanner(scorer), new CheckpointPlanner(scorer), new BeamSearchPlanner(scorer))) {
+            List<Long> plan = planner.plan(round);
+            if (!plans.contains(plan)) plans.add(plan);
+        }
+        // Doing nothing is always a candidate
+        if (!plans.contains(Collections.<Long>emptyList())) plans.add(Collections.<Long>emptyList());
+        return plans;
+    }
+}
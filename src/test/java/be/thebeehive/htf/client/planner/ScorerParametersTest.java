@@ -0,0 +1,45 @@
+package be.thebeehive.htf.client.planner;
+
+import org.junit.Test;
+
+import static be.thebeehive.htf.client.PackedValues.SCALE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that parameters a tuner may sample always give ordered thresholds.
+ */
+public class ScorerParametersTest {
+
+    @Test
+    public void thresholdsStayOrdered() {
+        double[] values = ScorerParameters.defaults().toArray();
+        values[ScorerParameter.CRITICAL_HULL.ordinal()] = 80000;
+        values[ScorerParameter.LOW_HULL.ordinal()] = 10000;
+        values[ScorerParameter.HEALTHY_HULL.ordinal()] = 40000;
+        values[ScorerParameter.CRITICAL_CREW.ordinal()] = 700;
+        values[ScorerParameter.LOW_CREW.ordinal()] = 100;
+        values[ScorerParameter.HEALTHY_CREW.ordinal()] = 300;
+
+        ActionScorer scorer = new ActionScorer(ScorerParameters.of(values));
+
+        assertEquals(10000 * SCALE, scorer.getCriticalHull());
+        assertEquals(40000 * SCALE, scorer.getLowHull());
+        assertEquals(80000 * SCALE, scorer.getHealthyHull());
+        assertEquals(100 * SCALE, scorer.getCriticalCrew());
+        assertEquals(300 * SCALE, scorer.getLowCrew());
+        assertEquals(700 * SCALE, scorer.getHealthyCrew());
+
+        // Crew damage that would cross into critical from low crew is refused
+        assertEquals(ActionScorer.GUARD_INTO_CRITICAL_CREW,
+                scorer.survivalGuard(0L, -2L, scorer.getHealthyHull() + 1, scorer.getCriticalCrew() + 1));
+    }
+
+    @Test
+    public void thresholdMovedPastAnotherTradesPlaces() {
+        ScorerParameters parameters = ScorerParameters.defaults().with(ScorerParameter.LOW_CREW, 200);
+
+        assertEquals(200d, parameters.get(ScorerParameter.CRITICAL_CREW), 0d);
+        assertEquals(300d, parameters.get(ScorerParameter.LOW_CREW), 0d);
+        assertEquals(900d, parameters.get(ScorerParameter.HEALTHY_CREW), 0d);
+    }
+}
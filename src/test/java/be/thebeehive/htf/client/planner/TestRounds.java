@@ -0,0 +1,44 @@
+package be.thebeehive.htf.client.planner;
+
+import be.thebeehive.htf.server.Game;
+import be.thebeehive.htf.server.GameSettings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rounds for planner tests, taken from simulated games.
+ */
+final class TestRounds {
+
+    private TestRounds() {
+
+    }
+
+    /**
+     * The rounds of games of at most 60 rounds with the default settings, seeds {@code 0} to
+     * {@code games - 1}.
+     */
+    static List<PlanningRound> rounds(int games) {
+        return rounds(new GameSettings().setMaxRounds(60), games);
+    }
+
+    /**
+     * The rounds of simulated games in which we never act, so the submarine goes through every
+     * band; seeds {@code 0} to {@code games - 1}.
+     */
+    static List<PlanningRound> rounds(GameSettings settings, int games) {
+        List<PlanningRound> rounds = new ArrayList<>();
+        for (int seed = 0; seed < games; seed++) {
+            Game game = new Game(settings, seed, Collections.singletonList("player"));
+            while (!game.isOver()) {
+                game.nextRound();
+                rounds.add(PlanningRound.of(game.roundMessage(0)));
+                game.submit(0, game.getRoundId(), Collections.<Long>emptyList());
+                game.resolveRound();
+            }
+        }
+        return rounds;
+    }
+}